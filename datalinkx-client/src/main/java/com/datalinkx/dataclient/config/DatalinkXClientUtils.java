@@ -1,8 +1,11 @@
 package com.datalinkx.dataclient.config;
 
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
 import okhttp3.logging.HttpLoggingInterceptor;
@@ -22,12 +25,31 @@ public final class DatalinkXClientUtils {
     private static final long DEFAULT_CALL_TIMEOUT = 60000;
     private static final long DEFAULT_READ_TIMEOUT = 60000;
 
+    //共享连接池：最大空闲连接数、空闲连接保活时间
+    private static final int MAX_IDLE_CONNECTIONS = 32;
+    private static final long KEEP_ALIVE_MINUTES = 5;
+    //任务状态轮询等高频调用集中在少数host上，放宽单host并发请求上限
+    private static final int MAX_REQUESTS_PER_HOST = 32;
+
+    private static final HttpClientMetrics METRICS = new HttpClientMetrics();
+    private static final OkHttpClient SHARED_CLIENT = buildSharedClient();
+
     //定义了一个私有构造函数，防止外部直接实例化该工具类
     private DatalinkXClientUtils() {
 
     }
 
 
+    private static OkHttpClient buildSharedClient() {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+        return new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                .dispatcher(dispatcher)
+                .eventListenerFactory(METRICS)
+                .build();
+    }
+
     public static <T> T createClient(String serviceName, ClientConfig.ServicePropertieBean properties, Class<T> clazz) {
         Retrofit retrofit = checkAndBuildRetrofit(serviceName, properties);
         return create(retrofit, clazz);
@@ -43,41 +65,17 @@ public final class DatalinkXClientUtils {
         return retrofit.create(serviceClazz);
     }
 
+    /**
+     * 所有客户端共享连接池的连接数及按host的调用统计
+     */
+    public static Map<String, Object> metrics() {
+        return METRICS.snapshot(SHARED_CLIENT.connectionPool());
+    }
+
     //构建 Retrofit 实例
 
     private static Retrofit checkAndBuildRetrofit(String name, ClientConfig.ServicePropertieBean prop) {
-//        LOGGER.info("config {} client:{}", name, prop);
-        // check 参数
-        if (prop != null) {
-            if (StringUtils.isEmpty(prop.getUrl())) {
-                log.error(name + " url required");
-            }
-        }
-
-        //创建一个 OkHttpClient.Builder 实例，用于配置 HTTP 客户端
-        OkHttpClient.Builder okHttpBuider = new OkHttpClient.Builder()
-                .connectTimeout(
-                        prop.getConnectTimeoutMs() != null ? prop.getConnectTimeoutMs() : DEFAULT_CONNECT_TIMEOUT,
-                        TimeUnit.MILLISECONDS)
-                .callTimeout(prop.getCallTimeoutMs() != null ? prop.getCallTimeoutMs() : DEFAULT_CALL_TIMEOUT,
-                        TimeUnit.MILLISECONDS)
-                .readTimeout(prop.getReadTimeoutMs() != null ? prop.getReadTimeoutMs() : DEFAULT_READ_TIMEOUT,
-                        TimeUnit.MILLISECONDS);
-        if (Boolean.TRUE.equals(prop.getLogging())) {
-            HttpLoggingInterceptor logInterceptor = new HttpLoggingInterceptor();
-            logInterceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
-            okHttpBuider.addInterceptor(logInterceptor);
-        }
-
-        //创建 Retrofit 构建器，设置基础 URL 和 HTTP 客户端
-        /*
-        addConverterFactory(JacksonConverterFactory.create())：添加 Jackson 转换器工厂，用于处理 JSON 数据。
-        addConverterFactory(JacksonParamConverterFactory.create())：添加另一个 Jackson 转换器工厂，可能是用于处理特定的参数转换
-         */
-        return new Retrofit.Builder().baseUrl(prop.getUrl()).client(okHttpBuider.build())
-                .addConverterFactory(JacksonConverterFactory.create())
-                .addConverterFactory(JacksonParamConverterFactory.create())
-                .addCallAdapterFactory(SynchronousCallAdapterFactory.create(prop.getErrorThrow())).build();
+        return checkAndBuildRetrofit(name, prop, null);
     }
 
     private static Retrofit checkAndBuildRetrofit(String name, ClientConfig.ServicePropertieBean prop, Interceptor interceptor) {
@@ -89,7 +87,8 @@ public final class DatalinkXClientUtils {
             }
         }
 
-        OkHttpClient.Builder okHttpBuider = new OkHttpClient.Builder()
+        //从共享客户端派生，复用同一个连接池与调度线程池，只覆盖超时和拦截器
+        OkHttpClient.Builder okHttpBuider = SHARED_CLIENT.newBuilder()
                 .connectTimeout(
                         prop.getConnectTimeoutMs() != null ? prop.getConnectTimeoutMs() : DEFAULT_CONNECT_TIMEOUT,
                         TimeUnit.MILLISECONDS)
@@ -107,6 +106,11 @@ public final class DatalinkXClientUtils {
             okHttpBuider.addInterceptor(interceptor);
         }
 
+        //创建 Retrofit 构建器，设置基础 URL 和 HTTP 客户端
+        /*
+        addConverterFactory(JacksonConverterFactory.create())：添加 Jackson 转换器工厂，用于处理 JSON 数据。
+        addConverterFactory(JacksonParamConverterFactory.create())：添加另一个 Jackson 转换器工厂，可能是用于处理特定的参数转换
+         */
         return new Retrofit.Builder().baseUrl(prop.getUrl()).client(okHttpBuider.build())
                 .addConverterFactory(JacksonConverterFactory.create())
                 .addConverterFactory(JacksonParamConverterFactory.create())
@@ -0,0 +1,102 @@
+package com.datalinkx.dataclient.config;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.ConnectionPool;
+import okhttp3.EventListener;
+
+
+/**
+ * 共享OkHttpClient的按host统计：调用次数、失败次数、平均耗时、新建连接数与连接复用次数
+ */
+public final class HttpClientMetrics implements EventListener.Factory {
+
+    private final Map<String, HostStats> hostStats = new ConcurrentHashMap<>();
+
+    @Override
+    public EventListener create(Call call) {
+        return new CallListener(this.stats(call));
+    }
+
+    public Map<String, Object> snapshot(ConnectionPool connectionPool) {
+        Map<String, Object> hosts = new LinkedHashMap<>();
+        hostStats.forEach((host, stats) -> hosts.put(host, stats.toMap()));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("connectionCount", connectionPool.connectionCount());
+        result.put("idleConnectionCount", connectionPool.idleConnectionCount());
+        result.put("hosts", hosts);
+        return result;
+    }
+
+    private HostStats stats(Call call) {
+        String host = call.request().url().host() + ":" + call.request().url().port();
+        return hostStats.computeIfAbsent(host, k -> new HostStats());
+    }
+
+    private static final class HostStats {
+        final LongAdder calls = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAdder connectsStarted = new LongAdder();
+        final LongAdder connectionsAcquired = new LongAdder();
+
+        Map<String, Object> toMap() {
+            long callCount = calls.sum();
+            long acquired = connectionsAcquired.sum();
+            long connects = connectsStarted.sum();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("calls", callCount);
+            map.put("failures", failures.sum());
+            map.put("averageLatencyMillis", callCount == 0 ? 0 : totalNanos.sum() / 1_000_000.0 / callCount);
+            map.put("newConnections", connects);
+            map.put("reusedConnections", Math.max(0, acquired - connects));
+            return map;
+        }
+    }
+
+    private static final class CallListener extends EventListener {
+        private final HostStats stats;
+        private long startNanos;
+
+        CallListener(HostStats stats) {
+            this.stats = stats;
+        }
+
+        @Override
+        public void callStart(Call call) {
+            startNanos = System.nanoTime();
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            stats.connectsStarted.increment();
+        }
+
+        @Override
+        public void connectionAcquired(Call call, Connection connection) {
+            stats.connectionsAcquired.increment();
+        }
+
+        @Override
+        public void callEnd(Call call) {
+            stats.calls.increment();
+            stats.totalNanos.add(System.nanoTime() - startNanos);
+        }
+
+        @Override
+        public void callFailed(Call call, IOException ioe) {
+            stats.calls.increment();
+            stats.failures.increment();
+            stats.totalNanos.add(System.nanoTime() - startNanos);
+        }
+    }
+}
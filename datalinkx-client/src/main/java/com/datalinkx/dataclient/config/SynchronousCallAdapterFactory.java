@@ -4,6 +4,10 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.lang.reflect.Type;
 import java.net.ConnectException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.datalinkx.common.exception.SDKConnectException;
 import com.datalinkx.common.exception.SDKException;
@@ -24,6 +28,8 @@ public final class SynchronousCallAdapterFactory extends CallAdapter.Factory {
 	 */
 	private boolean errorThrow = true;
 
+	private static final Map<Class<?>, ResponseFields> RESPONSE_FIELDS_CACHE = new ConcurrentHashMap<>();
+
 	private SynchronousCallAdapterFactory(Boolean errorThrow) {
 		this.errorThrow = errorThrow;
 	}
@@ -41,7 +47,7 @@ public final class SynchronousCallAdapterFactory extends CallAdapter.Factory {
 
 	@Override
 	public CallAdapter<Object, Object> get(final Type returnType, Annotation[] annotations, Retrofit retrofit) {
-		if (returnType.toString().contains("retrofit2.Call")) {
+		if (getRawType(returnType) == Call.class) {
 			return null;
 		}
 		return new CallAdapter<Object, Object>() {
@@ -73,33 +79,18 @@ public final class SynchronousCallAdapterFactory extends CallAdapter.Factory {
 		if (!errorThrow) {
 			return body;
 		}
-		Field statusField = null;
-		try {
-			statusField = body.getClass().getDeclaredField("status");
-		} catch (NoSuchFieldException e) {
+		ResponseFields responseFields = RESPONSE_FIELDS_CACHE.computeIfAbsent(body.getClass(), ResponseFields::new);
+		if (responseFields.statusField == null) {
 			// 如果字段不存在，说明接受返回值的对象不属于常规返回对象，是否请求成功由调用者自己判断
 			return body;
-		} catch (SecurityException e) {
-			throw new SDKException(e);
 		}
-		statusField.setAccessible(true);
-		Integer status = Integer.parseInt(statusField.get(body).toString());
+		Integer status = Integer.parseInt(responseFields.statusField.get(body).toString());
 		if (status != 0) {
 			String reason = null;
-			for (Field errField : body.getClass().getDeclaredFields()) {
-				errField.setAccessible(true);
-				if ("errstr".equals(errField.getName())) {
-					reason = (String) errField.get(body);
-				} else if ("msg".equals(errField.getName())) {
-					reason = (String) errField.get(body);
-					if (reason != null && !"".equals(reason)) {
-						break;
-					}
-				} else if ("message".equals(errField.getName())) {
-					reason = (String) errField.get(body);
-					if (reason != null && !"".equals(reason)) {
-						break;
-					}
+			for (Field errField : responseFields.errFields) {
+				reason = (String) errField.get(body);
+				if (!"errstr".equals(errField.getName()) && reason != null && !"".equals(reason)) {
+					break;
 				}
 			}
 			throw new SDKException(status, reason);
@@ -108,4 +99,32 @@ public final class SynchronousCallAdapterFactory extends CallAdapter.Factory {
 		}
 	}
 
+	/**
+	 * 返回值类型的status及错误信息字段，按类型解析一次后缓存
+	 */
+	private static final class ResponseFields {
+		private final Field statusField;
+		private final List<Field> errFields = new ArrayList<>();
+
+		ResponseFields(Class<?> clazz) {
+			Field status = null;
+			try {
+				status = clazz.getDeclaredField("status");
+				status.setAccessible(true);
+			} catch (NoSuchFieldException e) {
+				// 非常规返回对象
+			} catch (SecurityException e) {
+				throw new SDKException(e);
+			}
+			this.statusField = status;
+
+			for (Field errField : clazz.getDeclaredFields()) {
+				if ("errstr".equals(errField.getName()) || "msg".equals(errField.getName()) || "message".equals(errField.getName())) {
+					errField.setAccessible(true);
+					errFields.add(errField);
+				}
+			}
+		}
+	}
+
 }
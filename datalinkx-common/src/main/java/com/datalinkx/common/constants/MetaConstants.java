@@ -82,5 +82,11 @@ public final class MetaConstants {
 
     public static class CopilotConstant {
         public static final String VECTOR_ES_ENGINE = "elasticsearch";
+        public static final String VECTOR_HNSW_ENGINE = "hnsw";
+
+        // 向量召回条数
+        public static final int RETRIEVAL_TOP_K = 5;
+        // 向量召回最低余弦相似度
+        public static final double RETRIEVAL_MIN_SIMILARITY = 0.7;
     }
 }
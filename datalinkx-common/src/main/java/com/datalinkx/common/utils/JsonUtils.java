@@ -5,6 +5,7 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.databind.type.CollectionType;
 import com.jayway.jsonpath.JsonPath;
 import org.apache.commons.lang3.StringUtils;
@@ -135,6 +136,19 @@ public final class JsonUtils {
 		return jsonNode;
 	}
 
+	/**
+	 * pojo直接转为JsonNode对象，不经过json字符串
+	 * @param obj pojo
+	 * @return
+	 */
+	public static JsonNode valueToTree(Object obj) {
+		return OBJECT_MAPPER.valueToTree(obj);
+	}
+
+	public static ObjectNode createObjectNode() {
+		return OBJECT_MAPPER.createObjectNode();
+	}
+
 
 	public static String map2Json(Map<String, Object> map) {
 		String jsonStr = "";
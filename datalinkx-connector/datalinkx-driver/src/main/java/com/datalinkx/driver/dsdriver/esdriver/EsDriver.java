@@ -131,6 +131,8 @@ public class EsDriver implements AbstractDriver<EsSetupInfo, EsReader, EsWriter>
 
         List<String> types = new ArrayList<>();
         types.addAll(esService.getIndexType(param.getReader().getTableName()));
+        // 每个分片对应一个slice，slice数多于分片数时es需要在分片内再过滤，反而更慢
+        Integer sliceCount = esService.getShardCount(param.getReader().getTableName());
 
         ReaderInfo<EsReader> readerInfo = new ReaderInfo<>();
         readerInfo.setName("esreader");
@@ -144,6 +146,7 @@ public class EsDriver implements AbstractDriver<EsSetupInfo, EsReader, EsWriter>
                         : param.getReader().getSync().getFetchSize().longValue())
                 .index(param.getReader().getTableName())
                 .type(types.toArray(new String[0]))
+                .sliceCount(sliceCount)
                 .query(JsonUtils.toJsonNode(JsonUtils.toJson(boolMap)))
                 .timeout(ES_TIMEOUT).column(param.getReader().getColumns().stream()
                         .map(col -> MetaColumn.builder()
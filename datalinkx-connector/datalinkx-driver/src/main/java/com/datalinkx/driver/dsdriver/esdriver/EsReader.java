@@ -27,5 +27,6 @@ public class EsReader extends AbstractReader {
     private String username;
     private String password;
     private Long timeout;
+    private Integer sliceCount;
     List<MetaColumn> column;
 }
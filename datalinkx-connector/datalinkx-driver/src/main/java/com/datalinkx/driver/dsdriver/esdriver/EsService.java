@@ -44,6 +44,8 @@ public interface EsService {
 
     List<String> getIndexType(String tableName) throws Exception;
 
+    Integer getShardCount(String tableName) throws Exception;
+
     String retrieveMax(String tableName, String json, String maxFieldName) throws Exception;
 
     void truncateData(String indexName) throws Exception;
@@ -230,6 +230,32 @@ public class OpenEsService implements EsService {
     }
 
 
+    /**
+     * 索引的主分片数，索引名为别名或通配符时累加所有匹配索引的分片数
+     * 分片数只用于设置slice数，查询失败(如账号没有读取settings的权限)时返回0，由flinkx按任务并行度切分slice
+     */
+    @Override
+    public Integer getShardCount(String tableName) throws Exception {
+        RestClient restClient = ConnectPool.getConnection(esDriver, RestClient.class);
+        try {
+            Response response = restClient.performRequest(new Request("GET",
+                    String.format("/%s/_settings/index.number_of_shards?format=json", tableName)));
+            String rawBody = EntityUtils.toString(response.getEntity());
+            JsonNode jsonNode = JsonUtils.toJsonNode(rawBody);
+
+            int shardCount = 0;
+            for (Iterator<JsonNode> it = jsonNode.elements(); it.hasNext();) {
+                shardCount += it.next().path("settings").path("index").path("number_of_shards").asInt();
+            }
+            return shardCount;
+        } catch (Exception e) {
+            log.warn("get shard count of {} failed, slice count falls back to job parallelism", tableName, e);
+            return 0;
+        } finally {
+            ConnectPool.releaseConnection(esDriver.getConnectId(), restClient);
+        }
+    }
+
     @Override
     public String retrieveMax(String tableName, String json, String maxFieldName) throws Exception {
         RestClient restClient = ConnectPool.getConnection(esDriver, RestClient.class);
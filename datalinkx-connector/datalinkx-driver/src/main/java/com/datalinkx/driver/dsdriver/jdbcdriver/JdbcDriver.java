@@ -8,6 +8,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -75,6 +76,19 @@ public class JdbcDriver<T extends JdbcSetupInfo, P extends JdbcReader, Q extends
         INCREMENTAL_TYPE_SET.add("bigint unsigned");
     }
 
+    private static final Set<String> PARTITION_TYPE_SET = new HashSet<>();
+    static {
+        PARTITION_TYPE_SET.add("tinyint");
+        PARTITION_TYPE_SET.add("smallint");
+        PARTITION_TYPE_SET.add("mediumint");
+        PARTITION_TYPE_SET.add("int");
+        PARTITION_TYPE_SET.add("integer");
+        PARTITION_TYPE_SET.add("bigint");
+        PARTITION_TYPE_SET.add("int2");
+        PARTITION_TYPE_SET.add("int4");
+        PARTITION_TYPE_SET.add("int8");
+    }
+
     /**
      * 使用反射获取泛型参数类型，并解析连接 ID。
      * 调用 rebuildPassword 方法重新构建密码
@@ -414,9 +428,9 @@ public class JdbcDriver<T extends JdbcSetupInfo, P extends JdbcReader, Q extends
     }
 
     @Override
-    public TransformNode getSourceInfo(FlinkActionMeta unit) {
+    public TransformNode getSourceInfo(FlinkActionMeta unit) throws Exception {
 
-        return JdbcSource.builder()
+        JdbcSource jdbcSource = JdbcSource.builder()
                 .url(this.jdbcUrl())
                 .driver(this.driverClass())
                 .user(this.jdbcSetupInfo.getUid())
@@ -425,6 +439,63 @@ public class JdbcDriver<T extends JdbcSetupInfo, P extends JdbcReader, Q extends
                 .pluginName(PLUGIN_NAME)
                 .resultTableName(MetaConstants.CommonConstant.SOURCE_TABLE)
                 .build();
+
+        // 没有切分列时seatunnel只用一个split读取整个查询，并行度大于1也只有一个subtask有数据
+        if (unit instanceof SeatunnelActionMeta) {
+            Integer parallelism = ((SeatunnelActionMeta) unit).getParallelism();
+            if (parallelism != null && parallelism > 1) {
+                String partitionColumn = this.partitionColumn(unit.getReader());
+                if (partitionColumn != null) {
+                    jdbcSource.setPartitionColumn(partitionColumn);
+                    jdbcSource.setPartitionNum(parallelism);
+                } else {
+                    log.warn("table {} has no single integer primary key in the query fields, read with one split", unit.getReader().getTableName());
+                }
+            }
+        }
+        return jdbcSource;
+    }
+
+    /**
+     * 查询字段中包含的单列整数主键，没有时返回null
+     */
+    protected String partitionColumn(DataTransJobDetail.Reader reader) throws Exception {
+        String catalog = reader.getCatalog();
+        String schema = reader.getSchema();
+        String tableName = reader.getTableName();
+
+        Connection connection = ConnectPool.getConnection(this, Connection.class);
+        try {
+            List<String> primaryKeys = new ArrayList<>();
+            try (ResultSet rs = connection.getMetaData().getPrimaryKeys(catalog, schema, tableName)) {
+                while (rs.next()) {
+                    if (StringUtils.equals(tableName, rs.getString("TABLE_NAME"))) {
+                        primaryKeys.add(rs.getString("COLUMN_NAME"));
+                    }
+                }
+            }
+            if (primaryKeys.size() != 1) {
+                return null;
+            }
+
+            String primaryKey = primaryKeys.get(0);
+            String queryFields = reader.getQueryFields();
+            boolean selected = "*".equals(StringUtils.trim(queryFields))
+                    || Arrays.stream(StringUtils.split(StringUtils.defaultString(queryFields), ",")).anyMatch(field -> primaryKey.equalsIgnoreCase(field.trim()));
+            if (!selected) {
+                return null;
+            }
+
+            return this.fetchColumn(catalog, schema, tableName, connection).stream()
+                    .filter(column -> primaryKey.equals(column.get("name")))
+                    .map(column -> StringUtils.lowerCase(String.valueOf(column.get("type"))).replace(" unsigned", ""))
+                    .anyMatch(PARTITION_TYPE_SET::contains) ? primaryKey : null;
+        } catch (SQLException e) {
+            log.warn("fetch primary key of {} error", tableName, e);
+            return null;
+        } finally {
+            ConnectPool.releaseConnection(this.connectId, connection);
+        }
     }
 
     @Override
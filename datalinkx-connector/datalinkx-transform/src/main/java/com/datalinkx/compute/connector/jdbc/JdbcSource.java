@@ -1,5 +1,6 @@
 package com.datalinkx.compute.connector.jdbc;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
@@ -21,4 +22,11 @@ public class JdbcSource extends TransformNode {
     @Builder.Default
     @JsonProperty("split.size")
     private Integer splitSize = 1000;
+    // 按该数值列把查询切成partition_num段并行读取，为空时整个查询只有一个split
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty("partition_column")
+    private String partitionColumn;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty("partition_num")
+    private Integer partitionNum;
 }
@@ -53,6 +53,9 @@ public class LLMNode extends TransformNode {
         private Double temperature = 0.1;
         @Builder.Default
         private Boolean stream = false;
+        // 每行都是一次独立请求，保持模型常驻避免行间重新加载
+        @JsonProperty("keep_alive")
+        private String keepAlive;
         private List<Message> messages;
     }
 
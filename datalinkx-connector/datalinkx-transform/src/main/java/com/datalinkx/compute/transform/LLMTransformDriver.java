@@ -37,6 +37,7 @@ public class LLMTransformDriver extends ITransformDriver {
                                         LLMNode.customRequestBody
                                                 .builder()
                                                 .temperature(Double.valueOf((String) commonSettings.getOrDefault("temperature", 0.1)))
+                                                .keepAlive((String) commonSettings.get("keep_alive"))
                                                 .messages(Collections.singletonList(promptMessage))
                                                 .build()
                                 )
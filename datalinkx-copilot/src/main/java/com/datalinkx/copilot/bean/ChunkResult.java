@@ -7,4 +7,5 @@ public class ChunkResult {
     private String docId;
     private int chunkId;
     private String content;
+    private String contentHash;
 }
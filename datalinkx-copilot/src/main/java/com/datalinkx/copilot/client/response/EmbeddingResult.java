@@ -12,4 +12,5 @@ import lombok.NoArgsConstructor;
 public class EmbeddingResult {
     private double[] embedding;
     private String content;
+    private String contentHash;
 }
@@ -23,4 +23,9 @@ public class ChatController {
     public SseEmitter streamChat(String question) {
         return chatService.streamChat(question);
     }
+
+    @RequestMapping("/embedding/stats")
+    public WebResult embeddingStats() {
+        return WebResult.of(chatService.embeddingCacheStats());
+    }
 }
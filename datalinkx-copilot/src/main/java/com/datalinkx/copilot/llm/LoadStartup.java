@@ -4,12 +4,20 @@ package com.datalinkx.copilot.llm;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import cn.hutool.core.collection.ListUtil;
 import cn.hutool.core.io.IoUtil;
 import cn.hutool.core.util.ArrayUtil;
 import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.digest.DigestUtil;
 import com.datalinkx.copilot.bean.ChunkResult;
 import com.datalinkx.copilot.client.OllamaClient;
 import com.datalinkx.copilot.client.request.EmbeddingReq;
@@ -39,6 +47,14 @@ public class LoadStartup implements InitializingBean {
     @Value("${llm.vector:elasticsearch}")
     String vectorEngine;
 
+    // 并发请求Embedding模型的线程数
+    @Value("${llm.embedding_concurrency:4}")
+    int embeddingConcurrency;
+
+    // 每批写入向量库的文档数
+    @Value("${llm.embedding_batch_size:64}")
+    int embeddingBatchSize;
+
 
     public void startup(VectorStorage vectorStorage) {
         String collectionName = vectorStorage.getCollectionName();
@@ -63,6 +79,8 @@ public class LoadStartup implements InitializingBean {
                 ChunkResult chunkResult = new ChunkResult();
                 chunkResult.setDocId(docId);
                 chunkResult.setContent(line);
+                // 模型参与hash，切换Embedding模型后向量需要重建
+                chunkResult.setContentHash(DigestUtil.sha256Hex(embeddingModel + ":" + line));
                 chunkResult.setChunkId(atomicInteger.incrementAndGet());
                 results.add(chunkResult);
             }
@@ -78,27 +96,70 @@ public class LoadStartup implements InitializingBean {
     @Override
     public void afterPropertiesSet() {
         VectorStorage vectorStorage = this.vectorStorageImpl.vectorStorageEngine.get(vectorEngine);
-        // 每次启动重新加载向量
-        vectorStorage.truncate(vectorStorage.getCollectionName());
-        // 初始化向量
+        String collection = vectorStorage.getCollectionName();
+        // 初始化向量，索引已存在时保留，按内容hash增量加载
         this.startup(vectorStorage);
         // 加载本地知识库
         List<ChunkResult> chunkResults = this.segmentCutting("001");
 
-        // embedding
-        EmbeddingReq embeddingReq = EmbeddingReq.builder().model(embeddingModel).build();
+        // 内容相同的分片hash相同，只请求一次Embedding
+        Map<String, ChunkResult> uniqueChunks = new LinkedHashMap<>();
         for (ChunkResult chunkResult : chunkResults) {
-            try {
-                embeddingReq.setPrompt(chunkResult.getContent());
-                EmbeddingResult embeddingResult = ollamaClient.embedding(embeddingReq);
+            uniqueChunks.putIfAbsent(chunkResult.getContentHash(), chunkResult);
+        }
+
+        Set<String> storedKeys = vectorStorage.storedKeys(collection);
+        List<ChunkResult> pendingChunks = new ArrayList<>();
+        for (ChunkResult chunkResult : uniqueChunks.values()) {
+            if (!storedKeys.remove(chunkResult.getContentHash())) {
+                pendingChunks.add(chunkResult);
+            }
+        }
+        log.info("knowledge chunks: {}, unique: {}, pending embedding: {}, stale: {}",
+                chunkResults.size(), uniqueChunks.size(), pendingChunks.size(), storedKeys.size());
+
+        if (!pendingChunks.isEmpty()) {
+            this.embeddingAndStore(vectorStorage, collection, pendingChunks);
+        }
+        // 新向量全部写入后再删除知识库中已不存在的key，加载失败时检索仍可使用旧向量
+        if (!storedKeys.isEmpty()) {
+            vectorStorage.delete(collection, storedKeys);
+        }
+    }
+
+    private void embeddingAndStore(VectorStorage vectorStorage, String collection, List<ChunkResult> pendingChunks) {
+        // embedding
+        ExecutorService embeddingExecutor = Executors.newFixedThreadPool(embeddingConcurrency);
+        try {
+            List<List<ChunkResult>> batches = ListUtil.partition(pendingChunks, embeddingBatchSize);
+            for (List<ChunkResult> batch : batches) {
+                List<CompletableFuture<EmbeddingResult>> futures = new ArrayList<>();
+                for (ChunkResult chunkResult : batch) {
+                    futures.add(CompletableFuture.supplyAsync(() -> this.embedding(chunkResult), embeddingExecutor));
+                }
+                List<EmbeddingResult> embeddingResults = new ArrayList<>();
+                for (CompletableFuture<EmbeddingResult> future : futures) {
+                    embeddingResults.add(future.join());
+                }
                 // store vector
-                String collection = vectorStorage.getCollectionName();
-                embeddingResult.setContent(chunkResult.getContent());
-                vectorStorage.store(collection, embeddingResult);
-            } catch (Exception e) {
-                log.error(e.getMessage(), e);
-                throw new RuntimeException(e);
+                vectorStorage.storeBatch(collection, embeddingResults);
             }
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            throw new RuntimeException(e);
+        } finally {
+            embeddingExecutor.shutdownNow();
         }
     }
+
+    private EmbeddingResult embedding(ChunkResult chunkResult) {
+        EmbeddingReq embeddingReq = EmbeddingReq.builder()
+                .model(embeddingModel)
+                .prompt(chunkResult.getContent())
+                .build();
+        EmbeddingResult embeddingResult = ollamaClient.embedding(embeddingReq);
+        embeddingResult.setContent(chunkResult.getContent());
+        embeddingResult.setContentHash(chunkResult.getContentHash());
+        return embeddingResult;
+    }
 }
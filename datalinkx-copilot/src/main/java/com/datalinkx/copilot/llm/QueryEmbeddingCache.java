@@ -0,0 +1,97 @@
+package com.datalinkx.copilot.llm;
+
+import java.text.Normalizer;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.datalinkx.copilot.client.OllamaClient;
+import com.datalinkx.copilot.client.request.EmbeddingReq;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 问题向量缓存，按归一化后的问题文本缓存Embedding结果，归一化只用于缓存key，Embedding使用原始问题
+ * 按向量占用字节数限制容量，超出后按LRU淘汰
+ * 同一问题的并发请求只会发起一次Embedding调用，其余请求等待该结果
+ */
+@Slf4j
+@Component
+public class QueryEmbeddingCache {
+
+    private final OllamaClient ollamaClient;
+    private final String embeddingModel;
+    private final Cache<String, double[]> cache;
+
+    private final LongAdder loadCount = new LongAdder();
+    private final LongAdder loadTimeMillis = new LongAdder();
+
+    public QueryEmbeddingCache(OllamaClient ollamaClient,
+                               @Value("${llm.embedding}") String embeddingModel,
+                               @Value("${llm.query_cache_max_bytes:33554432}") long maxBytes) {
+        this.ollamaClient = ollamaClient;
+        this.embeddingModel = embeddingModel;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, double[] vector) -> key.length() * 2 + vector.length * 8)
+                .recordStats()
+                .build();
+    }
+
+    public double[] embedding(String question) {
+        String key = normalize(question);
+        try {
+            return cache.get(key, () -> this.load(question));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        long loads = loadCount.sum();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", cache.size());
+        result.put("requestCount", stats.requestCount());
+        result.put("hitCount", stats.hitCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        result.put("loadCount", loads);
+        result.put("averageLoadMillis", loads == 0 ? 0 : loadTimeMillis.sum() / (double) loads);
+        return result;
+    }
+
+    private double[] load(String question) {
+        long start = System.currentTimeMillis();
+        try {
+            EmbeddingReq embeddingReq = EmbeddingReq
+                    .builder()
+                    .model(embeddingModel)
+                    .prompt(question)
+                    .build();
+            return ollamaClient.embedding(embeddingReq).getEmbedding();
+        } finally {
+            loadCount.increment();
+            loadTimeMillis.add(System.currentTimeMillis() - start);
+        }
+    }
+
+    // 全角转半角、去除首尾空白、合并连续空白、转小写
+    static String normalize(String question) {
+        String text = Normalizer.normalize(question == null ? "" : question, Normalizer.Form.NFKC);
+        return text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
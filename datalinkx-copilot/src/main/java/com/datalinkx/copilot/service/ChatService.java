@@ -1,5 +1,7 @@
 package com.datalinkx.copilot.service;
 
+import java.util.Map;
+
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 public interface ChatService {
@@ -7,4 +9,6 @@ public interface ChatService {
     String chat(String prompt);
 
     SseEmitter streamChat(String question);
+
+    Map<String, Object> embeddingCacheStats();
 }
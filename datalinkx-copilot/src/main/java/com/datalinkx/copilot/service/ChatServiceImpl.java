@@ -1,6 +1,7 @@
 package com.datalinkx.copilot.service;
 
 import java.util.Collections;
+import java.util.Map;
 import java.util.UUID;
 
 import com.datalinkx.common.constants.MetaConstants;
@@ -8,11 +9,11 @@ import com.datalinkx.common.utils.JsonUtils;
 import com.datalinkx.common.utils.ObjectUtils;
 import com.datalinkx.copilot.client.OllamaClient;
 import com.datalinkx.copilot.client.request.ChatReq;
-import com.datalinkx.copilot.client.request.EmbeddingReq;
 import com.datalinkx.copilot.client.response.ChatResult;
-import com.datalinkx.copilot.client.response.EmbeddingResult;
 import com.datalinkx.copilot.llm.LLMUtils;
+import com.datalinkx.copilot.llm.QueryEmbeddingCache;
 import com.datalinkx.copilot.vector.ElasticSearchVectorStorage;
+import com.datalinkx.copilot.vector.VectorStorage;
 import com.datalinkx.sse.config.SseTransformUtil;
 import okhttp3.MediaType;
 import okhttp3.Request;
@@ -30,10 +31,12 @@ public class ChatServiceImpl implements ChatService {
 
     @Autowired
     ElasticSearchVectorStorage elasticSearchStorage;
+    @Autowired
+    QueryEmbeddingCache queryEmbeddingCache;
+    @Value("${llm.vector:elasticsearch}")
+    String vectorEngine;
     @Value("${client.ollama.url}")
     String ollamaUrl;
-    @Value("${llm.embedding}")
-    String embeddingModel;
     @Value("${llm.model}")
     String chatModel;
 
@@ -78,20 +81,19 @@ public class ChatServiceImpl implements ChatService {
         return SseTransformUtil.transformRequest(okRequestBuilder.build(), UUID.randomUUID().toString().replaceAll("-", ""));
     }
 
+    @Override
+    public Map<String, Object> embeddingCacheStats() {
+        return queryEmbeddingCache.stats();
+    }
 
     // 向量召回
     public String callBackQuestion(String question) {
         //句子转向量
-        EmbeddingReq embeddingReq = EmbeddingReq
-                .builder()
-                .model(embeddingModel)
-                .prompt(question)
-                .build();
-        EmbeddingResult result = ollamaClient.embedding(embeddingReq);
-        double[] vector = result.getEmbedding();
+        double[] vector = queryEmbeddingCache.embedding(question);
 
         // 向量召回
-        String collection = elasticSearchStorage.getCollectionName();
-        return elasticSearchStorage.retrieval(collection, vector);
+        VectorStorage vectorStorage = elasticSearchStorage.vectorStorageEngine.get(vectorEngine);
+        String collection = vectorStorage.getCollectionName();
+        return vectorStorage.retrieval(collection, vector);
     }
 }
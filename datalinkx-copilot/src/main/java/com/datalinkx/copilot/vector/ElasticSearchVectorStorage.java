@@ -1,13 +1,19 @@
 package com.datalinkx.copilot.vector;
 
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 import cn.hutool.core.collection.CollectionUtil;
 import cn.hutool.core.map.MapUtil;
+import com.datalinkx.common.constants.MetaConstants;
 import com.datalinkx.common.utils.JsonUtils;
 import com.datalinkx.copilot.bean.ElasticVectorData;
 import com.datalinkx.copilot.client.response.EmbeddingResult;
@@ -16,14 +22,18 @@ import lombok.extern.slf4j.Slf4j;
 import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequest;
 import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.delete.DeleteRequest;
 import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.search.ClearScrollRequest;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchScrollRequest;
 import org.elasticsearch.client.IndicesClient;
 import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.client.RestHighLevelClient;
 import org.elasticsearch.client.indices.CreateIndexRequest;
 import org.elasticsearch.client.indices.GetIndexRequest;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.index.query.functionscore.ScriptScoreQueryBuilder;
@@ -39,6 +49,8 @@ import org.springframework.stereotype.Component;
 @Component
 public class ElasticSearchVectorStorage extends VectorStorageImpl {
 
+    private static final int SCROLL_SIZE = 1000;
+
     @Autowired
     RestHighLevelClient esClient;
 
@@ -66,19 +78,88 @@ public class ElasticSearchVectorStorage extends VectorStorageImpl {
 
     }
 
-    @SneakyThrows
     @Override
     public void store(String collectionName, EmbeddingResult embeddingResult) {
-        ElasticVectorData ele = new ElasticVectorData();
-        ele.setVector(embeddingResult.getEmbedding());
-        ele.setContent(embeddingResult.getContent());
+        this.storeBatch(collectionName, Collections.singletonList(embeddingResult));
+    }
 
-        IndexRequest indexRequest = new IndexRequest(collectionName)
-                .source(JsonUtils.toJson(ele), XContentType.JSON);
+    /**
+     * 一次bulk写入多条向量，contentHash不为空时作为文档_id，重复写入为覆盖
+     */
+    @SneakyThrows
+    @Override
+    public void storeBatch(String collectionName, List<EmbeddingResult> embeddingResults) {
+        if (CollectionUtil.isEmpty(embeddingResults)) {
+            return;
+        }
 
         BulkRequest bulkRequest = new BulkRequest();
-        bulkRequest.add(indexRequest);
+        for (EmbeddingResult embeddingResult : embeddingResults) {
+            ElasticVectorData ele = new ElasticVectorData();
+            ele.setVector(embeddingResult.getEmbedding());
+            ele.setContent(embeddingResult.getContent());
+
+            IndexRequest indexRequest = new IndexRequest(collectionName)
+                    .source(JsonUtils.toJson(ele), XContentType.JSON);
+            if (embeddingResult.getContentHash() != null) {
+                indexRequest.id(embeddingResult.getContentHash());
+            }
+            bulkRequest.add(indexRequest);
+        }
+
+        this.executeBulk(bulkRequest);
+    }
+
+    /**
+     * 只取_id，不拉取向量内容
+     */
+    @SneakyThrows
+    @Override
+    public Set<String> storedKeys(String collectionName) {
+        Set<String> keys = new HashSet<>();
+        GetIndexRequest getIndexRequest = new GetIndexRequest(collectionName);
+        if (!esClient.indices().exists(getIndexRequest, RequestOptions.DEFAULT)) {
+            return keys;
+        }
+
+        TimeValue keepAlive = TimeValue.timeValueMinutes(1);
+        SearchRequest searchRequest = new SearchRequest(collectionName)
+                .scroll(keepAlive)
+                .source(new SearchSourceBuilder().fetchSource(false).size(SCROLL_SIZE));
+        SearchResponse searchResponse = esClient.search(searchRequest, RequestOptions.DEFAULT);
+        String scrollId = searchResponse.getScrollId();
+        try {
+            while (searchResponse.getHits().getHits().length > 0) {
+                for (SearchHit hit : searchResponse.getHits()) {
+                    keys.add(hit.getId());
+                }
+                SearchScrollRequest scrollRequest = new SearchScrollRequest(scrollId).scroll(keepAlive);
+                searchResponse = esClient.scroll(scrollRequest, RequestOptions.DEFAULT);
+                scrollId = searchResponse.getScrollId();
+            }
+        } finally {
+            ClearScrollRequest clearScrollRequest = new ClearScrollRequest();
+            clearScrollRequest.addScrollId(scrollId);
+            esClient.clearScroll(clearScrollRequest, RequestOptions.DEFAULT);
+        }
+        return keys;
+    }
+
+    @SneakyThrows
+    @Override
+    public void delete(String collectionName, Collection<String> keys) {
+        if (CollectionUtil.isEmpty(keys)) {
+            return;
+        }
+
+        BulkRequest bulkRequest = new BulkRequest();
+        for (String key : keys) {
+            bulkRequest.add(new DeleteRequest(collectionName, key));
+        }
+        this.executeBulk(bulkRequest);
+    }
 
+    private void executeBulk(BulkRequest bulkRequest) throws IOException {
         BulkResponse bulkResponse = esClient.bulk(bulkRequest, RequestOptions.DEFAULT);
         if (bulkResponse.hasFailures()) {
             log.error("vector data save error: {}", bulkResponse.buildFailureMessage());
@@ -104,9 +185,9 @@ public class ElasticSearchVectorStorage extends VectorStorageImpl {
         params.put("query_vector", vector);
 
         int page = 0;
-        int size = 5;
-        // 最低得分
-        float minScore = 1.7f;
+        int size = MetaConstants.CopilotConstant.RETRIEVAL_TOP_K;
+        // 最低得分，score为cos值+1
+        float minScore = (float) (1 + MetaConstants.CopilotConstant.RETRIEVAL_MIN_SIMILARITY);
 
         // 构建查询向量
         // 计算cos值+1，避免出现负数的情况，得到结果后，实际score值在减1再计算
@@ -0,0 +1,394 @@
+package com.datalinkx.copilot.vector;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * 进程内HNSW(Hierarchical Navigable Small World)近似最近邻索引，相似度为余弦相似度
+ * 向量写入时归一化，检索时以点积代替余弦计算
+ * 删除为标记删除，被删除节点仍参与图导航但不会出现在检索结果中，
+ * 删除节点数超过存活节点数时用存活节点重建索引，回收被删除节点占用的内存
+ */
+public class HnswIndex {
+
+    /**
+     * 被删除节点少于该值时不重建，避免小索引频繁重建
+     */
+    private static final int MIN_COMPACT_DELETED = 64;
+
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final int efSearch;
+    private final double levelMultiplier;
+    private final Random random = new Random(42);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final List<Node> nodes = new ArrayList<>();
+    private final Map<String, Node> keyToNode = new HashMap<>();
+    private Node entryPoint;
+    private int maxLevel = -1;
+
+    /**
+     * @param m 每层邻居数，第0层为2m
+     * @param efConstruction 构建时候选集大小
+     * @param efSearch 检索时候选集大小
+     */
+    public HnswIndex(int m, int efConstruction, int efSearch) {
+        if (m < 2) {
+            throw new IllegalArgumentException("hnsw m must be at least 2, got " + m);
+        }
+        if (efConstruction < 1 || efSearch < 1) {
+            throw new IllegalArgumentException("hnsw ef must be positive, got efConstruction " + efConstruction + ", efSearch " + efSearch);
+        }
+        this.m = m;
+        this.maxM0 = m * 2;
+        this.efConstruction = efConstruction;
+        this.efSearch = efSearch;
+        this.levelMultiplier = 1 / Math.log(m);
+    }
+
+    public void add(String key, String content, double[] vector) {
+        float[] normalized = normalize(vector);
+        lock.writeLock().lock();
+        try {
+            Node old = keyToNode.remove(key);
+            if (old != null) {
+                old.deleted = true;
+            }
+            this.insert(key, content, normalized);
+            this.compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String key) {
+        lock.writeLock().lock();
+        try {
+            Node node = keyToNode.remove(key);
+            if (node != null) {
+                node.deleted = true;
+                this.compactIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            nodes.clear();
+            keyToNode.clear();
+            entryPoint = null;
+            maxLevel = -1;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Set<String> keys() {
+        lock.readLock().lock();
+        try {
+            return new HashSet<>(keyToNode.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return keyToNode.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 已标记删除但还未被重建回收的节点数
+     */
+    int deletedCount() {
+        lock.readLock().lock();
+        try {
+            return nodes.size() - keyToNode.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 检索相似度不低于minSimilarity的前topK条内容，按相似度降序
+     */
+    public List<String> search(double[] vector, int topK, double minSimilarity) {
+        float[] query = normalize(vector);
+        lock.readLock().lock();
+        try {
+            if (entryPoint == null) {
+                return Collections.emptyList();
+            }
+
+            Node current = entryPoint;
+            for (int l = maxLevel; l > 0; l--) {
+                current = this.greedySearch(query, current, l);
+            }
+            return this.searchLayer(query, current, Math.max(efSearch, topK), 0, true)
+                    .stream()
+                    .filter(candidate -> candidate.similarity >= minSimilarity)
+                    .limit(topK)
+                    .map(candidate -> candidate.node.content)
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void insert(String key, String content, float[] normalized) {
+        int level = (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+        Node node = new Node(nodes.size(), key, content, normalized, level);
+        nodes.add(node);
+        keyToNode.put(key, node);
+
+        if (entryPoint == null) {
+            entryPoint = node;
+            maxLevel = level;
+            return;
+        }
+
+        Node current = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            current = this.greedySearch(normalized, current, l);
+        }
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            List<Candidate> candidates = this.searchLayer(normalized, current, efConstruction, l, false);
+            int maxConnections = l == 0 ? maxM0 : m;
+            for (Candidate candidate : this.selectNeighbours(candidates, m)) {
+                node.connect(l, candidate.node.id);
+                candidate.node.connect(l, node.id);
+                if (candidate.node.neighbourCount(l) > maxConnections) {
+                    this.shrink(candidate.node, l, maxConnections);
+                }
+            }
+            current = candidates.get(0).node;
+        }
+
+        if (level > maxLevel) {
+            entryPoint = node;
+            maxLevel = level;
+        }
+    }
+
+    /**
+     * 删除节点数超过存活节点数时，按写入顺序重新插入存活节点，丢弃所有被删除节点
+     */
+    private void compactIfNeeded() {
+        int deleted = nodes.size() - keyToNode.size();
+        if (deleted < MIN_COMPACT_DELETED || deleted <= keyToNode.size()) {
+            return;
+        }
+
+        List<Node> live = nodes.stream().filter(node -> !node.deleted).collect(Collectors.toList());
+        nodes.clear();
+        keyToNode.clear();
+        entryPoint = null;
+        maxLevel = -1;
+        for (Node node : live) {
+            this.insert(node.key, node.content, node.vector);
+        }
+    }
+
+    private Node greedySearch(float[] query, Node start, int level) {
+        Node current = start;
+        double best = dot(query, current.vector);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            int[] neighbours = current.neighbours[level];
+            for (int i = 0; i < current.counts[level]; i++) {
+                Node neighbour = nodes.get(neighbours[i]);
+                double similarity = dot(query, neighbour.vector);
+                if (similarity > best) {
+                    best = similarity;
+                    current = neighbour;
+                    changed = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 在指定层做best-first搜索，返回按相似度降序的ef个候选
+     * liveOnly为true时被删除节点只用于导航，不计入结果，结果不足ef个时继续扩展直到图中可达节点遍历完
+     */
+    private List<Candidate> searchLayer(float[] query, Node start, int ef, int level, boolean liveOnly) {
+        BitSet visited = new BitSet(nodes.size());
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>(Comparator.comparingDouble((Candidate c) -> c.similarity).reversed());
+        PriorityQueue<Candidate> results = new PriorityQueue<>(Comparator.comparingDouble((Candidate c) -> c.similarity));
+
+        Candidate first = new Candidate(start, dot(query, start.vector));
+        visited.set(start.id);
+        candidates.add(first);
+        if (!liveOnly || !start.deleted) {
+            results.add(first);
+        }
+
+        while (!candidates.isEmpty()) {
+            Candidate closest = candidates.poll();
+            if (results.size() >= ef && closest.similarity < results.peek().similarity) {
+                break;
+            }
+
+            int[] neighbours = closest.node.neighbours[level];
+            for (int i = 0; i < closest.node.counts[level]; i++) {
+                int neighbourId = neighbours[i];
+                if (visited.get(neighbourId)) {
+                    continue;
+                }
+                visited.set(neighbourId);
+
+                Node neighbour = nodes.get(neighbourId);
+                double similarity = dot(query, neighbour.vector);
+                if (results.size() < ef || similarity > results.peek().similarity) {
+                    Candidate candidate = new Candidate(neighbour, similarity);
+                    candidates.add(candidate);
+                    if (liveOnly && neighbour.deleted) {
+                        continue;
+                    }
+                    results.add(candidate);
+                    if (results.size() > ef) {
+                        results.poll();
+                    }
+                }
+            }
+        }
+
+        List<Candidate> sorted = new ArrayList<>(results);
+        sorted.sort(Comparator.comparingDouble((Candidate c) -> c.similarity).reversed());
+        return sorted;
+    }
+
+    // 邻居超出上限时按启发式重新挑选maxConnections个
+    private void shrink(Node node, int level, int maxConnections) {
+        List<Candidate> neighbours = new ArrayList<>(node.counts[level]);
+        for (int i = 0; i < node.counts[level]; i++) {
+            Node neighbour = nodes.get(node.neighbours[level][i]);
+            neighbours.add(new Candidate(neighbour, dot(node.vector, neighbour.vector)));
+        }
+        neighbours.sort(Comparator.comparingDouble((Candidate c) -> c.similarity).reversed());
+        node.counts[level] = 0;
+        for (Candidate candidate : this.selectNeighbours(neighbours, maxConnections)) {
+            node.connect(level, candidate.node.id);
+        }
+    }
+
+    /**
+     * 启发式邻居选择：候选与已选邻居的相似度高于与目标的相似度时跳过，使邻居分布在不同方向
+     * 不足max个时用跳过的候选补齐
+     * @param candidates 按相似度降序的候选
+     */
+    private List<Candidate> selectNeighbours(List<Candidate> candidates, int max) {
+        List<Candidate> selected = new ArrayList<>(max);
+        List<Candidate> skipped = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            if (selected.size() >= max) {
+                break;
+            }
+            boolean diverse = true;
+            for (Candidate chosen : selected) {
+                if (dot(candidate.node.vector, chosen.node.vector) > candidate.similarity) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected.add(candidate);
+            } else {
+                skipped.add(candidate);
+            }
+        }
+        for (int i = 0; i < skipped.size() && selected.size() < max; i++) {
+            selected.add(skipped.get(i));
+        }
+        return selected;
+    }
+
+    private static float[] normalize(double[] vector) {
+        double norm = 0;
+        for (double v : vector) {
+            norm += v * v;
+        }
+        norm = Math.sqrt(norm);
+        float[] normalized = new float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = norm == 0 ? 0 : (float) (vector[i] / norm);
+        }
+        return normalized;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    private static final class Node {
+        final int id;
+        final String key;
+        final String content;
+        final float[] vector;
+        final int[][] neighbours;
+        final int[] counts;
+        volatile boolean deleted;
+
+        Node(int id, String key, String content, float[] vector, int level) {
+            this.id = id;
+            this.key = key;
+            this.content = content;
+            this.vector = vector;
+            this.neighbours = new int[level + 1][];
+            this.counts = new int[level + 1];
+            for (int l = 0; l <= level; l++) {
+                this.neighbours[l] = new int[8];
+            }
+        }
+
+        void connect(int level, int neighbourId) {
+            if (counts[level] == neighbours[level].length) {
+                int[] grown = new int[neighbours[level].length * 2];
+                System.arraycopy(neighbours[level], 0, grown, 0, counts[level]);
+                neighbours[level] = grown;
+            }
+            neighbours[level][counts[level]++] = neighbourId;
+        }
+
+        int neighbourCount(int level) {
+            return counts[level];
+        }
+    }
+
+    private static final class Candidate {
+        final Node node;
+        final double similarity;
+
+        Candidate(Node node, double similarity) {
+            this.node = node;
+            this.similarity = similarity;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.datalinkx.copilot.vector;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import cn.hutool.core.collection.CollectionUtil;
+import com.datalinkx.common.constants.MetaConstants;
+import com.datalinkx.copilot.client.response.EmbeddingResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 进程内HNSW向量库，无需外部服务，适用于测试及小规模部署
+ * 向量仅保存在内存中，重启后由LoadStartup重新加载
+ */
+@Slf4j
+@Component
+public class HnswVectorStorage implements VectorStorage {
+
+    private final HnswIndex index;
+
+    public HnswVectorStorage(@Value("${llm.hnsw.m:16}") int m,
+                             @Value("${llm.hnsw.ef_construction:100}") int efConstruction,
+                             @Value("${llm.hnsw.ef_search:100}") int efSearch) {
+        this.index = new HnswIndex(m, efConstruction, efSearch);
+    }
+
+    @Override
+    public void initCollection(String collectionName, int dim) {
+        log.info("hnsw vector storage {} ready, size: {}", collectionName, index.size());
+    }
+
+    @Override
+    public void store(String collectionName, EmbeddingResult embeddingResult) {
+        String key = embeddingResult.getContentHash() == null ? embeddingResult.getContent() : embeddingResult.getContentHash();
+        index.add(key, embeddingResult.getContent(), embeddingResult.getEmbedding());
+    }
+
+    @Override
+    public void storeBatch(String collectionName, List<EmbeddingResult> embeddingResults) {
+        for (EmbeddingResult embeddingResult : embeddingResults) {
+            this.store(collectionName, embeddingResult);
+        }
+    }
+
+    @Override
+    public Set<String> storedKeys(String collectionName) {
+        return index.keys();
+    }
+
+    @Override
+    public void delete(String collectionName, Collection<String> keys) {
+        for (String key : keys) {
+            index.remove(key);
+        }
+    }
+
+    @Override
+    public void truncate(String collectionName) {
+        index.clear();
+    }
+
+    @Override
+    public String retrieval(String collectionName, double[] vector) {
+        List<String> results = index.search(vector,
+                MetaConstants.CopilotConstant.RETRIEVAL_TOP_K,
+                MetaConstants.CopilotConstant.RETRIEVAL_MIN_SIMILARITY);
+        return CollectionUtil.join(results, "");
+    }
+}
@@ -1,5 +1,9 @@
 package com.datalinkx.copilot.vector;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
 import com.datalinkx.copilot.client.response.EmbeddingResult;
 
 public interface VectorStorage {
@@ -10,6 +14,12 @@ public interface VectorStorage {
     void initCollection(String collectionName, int dim);
     // 存储向量库
     void store(String collectionName, EmbeddingResult embeddingResult);
+    // 批量存储向量库，以contentHash作为文档主键
+    void storeBatch(String collectionName, List<EmbeddingResult> embeddingResults);
+    // 已存储的全部文档主键
+    Set<String> storedKeys(String collectionName);
+    // 按主键删除
+    void delete(String collectionName, Collection<String> keys);
     // 清空
     void truncate(String collectionName);
     // 检索向量库
@@ -19,6 +19,7 @@ public abstract class VectorStorageImpl implements VectorStorage, ApplicationCon
     @PostConstruct
     public void init() {
         this.vectorStorageEngine.put(MetaConstants.CopilotConstant.VECTOR_ES_ENGINE, applicationContext.getBean(ElasticSearchVectorStorage.class));
+        this.vectorStorageEngine.put(MetaConstants.CopilotConstant.VECTOR_HNSW_ENGINE, applicationContext.getBean(HnswVectorStorage.class));
     }
 
     @Override
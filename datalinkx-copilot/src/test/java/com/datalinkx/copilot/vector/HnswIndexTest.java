@@ -0,0 +1,180 @@
+package com.datalinkx.copilot.vector;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class HnswIndexTest {
+
+    private static final int DIM = 32;
+
+    @Test
+    public void testRejectInvalidParameters() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new HnswIndex(1, 100, 100));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new HnswIndex(0, 100, 100));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new HnswIndex(16, 0, 100));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new HnswIndex(16, 100, 0));
+    }
+
+    @Test
+    public void testRecallAgainstBruteForce() {
+        Random random = new Random(7);
+        double[][] vectors = randomVectors(random, 2000);
+        HnswIndex index = new HnswIndex(16, 100, 50);
+        for (int i = 0; i < vectors.length; i++) {
+            index.add("k" + i, "c" + i, vectors[i]);
+        }
+
+        int topK = 10;
+        int hits = 0;
+        int queries = 50;
+        for (int q = 0; q < queries; q++) {
+            double[] query = randomVector(random);
+            Set<String> expected = new HashSet<>(bruteForce(vectors, null, query, topK));
+            List<String> actual = index.search(query, topK, -1);
+            Assertions.assertEquals(topK, actual.size());
+            hits += actual.stream().filter(expected::contains).count();
+        }
+        double recall = (double) hits / (queries * topK);
+        Assertions.assertTrue(recall >= 0.9, "recall " + recall);
+    }
+
+    @Test
+    public void testTopK() {
+        Random random = new Random(11);
+        double[][] vectors = randomVectors(random, 200);
+        HnswIndex index = new HnswIndex(8, 50, 20);
+        for (int i = 0; i < vectors.length; i++) {
+            index.add("k" + i, "c" + i, vectors[i]);
+        }
+
+        double[] query = randomVector(random);
+        List<String> results = index.search(query, 5, -1);
+        Assertions.assertEquals(5, results.size());
+        List<Double> similarities = results.stream()
+                .map(content -> cosine(query, vectors[Integer.parseInt(content.substring(1))]))
+                .collect(Collectors.toList());
+        for (int i = 1; i < similarities.size(); i++) {
+            Assertions.assertTrue(similarities.get(i - 1) >= similarities.get(i));
+        }
+
+        // 向量本身一定排在第一位
+        Assertions.assertEquals("c3", index.search(vectors[3], 1, -1).get(0));
+        // topK大于索引大小时返回全部
+        Assertions.assertEquals(200, index.search(query, 500, -1).size());
+        // 相似度过滤
+        Assertions.assertTrue(index.search(query, 5, 1.01).isEmpty());
+        Assertions.assertTrue(new HnswIndex(8, 50, 20).search(query, 5, -1).isEmpty());
+    }
+
+    @Test
+    public void testSearchSkipsDeletedNeighbours() {
+        Random random = new Random(13);
+        double[][] vectors = randomVectors(random, 300);
+        HnswIndex index = new HnswIndex(8, 50, 10);
+        for (int i = 0; i < vectors.length; i++) {
+            index.add("k" + i, "c" + i, vectors[i]);
+        }
+
+        // 删除离查询向量最近的100个节点，未达到重建条件，被删除节点仍在图中
+        double[] query = randomVector(random);
+        Set<String> deleted = new HashSet<>();
+        for (String content : bruteForce(vectors, null, query, 100)) {
+            deleted.add(content);
+            index.remove("k" + content.substring(1));
+        }
+        Assertions.assertEquals(100, index.deletedCount());
+        Assertions.assertEquals(200, index.size());
+
+        List<String> results = index.search(query, 10, -1);
+        Assertions.assertEquals(10, results.size());
+        results.forEach(content -> Assertions.assertFalse(deleted.contains(content), content));
+    }
+
+    @Test
+    public void testDeleteAndReinsert() {
+        Random random = new Random(17);
+        double[][] vectors = randomVectors(random, 500);
+        HnswIndex index = new HnswIndex(16, 100, 50);
+        for (int i = 0; i < vectors.length; i++) {
+            index.add("k" + i, "c" + i, vectors[i]);
+        }
+
+        Set<Integer> removed = new HashSet<>();
+        for (int i = 0; i < 400; i++) {
+            index.remove("k" + i);
+            removed.add(i);
+        }
+        // 删除节点超过存活节点后重建回收，未回收的删除节点不会多于存活节点
+        Assertions.assertTrue(index.deletedCount() <= index.size(), "deleted " + index.deletedCount());
+        Assertions.assertEquals(100, index.size());
+        Assertions.assertEquals(IntStream.range(400, 500).mapToObj(i -> "k" + i).collect(Collectors.toSet()), index.keys());
+
+        double[] query = randomVector(random);
+        List<String> all = index.search(query, 100, -1);
+        Assertions.assertEquals(100, all.size());
+        Assertions.assertEquals(new HashSet<>(bruteForce(vectors, removed, query, 10)), new HashSet<>(all.subList(0, 10)));
+
+        // 重新写入已删除的key
+        index.add("k1", "c1-new", vectors[1]);
+        Assertions.assertEquals("c1-new", index.search(vectors[1], 1, -1).get(0));
+        Assertions.assertEquals(101, index.size());
+
+        // 覆盖写入同一个key，旧内容不再返回
+        double[] moved = randomVector(random);
+        index.add("k450", "c450-moved", moved);
+        Assertions.assertEquals("c450-moved", index.search(moved, 1, -1).get(0));
+        Assertions.assertFalse(index.search(vectors[450], 101, -1).contains("c450"));
+        Assertions.assertEquals(101, index.size());
+
+        index.clear();
+        Assertions.assertEquals(0, index.size());
+        Assertions.assertTrue(index.search(query, 5, -1).isEmpty());
+    }
+
+    private static List<String> bruteForce(double[][] vectors, Set<Integer> excluded, double[] query, int topK) {
+        return IntStream.range(0, vectors.length)
+                .filter(i -> excluded == null || !excluded.contains(i))
+                .boxed()
+                .sorted(Comparator.comparingDouble((Integer i) -> cosine(query, vectors[i])).reversed())
+                .limit(topK)
+                .map(i -> "c" + i)
+                .collect(Collectors.toList());
+    }
+
+    private static double cosine(double[] a, double[] b) {
+        double dot = 0;
+        double normA = 0;
+        double normB = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        return dot / Math.sqrt(normA * normB);
+    }
+
+    private static double[][] randomVectors(Random random, int count) {
+        List<double[]> vectors = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            vectors.add(randomVector(random));
+        }
+        return vectors.toArray(new double[0][]);
+    }
+
+    private static double[] randomVector(Random random) {
+        double[] vector = new double[DIM];
+        for (int i = 0; i < DIM; i++) {
+            vector[i] = random.nextGaussian();
+        }
+        return vector;
+    }
+}
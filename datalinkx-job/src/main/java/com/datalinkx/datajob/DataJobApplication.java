@@ -4,9 +4,11 @@ package com.datalinkx.datajob;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 
 @SpringBootApplication
+@EnableScheduling
 @ComponentScan(basePackages = {"com.datalinkx.*.**"})
 public class DataJobApplication {
 
@@ -12,9 +12,6 @@ import java.util.Optional;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
-import javax.annotation.Resource;
-
-import com.datalinkx.common.constants.MessageHubConstants;
 import com.datalinkx.common.constants.MetaConstants;
 import com.datalinkx.common.exception.DatalinkXJobException;
 import com.datalinkx.common.utils.JsonUtils;
@@ -31,8 +28,6 @@ import com.datalinkx.driver.dsdriver.IDsReader;
 import com.datalinkx.driver.dsdriver.IDsWriter;
 import com.datalinkx.driver.dsdriver.base.model.FlinkActionMeta;
 import com.datalinkx.driver.model.DataTransJobDetail;
-import com.datalinkx.messagehub.bean.form.ProducerAdapterForm;
-import com.datalinkx.messagehub.service.MessageHubService;
 import com.fasterxml.jackson.databind.JsonNode;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -61,9 +56,8 @@ public class DataTransferAction extends AbstractDataTransferAction<DataTransJobD
     @Autowired
     private DatalinkXServerClient datalinkXServerClient;
 
-
-    @Resource(name = "messageHubServiceImpl")
-    MessageHubService messageHubService;
+    @Autowired
+    private JobProgressPublisher jobProgressPublisher;
 
     /**
      * 初始化任务的开始时间（START_TIME）和统计结果（COUNT_RES）。
@@ -102,6 +96,7 @@ public class DataTransferAction extends AbstractDataTransferAction<DataTransJobD
     protected void end(FlinkActionMeta unit, int status, String errmsg) {
         JobExecCountDto jobExecCountDto = new JobExecCountDto();
         log.info(String.format("jobid: %s, end to transfer", unit.getJobId()));
+        jobProgressPublisher.remove(unit.getJobId());
 
 
         if (COUNT_RES.get() != null) {
@@ -155,7 +150,6 @@ public class DataTransferAction extends AbstractDataTransferAction<DataTransJobD
      * 记录日志，表示任务正在执行。
      * 如果任务 ID 已存在（taskId 不为空），直接返回。
      * 使用 unit.getDsReader().getReaderInfo 和 unit.getDsWriter().getWriterInfo 获取读取器和写入器的信息。
-     * 将读取器和写入器的信息序列化为 JSON 字符串。
      * 调用 executorJobHandler.execute 方法，将任务提交到执行器，获取任务 ID。
      * 将任务 ID 设置到 unit 中，并调用 datalinkXServerClient.updateJobTaskRel 方法，将任务 ID 同步到 DatalinkX 服务器。
      * @param unit
@@ -179,9 +173,7 @@ public class DataTransferAction extends AbstractDataTransferAction<DataTransJobD
             Object reader = unit.getDsReader().getReaderInfo(unit);
             Object writer = unit.getDsWriter().getWriterInfo(unit);
 
-            String readerStr = JsonUtils.toJson(reader);
-            String writerStr = JsonUtils.toJson(writer);
-            taskId = executorJobHandler.execute(unit.getJobId(), readerStr, writerStr, new HashMap<>());
+            taskId = executorJobHandler.execute(unit.getJobId(), reader, writer, new HashMap<>());
             unit.setTaskId(taskId) ;
             // 更新task
             datalinkXServerClient.updateJobTaskRel(unit.getJobId(), taskId);
@@ -203,7 +195,7 @@ public class DataTransferAction extends AbstractDataTransferAction<DataTransJobD
         String state = flinkJobStatus.getState();
 
         if ("finished".equalsIgnoreCase(state)) {
-            computeRecords(unitParam, flinkJobStatus);
+            computeRecords(unitParam, flinkJobStatus, true);
             return true;
         }
 
@@ -226,11 +218,11 @@ public class DataTransferAction extends AbstractDataTransferAction<DataTransJobD
             throw new DatalinkXJobException("data-transfer task canceled.");
         }
 
-        computeRecords(unitParam, flinkJobStatus);
+        computeRecords(unitParam, flinkJobStatus, false);
         return false;
     }
 
-    private void computeRecords(FlinkActionMeta unitParam, FlinkJobStatus flinkJobStatus) {
+    private void computeRecords(FlinkActionMeta unitParam, FlinkJobStatus flinkJobStatus, boolean finished) {
         AtomicInteger readRecords = new AtomicInteger(0);
         AtomicInteger writeRecords = new AtomicInteger(0);
         AtomicInteger errorRecords = new AtomicInteger(0);
@@ -259,19 +251,12 @@ public class DataTransferAction extends AbstractDataTransferAction<DataTransJobD
         unitParam.setErrorRecords(errorRecords.get());
         unitParam.setWriteRecords(writeRecords.get() - errorRecords.get());
 
-        // 实时推送流转进度
-        ProducerAdapterForm producerAdapterForm = new ProducerAdapterForm();
-        producerAdapterForm.setType(MessageHubConstants.REDIS_STREAM_TYPE);
-        producerAdapterForm.setTopic(MessageHubConstants.JOB_PROGRESS_TOPIC);
-        producerAdapterForm.setGroup(MessageHubConstants.GLOBAL_COMMON_GROUP);
-        Map<String, Object> jobProgress = new HashMap<String, Object>() {{
-            put("job_id", unitParam.getJobId());
-            put("status", 1);
-            put("read_records", unitParam.getReadRecords());
-            put("write_records", unitParam.getWriteRecords());
-        }};
-        producerAdapterForm.setMessage(JsonUtils.toJson(jobProgress));
-        messageHubService.produce(producerAdapterForm);
+        // 实时推送流转进度，由JobProgressPublisher按变化量合并推送
+        if (finished) {
+            jobProgressPublisher.complete(unitParam.getJobId(), unitParam.getReadRecords(), unitParam.getWriteRecords());
+        } else {
+            jobProgressPublisher.update(unitParam.getJobId(), unitParam.getReadRecords(), unitParam.getWriteRecords());
+        }
     }
 
     private JobExecCountDto getExecCount(String tableName) {
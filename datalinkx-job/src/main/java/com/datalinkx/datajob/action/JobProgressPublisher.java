@@ -0,0 +1,138 @@
+package com.datalinkx.datajob.action;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Resource;
+
+import com.datalinkx.common.constants.MessageHubConstants;
+import com.datalinkx.common.utils.JsonUtils;
+import com.datalinkx.messagehub.bean.form.ProducerAdapterForm;
+import com.datalinkx.messagehub.service.MessageHubService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 任务读写进度的缓冲推送
+ * 各任务检查线程只把最新进度记录下来，读写条数变化超过阈值，或有变化且距上次推送超过最大间隔时才进入待推送列表；
+ * 待推送的进度每个周期合并成一条消息（JSON数组）写入JOB_PROGRESS_TOPIC，没有变化的任务不产生消息。
+ * 任务完成时的最终进度不经过阈值判断，连同已缓冲的进度立即推送
+ */
+@Slf4j
+@Component
+public class JobProgressPublisher {
+
+    @Value("${progress.publish.min-delta-records:1000}")
+    private long minDeltaRecords;
+
+    @Value("${progress.publish.max-interval-ms:30000}")
+    private long maxIntervalMs;
+
+    @Resource(name = "messageHubServiceImpl")
+    MessageHubService messageHubService;
+
+    /**
+     * 每个运行中任务最近一次推送的进度
+     */
+    private final Map<String, Progress> published = new HashMap<>();
+
+    /**
+     * 等待下个周期推送的进度，同一任务只保留最新的一条
+     */
+    private final Map<String, Progress> pending = new LinkedHashMap<>();
+
+    /**
+     * 记录任务的最新进度，是否推送由变化量决定
+     */
+    public synchronized void update(String jobId, long readRecords, long writeRecords) {
+        Progress current = new Progress(jobId, readRecords, writeRecords, false);
+        Progress last = published.get(jobId);
+        if (last != null && !current.changedFrom(last, minDeltaRecords, maxIntervalMs)) {
+            return;
+        }
+        pending.put(jobId, current);
+        published.put(jobId, current);
+    }
+
+    /**
+     * 任务完成，推送最终进度并清理该任务的状态
+     */
+    public void complete(String jobId, long readRecords, long writeRecords) {
+        synchronized (this) {
+            published.remove(jobId);
+            pending.remove(jobId);
+            pending.put(jobId, new Progress(jobId, readRecords, writeRecords, true));
+        }
+        flush();
+    }
+
+    /**
+     * 任务异常结束时丢弃缓冲的进度，任务状态由服务端的状态刷新消息推送
+     */
+    public synchronized void remove(String jobId) {
+        published.remove(jobId);
+        pending.remove(jobId);
+    }
+
+    @Scheduled(fixedDelayString = "${progress.publish.flush-interval-ms:5000}")
+    public void flush() {
+        List<Map<String, Object>> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = new ArrayList<>(pending.size());
+            pending.values().forEach(progress -> batch.add(progress.toMessage()));
+            pending.clear();
+        }
+
+        try {
+            ProducerAdapterForm producerAdapterForm = new ProducerAdapterForm();
+            producerAdapterForm.setType(MessageHubConstants.REDIS_STREAM_TYPE);
+            producerAdapterForm.setTopic(MessageHubConstants.JOB_PROGRESS_TOPIC);
+            producerAdapterForm.setGroup(MessageHubConstants.GLOBAL_COMMON_GROUP);
+            producerAdapterForm.setMessage(JsonUtils.toJson(batch));
+            messageHubService.produce(producerAdapterForm);
+        } catch (Exception e) {
+            log.error("publish job progress failed, {} jobs dropped", batch.size(), e);
+        }
+    }
+
+    private static class Progress {
+        private final String jobId;
+        private final long readRecords;
+        private final long writeRecords;
+        private final boolean last;
+        private final long time = System.currentTimeMillis();
+
+        Progress(String jobId, long readRecords, long writeRecords, boolean last) {
+            this.jobId = jobId;
+            this.readRecords = readRecords;
+            this.writeRecords = writeRecords;
+            this.last = last;
+        }
+
+        boolean changedFrom(Progress prev, long minDeltaRecords, long maxIntervalMs) {
+            long delta = Math.max(Math.abs(readRecords - prev.readRecords), Math.abs(writeRecords - prev.writeRecords));
+            if (delta == 0) {
+                return false;
+            }
+            return delta >= minDeltaRecords || time - prev.time >= maxIntervalMs;
+        }
+
+        Map<String, Object> toMessage() {
+            Map<String, Object> message = new HashMap<>();
+            message.put("job_id", jobId);
+            message.put("status", 1);
+            message.put("read_records", readRecords);
+            message.put("write_records", writeRecords);
+            message.put("final", last);
+            return message;
+        }
+    }
+}
@@ -80,6 +80,7 @@ public class TransformDataTransferAction extends AbstractDataTransferAction<Data
         computeJobGraph.setJobId(unit.getJobId());
         computeJobGraph.setEnv(new HashMap<String, Object>() {{
             put("job.mode", unit.getJobMode());
+            put("parallelism", unit.getParallelism());
         }});
         computeJobGraph.setSource(Collections.singletonList(unit.getSourceInfo()));
         computeJobGraph.setTransform(unit.getTransformInfo().stream()
@@ -139,8 +140,13 @@ public class TransformDataTransferAction extends AbstractDataTransferAction<Data
         Map<String, Object> commonSettings = info.getSyncUnit().getCommonSettings();
         List<TransformNode> transformNodes = new ArrayList<>();
         String lastTransformNodeName = "";
+        // 只有包含LLM节点时才按llm.parallelism并发请求模型，其余计算任务保持单并行度
+        int parallelism = 1;
 
         for (DataTransJobDetail.Compute.Transform transform : info.getSyncUnit().getCompute().getTransforms()) {
+            if (MetaConstants.CommonConstant.TRANSFORM_LLM.equals(transform.getType())) {
+                parallelism = Math.max(parallelism, Integer.parseInt(String.valueOf(commonSettings.getOrDefault("llm_parallelism", 1))));
+            }
             ITransformDriver computeDriver = ITransformFactory.getComputeDriver(transform.getType());
             TransformNode transformNode = computeDriver.transferInfo(commonSettings, transform.getMeta());
             lastTransformNodeName = transformNode.getResultTableName();
@@ -156,7 +162,7 @@ public class TransformDataTransferAction extends AbstractDataTransferAction<Data
                 .jobMode("batch")
                 .jobId(info.getJobId())
                 .cover(info.getCover())
-                .parallelism(1)
+                .parallelism(parallelism)
                 .build();
 
         TransformNode sinkInfo = dsWriter.getSinkInfo(seatunnelActionMeta);
@@ -1,22 +1,26 @@
 package com.datalinkx.datajob.job;
 
 
-import java.io.BufferedReader;
-import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.LineNumberReader;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IoUtil;
 import cn.hutool.core.util.IdUtil;
 import com.datalinkx.common.utils.JsonUtils;
 import com.datalinkx.common.utils.ProcessStreamHandler;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -25,7 +29,7 @@ import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 
 
-//通过生成任务配置文件、构造 Flink 命令，并通过 Java 运行时执行这些命令来提交 FlinkX 任务
+//通过组装任务json、构造 Flink 命令，并通过 Java 运行时执行这些命令（任务json从标准输入传入）来提交 FlinkX 任务
 
 @Slf4j
 @Component
@@ -40,20 +44,41 @@ public class ExecutorJobHandler {
 	@Value("${flinkx.flinkconf.path:${flinkx.path}}")
 	private String flinkConf;
 
+	/**
+	 * classpath模式下flink集群按相同路径引用syncplugins目录中的插件，不再每次提交都上传插件jar；
+	 * 集群节点上没有相同路径的插件目录时改为shipfile
+	 */
+	@Value("${flinkx.plugin-load-mode:classpath}")
+	private String pluginLoadMode;
+
 	@Value("${reserve.job_graph:false}")
 	Boolean reserveJobGraph;
 
 
-	public String execute(String jobId, String reader, String writer, Map<String, Object> otherSetting) throws Exception {
+	/**
+	 * Launcher的-job参数为stdin时从标准输入读取任务json
+	 */
+	private static final String JOB_FROM_STDIN = "stdin";
+
+	/**
+	 * 解析后的setting模板，每次使用时复制一份
+	 */
+	private static final Map<String, ObjectNode> SETTING_TEMPLATES = new ConcurrentHashMap<>();
+
+
+	public String execute(String jobId, Object reader, Object writer, Map<String, Object> otherSetting) throws Exception {
 
 		StringBuffer errorRet = new StringBuffer();
 		StringBuffer successRet = new StringBuffer();
 
-		String jobSettings = this.generateJobSetting("classpath:job_setting.json", otherSetting);
-		String jobJsonFile = this.generateJobJsonFile(jobId, reader, writer, jobSettings);
+		long start = System.currentTimeMillis();
+		String jobJson = this.generateJobJson(jobId, reader, writer, this.generateJobSetting(otherSetting));
+		if (reserveJobGraph) {
+			this.generateJobJsonFile(jobJson);
+		}
 
 		try {
-			String cmdStr = this.generateFlinkCmd(jobId, jobJsonFile, otherSetting);
+			String cmdStr = this.generateFlinkCmd(jobId, JOB_FROM_STDIN, otherSetting);
 			try {
 				log.info("job_id: {}, execute job command: {}", jobId, cmdStr);
 				Process process = Runtime.getRuntime().exec(cmdStr);
@@ -67,6 +92,11 @@ public class ExecutorJobHandler {
 				Thread threadSuccess = new Thread(new ProcessStreamHandler(successInput, successRet));
 				threadSuccess.start();
 
+				// 任务json通过标准输入交给Launcher，写完后关闭
+				try (Writer jobWriter = new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8)) {
+					jobWriter.write(jobJson);
+				}
+
 				process.waitFor();
 				threadSuccess.join();
 				threadError.join();
@@ -78,12 +108,8 @@ public class ExecutorJobHandler {
 		} catch (Exception e) {
 			log.error("flink任务提交异常", e);
 			throw new Exception(e);
-		} finally {
-			// 删除临时文件
-			if (FileUtil.exist(jobJsonFile) && !reserveJobGraph) {
-				FileUtil.del(new File(jobJsonFile));
-			}
 		}
+		log.info("job_id: {}, submit cost {} ms", jobId, System.currentTimeMillis() - start);
 		String pattern = "Received response \\{\"jobUrl\":\"/jobs/.+\"}";
 		Pattern rg = Pattern.compile(pattern);
 		Matcher matcher = rg.matcher(successRet.toString());
@@ -101,24 +127,42 @@ public class ExecutorJobHandler {
 		return jobUrl.substring("/jobs/".length());
 	}
 
-	public String generateFlinkCmd(String jobId, String jobJsonFile, Map<String, Object> otherSetting) {
+	public String generateFlinkCmd(String jobId, String job, Map<String, Object> otherSetting) {
 		String javaHome = System.getenv("JAVA_HOME");
 		String os = System.getProperty("os.name").toLowerCase();
 
 		return String.format(
-				"%s -cp %s com.dtstack.flinkx.launcher.Launcher -mode standalone -jobid %s  -job %s  -pluginRoot %s -flinkconf %s",
+				"%s -cp %s com.dtstack.flinkx.launcher.Launcher -mode standalone -jobid %s  -job %s  -pluginRoot %s -flinkconf %s -pluginLoadMode %s",
 				javaHome + (os.contains("win") ? "\\bin\\java" : "/bin/java"),
 				flinkXHomePath + (os.contains("win") ? "lib\\*" : "lib/*"),
 				jobId,
-				jobJsonFile,
+				job,
 				syncPluginsPath.equals(flinkXHomePath) ? syncPluginsPath + "syncplugins" : syncPluginsPath,
-				flinkConf.equals(flinkXHomePath) ? flinkConf + "flinkconf" : flinkConf
+				flinkConf.equals(flinkXHomePath) ? flinkConf + "flinkconf" : flinkConf,
+				pluginLoadMode
 		);
 	}
 
-	public String generateJobJsonFile(String jobId, String reader, String writer, String setting) {
-		String jobJson = String.format("{\"job\":{\"content\":[{\"reader\":%s,\"writer\":%s}],\"setting\":%s}}", reader, writer, setting);
+	/**
+	 * 直接在JsonNode上组装任务json，只在最后序列化一次
+	 */
+	public String generateJobJson(String jobId, Object reader, Object writer, ObjectNode setting) {
+		ObjectNode root = JsonUtils.createObjectNode();
+		ObjectNode job = root.putObject("job");
+		ObjectNode content = job.putArray("content").addObject();
+		content.set("reader", toJsonNode(reader));
+		content.set("writer", toJsonNode(writer));
+		job.set("setting", setting);
+
+		String jobJson = JsonUtils.toJson(root);
 		log.info("flink job_id: {} graph: {}", jobId, jobJson);
+		return jobJson;
+	}
+
+	/**
+	 * 开启reserve.job_graph时把任务json保留到文件中便于排查
+	 */
+	private void generateJobJsonFile(String jobJson) {
 		String jsonPath = flinkXHomePath;
 
 		if (!FileUtil.exist(jsonPath)) {
@@ -131,30 +175,31 @@ public class ExecutorJobHandler {
 		} catch (Exception e) {
 			log.error("job任务临时文件写入异常: " + e.getMessage(), e);
 		}
-		return tmpFilePath;
 	}
 
-	/*@SneakyThrows
-	private String generateJobSetting() {
-		File jsonFile = ResourceUtils.getFile("classpath:job_setting.json");
-		return FileUtils.readFileToString(jsonFile,"UTF-8");
-	}*/
-
-    @SneakyThrows
-	public String generateJobSetting(String jobSettingPath, Map<String, Object> commonSettings) {
-        Resource resource = new DefaultResourceLoader().getResource(jobSettingPath);
-
-        log.info(resource.toString());
-
-        InputStream inputStream = resource.getInputStream();
-
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
-            StringBuilder content = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                content.append(line).append("\n");
-            }
-            return content.toString();
-        }
-    }
+	public ObjectNode generateJobSetting(Map<String, Object> otherSetting) {
+		return loadSettingTemplate("classpath:job_setting.json");
+	}
+
+	/**
+	 * 读取并解析setting模板，同一路径只读取一次，返回的是模板的副本，可以直接修改
+	 */
+	protected ObjectNode loadSettingTemplate(String jobSettingPath) {
+		return SETTING_TEMPLATES.computeIfAbsent(jobSettingPath, this::readSettingTemplate).deepCopy();
+	}
+
+	@SneakyThrows
+	private ObjectNode readSettingTemplate(String jobSettingPath) {
+		Resource resource = new DefaultResourceLoader().getResource(jobSettingPath);
+
+		log.info(resource.toString());
+
+		try (InputStream inputStream = resource.getInputStream()) {
+			return (ObjectNode) JsonUtils.toJsonNode(IoUtil.read(inputStream, StandardCharsets.UTF_8));
+		}
+	}
+
+	private JsonNode toJsonNode(Object value) {
+		return value instanceof String ? JsonUtils.toJsonNode((String) value) : JsonUtils.valueToTree(value);
+	}
 }
@@ -5,7 +5,7 @@ import java.util.Map;
 import com.datalinkx.common.constants.MetaConstants;
 import com.datalinkx.common.utils.JsonUtils;
 import com.datalinkx.common.utils.ObjectUtils;
-import lombok.SneakyThrows;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
@@ -15,13 +15,13 @@ import static com.datalinkx.common.constants.MetaConstants.CommonConstant.KEY_CH
 @Service
 public class ExecutorStreamJobHandler extends ExecutorJobHandler {
 
-    public String execute(String jobId, String reader, String writer, Map<String, Object> otherSetting) throws Exception {
+    public String execute(String jobId, Object reader, Object writer, Map<String, Object> otherSetting) throws Exception {
         return super.execute(jobId, reader, writer, otherSetting);
     }
 
 
     @Override
-    public String generateFlinkCmd(String jobId, String jobJsonFile, Map<String, Object> otherSetting) {
+    public String generateFlinkCmd(String jobId, String job, Map<String, Object> otherSetting) {
         String javaHome = System.getenv("JAVA_HOME");
         String os = System.getProperty("os.name").toLowerCase();
 
@@ -31,7 +31,7 @@ public class ExecutorStreamJobHandler extends ExecutorJobHandler {
                 javaHome + (os.contains("win") ? "\\bin\\java" : "/bin/java"),
                 flinkXHomePath + (os.contains("win") ? "lib\\*" : "lib/*"),
                 jobId,
-                jobJsonFile,
+                job,
                 flinkXHomePath + "syncplugins",
                 flinkXHomePath + "flinkconf"
         );
@@ -45,13 +45,11 @@ public class ExecutorStreamJobHandler extends ExecutorJobHandler {
         return executeCmd;
     }
 
-    @SneakyThrows
     @Override
-    public String generateJobSetting(String jobSettingPath, Map<String, Object> otherSetting) {
-        String jobSetting = super.generateJobSetting("classpath:stream_setting.json", otherSetting);
-        Map jobSettingMap = JsonUtils.toObject(jobSetting, Map.class);
-        Map<String, Object> restoreMap = (Map<String, Object>) jobSettingMap.get(MetaConstants.CommonConstant.KEY_RESTORE);
-        restoreMap.put(MetaConstants.CommonConstant.KEY_RESTORE_COLUMN_INDEX, otherSetting.get(MetaConstants.CommonConstant.KEY_RESTORE_COLUMN_INDEX));
-        return JsonUtils.toJson(jobSettingMap);
+    public ObjectNode generateJobSetting(Map<String, Object> otherSetting) {
+        ObjectNode jobSetting = loadSettingTemplate("classpath:stream_setting.json");
+        ObjectNode restoreNode = (ObjectNode) jobSetting.get(MetaConstants.CommonConstant.KEY_RESTORE);
+        restoreNode.set(MetaConstants.CommonConstant.KEY_RESTORE_COLUMN_INDEX, JsonUtils.valueToTree(otherSetting.get(MetaConstants.CommonConstant.KEY_RESTORE_COLUMN_INDEX)));
+        return jobSetting;
     }
 }
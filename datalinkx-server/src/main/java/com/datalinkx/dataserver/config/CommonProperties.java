@@ -38,6 +38,10 @@ public class CommonProperties {
     String temperature;
     @Value("${llm.inner_prompt:}")
     String innerPrompt;
+    @Value("${llm.keep_alive:30m}")
+    String keepAlive;
+    @Value("${llm.parallelism:1}")
+    Integer llmParallelism;
 
     public Map<String, Object> commonSettingMap() {
         Map<String, Object> map = new HashMap<>();
@@ -2,6 +2,7 @@ package com.datalinkx.dataserver.controller;
 
 import com.datalinkx.common.result.WebResult;
 import com.datalinkx.common.utils.JsonUtils;
+import com.datalinkx.dataclient.config.DatalinkXClientUtils;
 import com.datalinkx.dataserver.bean.vo.SystemMonitorVo;
 import com.datalinkx.dataserver.monitor.SystemMonitor;
 import org.springframework.core.io.DefaultResourceLoader;
@@ -14,6 +15,7 @@ import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/monitor")
@@ -24,6 +26,11 @@ public class MonitorController {
         return WebResult.of(SystemMonitor.stat());
     }
 
+    @GetMapping("/http/client")
+    public WebResult<Map<String, Object>> httpClient() {
+        return WebResult.of(DatalinkXClientUtils.metrics());
+    }
+
     @GetMapping("/city/mock")
     public WebResult<Object> mock() throws Exception {
         Resource resource = new DefaultResourceLoader().getResource("city_info.json");
@@ -281,6 +281,8 @@ public class DtsJobServiceImpl implements DtsJobService {
             put("response_parse", commonProperties.getResponseParse());
             put("temperature", commonProperties.getTemperature());
             put("inner_prompt", commonProperties.getInnerPrompt());
+            put("keep_alive", commonProperties.getKeepAlive());
+            put("llm_parallelism", commonProperties.getLlmParallelism());
         }});
         syncUnit.setCompute(compute);
     }
@@ -2,7 +2,9 @@ package com.datalinkx.sse.config;
 
 import com.datalinkx.common.constants.MessageHubConstants;
 import com.datalinkx.common.constants.MetaConstants;
+import com.datalinkx.common.utils.JsonUtils;
 import com.datalinkx.messagehub.config.annotation.MessageHub;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.stereotype.Service;
 
 /**
@@ -17,7 +19,7 @@ public class SsePushProcessor {
             group = MessageHubConstants.GLOBAL_COMMON_GROUP,
             type = MessageHubConstants.REDIS_STREAM_TYPE)
     public void pushJobStatusLoadBalance(String jobStatusMsg) {
-        SseEmitterServer.sendMessage(MetaConstants.JobStatus.SSE_JOB_STATUS, jobStatusMsg);
+        push(jobStatusMsg);
     }
 
     @MessageHub(
@@ -25,7 +27,7 @@ public class SsePushProcessor {
             group = MessageHubConstants.GLOBAL_COMMON_GROUP,
             type = MessageHubConstants.REDIS_STREAM_TYPE)
     public void pushJobStatusLoadBalance2(String jobStatusMsg) {
-        SseEmitterServer.sendMessage(MetaConstants.JobStatus.SSE_JOB_STATUS, jobStatusMsg);
+        push(jobStatusMsg);
     }
 
     @MessageHub(
@@ -33,6 +35,20 @@ public class SsePushProcessor {
             group = MessageHubConstants.GLOBAL_COMMON_GROUP,
             type = MessageHubConstants.REDIS_STREAM_TYPE)
     public void pushJobStatusLoadBalance3(String jobStatusMsg) {
-        SseEmitterServer.sendMessage(MetaConstants.JobStatus.SSE_JOB_STATUS, jobStatusMsg);
+        push(jobStatusMsg);
+    }
+
+    /**
+     * 任务进度按批合并成JSON数组发送，拆开后逐条推送，前端收到的仍是单个任务的状态
+     */
+    private void push(String jobStatusMsg) {
+        JsonNode jsonNode = JsonUtils.toJsonNode(jobStatusMsg);
+        if (jsonNode == null || !jsonNode.isArray()) {
+            SseEmitterServer.sendMessage(MetaConstants.JobStatus.SSE_JOB_STATUS, jobStatusMsg);
+            return;
+        }
+        for (JsonNode jobStatus : jsonNode) {
+            SseEmitterServer.sendMessage(MetaConstants.JobStatus.SSE_JOB_STATUS, jobStatus.toString());
+        }
     }
 }
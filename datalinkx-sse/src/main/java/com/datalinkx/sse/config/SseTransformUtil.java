@@ -16,11 +16,13 @@ import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 @Slf4j
 public class SseTransformUtil {
 
+    // 所有SSE转发请求共用连接池和调度线程池
+    private static final OkHttpClient SSE_CLIENT = new OkHttpClient.Builder()
+            .connectTimeout(1, TimeUnit.DAYS)
+            .readTimeout(1, TimeUnit.DAYS) //这边需要将超时显示设置长一点，不然刚连上就断开，之前以为调用方式错误被坑了半天
+            .build();
+
     public static SseEmitter transformRequest(Request request, String connectId) {
-        OkHttpClient okHttpClient = new OkHttpClient.Builder()
-                .connectTimeout(1, TimeUnit.DAYS)
-                .readTimeout(1, TimeUnit.DAYS) //这边需要将超时显示设置长一点，不然刚连上就断开，之前以为调用方式错误被坑了半天
-                .build();
 
         SseEmitter sseEmitter = SseEmitterServer.connect(connectId);
 
@@ -85,7 +87,7 @@ public class SseTransformUtil {
             }
         });
 
-        realEventSource.connect(okHttpClient); // 真正开始请求的一步
+        realEventSource.connect(SSE_CLIENT); // 真正开始请求的一步
         // 在SSE连接关闭时执行清理操作
         sseEmitter.onCompletion(realEventSource::cancel);
 
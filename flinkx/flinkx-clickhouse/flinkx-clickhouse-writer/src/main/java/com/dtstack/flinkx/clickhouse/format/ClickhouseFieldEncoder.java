@@ -0,0 +1,241 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dtstack.flinkx.clickhouse.format;
+
+import com.dtstack.flinkx.util.DateUtil;
+import ru.yandex.clickhouse.util.ClickHouseRowBinaryStream;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Writes one column value in ClickHouse RowBinary format.
+ * Encoders are resolved once per column from the type reported by {@code desc table}.
+ */
+@FunctionalInterface
+public interface ClickhouseFieldEncoder {
+
+    Pattern WRAPPED_TYPE = Pattern.compile("^(Nullable|LowCardinality)\\((.+)\\)$");
+
+    Pattern DECIMAL_TYPE = Pattern.compile("^Decimal(32|64|128)?\\((\\d+)(?:,\\s*(\\d+))?\\)$");
+
+    Pattern DATETIME_TYPE = Pattern.compile("^DateTime\\(\\s*'([^']+)'\\s*\\)$");
+
+    long UINT8_MAX = 0xFFL;
+
+    long UINT16_MAX = 0xFFFFL;
+
+    long UINT32_MAX = 0xFFFFFFFFL;
+
+    BigInteger UINT64_MAX = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+
+    void encode(ClickHouseRowBinaryStream stream, Object value) throws IOException;
+
+    /**
+     * @param type column type, e.g. Nullable(Int32), LowCardinality(String), Decimal(18, 4)
+     * @return encoder for the type, or null when RowBinary encoding is not supported for it
+     */
+    static ClickhouseFieldEncoder forType(String type) {
+        String trimmed = type.trim();
+        Matcher wrapped = WRAPPED_TYPE.matcher(trimmed);
+        if (wrapped.matches()) {
+            ClickhouseFieldEncoder inner = forType(wrapped.group(2));
+            if (inner == null || !"Nullable".equals(wrapped.group(1))) {
+                return inner;
+            }
+            return (stream, value) -> {
+                stream.markNextNullable(value == null);
+                if (value != null) {
+                    inner.encode(stream, value);
+                }
+            };
+        }
+
+        Matcher decimal = DECIMAL_TYPE.matcher(trimmed);
+        if (decimal.matches()) {
+            return decimalEncoder(decimal);
+        }
+
+        Matcher dateTime = DATETIME_TYPE.matcher(trimmed);
+        if (dateTime.matches()) {
+            return dateTimeEncoder(ZoneId.of(dateTime.group(1)));
+        }
+
+        switch (trimmed) {
+            case "Int8":
+                return (stream, value) -> stream.writeInt8((int) toLong(value, Byte.MIN_VALUE, Byte.MAX_VALUE));
+            case "Int16":
+                return (stream, value) -> stream.writeInt16((int) toLong(value, Short.MIN_VALUE, Short.MAX_VALUE));
+            case "Int32":
+                return (stream, value) -> stream.writeInt32((int) toLong(value, Integer.MIN_VALUE, Integer.MAX_VALUE));
+            case "Int64":
+                return (stream, value) -> stream.writeInt64(toLong(value));
+            case "UInt8":
+                return (stream, value) -> stream.writeUInt8((int) toLong(value, 0, UINT8_MAX));
+            case "UInt16":
+                return (stream, value) -> stream.writeUInt16((int) toLong(value, 0, UINT16_MAX));
+            case "UInt32":
+                return (stream, value) -> stream.writeUInt32(toLong(value, 0, UINT32_MAX));
+            case "UInt64":
+                // the unsigned value is written as the same 64 bits of a signed long
+                return (stream, value) -> stream.writeInt64(toUInt64(value).longValue());
+            case "Float32":
+                return (stream, value) -> stream.writeFloat32((float) toDouble(value));
+            case "Float64":
+                return (stream, value) -> stream.writeFloat64(toDouble(value));
+            case "String":
+                return (stream, value) -> stream.writeString(value == null ? "" : value.toString());
+            case "Date":
+                return (stream, value) -> stream.writeDate(value == null ? new java.sql.Date(0) : DateUtil.columnToDate(value, null));
+            case "DateTime":
+                return (stream, value) -> stream.writeDateTime(value == null ? new java.sql.Timestamp(0) : DateUtil.columnToTimestamp(value, null));
+            case "UUID":
+                return (stream, value) -> stream.writeUUID(value == null ? new UUID(0, 0) : UUID.fromString(value.toString().trim()));
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @return type without Nullable/LowCardinality wrappers
+     */
+    static String baseType(String type) {
+        String trimmed = type.trim();
+        Matcher wrapped = WRAPPED_TYPE.matcher(trimmed);
+        while (wrapped.matches()) {
+            trimmed = wrapped.group(2).trim();
+            wrapped = WRAPPED_TYPE.matcher(trimmed);
+        }
+        return trimmed;
+    }
+
+    /**
+     * DateTime('tz') stores an instant, timestamps are written as they are, date time strings are read
+     * as wall clock time of the column time zone instead of the time zone used by {@link DateUtil}
+     */
+    static ClickhouseFieldEncoder dateTimeEncoder(ZoneId zoneId) {
+        ZoneId parseZoneId = DateUtil.getTimeZone().toZoneId();
+        return (stream, value) -> {
+            if (value == null) {
+                stream.writeDateTime(new java.sql.Timestamp(0));
+                return;
+            }
+
+            java.sql.Timestamp timestamp = DateUtil.columnToTimestamp(value, null);
+            if (value instanceof String) {
+                LocalDateTime localDateTime = LocalDateTime.ofInstant(timestamp.toInstant(), parseZoneId);
+                timestamp = java.sql.Timestamp.from(localDateTime.atZone(zoneId).toInstant());
+            }
+            stream.writeDateTime(timestamp);
+        };
+    }
+
+    static ClickhouseFieldEncoder decimalEncoder(Matcher decimal) {
+        int precision;
+        int scale;
+        if (decimal.group(1) != null) {
+            // Decimal32(S) / Decimal64(S) / Decimal128(S)
+            precision = Integer.parseInt(decimal.group(1)) == 32 ? 9 : Integer.parseInt(decimal.group(1)) == 64 ? 18 : 38;
+            scale = Integer.parseInt(decimal.group(2));
+        } else {
+            precision = Integer.parseInt(decimal.group(2));
+            scale = decimal.group(3) == null ? 0 : Integer.parseInt(decimal.group(3));
+        }
+
+        if (precision <= 9) {
+            return (stream, value) -> stream.writeDecimal32(toBigDecimal(value), scale);
+        } else if (precision <= 18) {
+            return (stream, value) -> stream.writeDecimal64(toBigDecimal(value), scale);
+        } else if (precision <= 38) {
+            return (stream, value) -> stream.writeDecimal128(toBigDecimal(value), scale);
+        }
+        return null;
+    }
+
+    /**
+     * non-nullable columns receive the type default for null, same as a jdbc insert of null.
+     * values with a fraction or out of the long range throw instead of being truncated, so the row becomes dirty data
+     */
+    static long toLong(Object value) {
+        if (value == null) {
+            return 0L;
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        } else if (value instanceof Boolean) {
+            return (Boolean) value ? 1L : 0L;
+        } else if (value instanceof java.util.Date) {
+            return ((java.util.Date) value).getTime();
+        } else if (value instanceof String) {
+            try {
+                return Long.parseLong(((String) value).trim());
+            } catch (NumberFormatException e) {
+                // fall through to the exact decimal conversion
+            }
+        }
+        return toBigDecimal(value).longValueExact();
+    }
+
+    static long toLong(Object value, long min, long max) {
+        long result = toLong(value);
+        if (result < min || result > max) {
+            throw new ArithmeticException("value " + value + " out of range [" + min + ", " + max + "]");
+        }
+        return result;
+    }
+
+    static BigInteger toUInt64(Object value) {
+        BigInteger result;
+        if (value == null || value instanceof Boolean || value instanceof java.util.Date) {
+            result = BigInteger.valueOf(toLong(value));
+        } else {
+            result = toBigDecimal(value).toBigIntegerExact();
+        }
+        if (result.signum() < 0 || result.compareTo(UINT64_MAX) > 0) {
+            throw new ArithmeticException("value " + value + " out of range [0, " + UINT64_MAX + "]");
+        }
+        return result;
+    }
+
+    static double toDouble(Object value) {
+        if (value == null) {
+            return 0D;
+        } else if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        } else if (value instanceof Boolean) {
+            return (Boolean) value ? 1D : 0D;
+        }
+        return Double.parseDouble(value.toString().trim());
+    }
+
+    static BigDecimal toBigDecimal(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        } else if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return BigDecimal.valueOf(((Number) value).longValue());
+        }
+        return new BigDecimal(value.toString().trim());
+    }
+}
@@ -20,11 +20,17 @@ package com.dtstack.flinkx.clickhouse.format;
 import com.dtstack.flinkx.clickhouse.core.ClickhouseUtil;
 import com.dtstack.flinkx.rdb.outputformat.JdbcOutputFormat;
 import com.dtstack.flinkx.rdb.util.DbUtil;
+import com.dtstack.flinkx.restore.FormatState;
 import com.dtstack.flinkx.util.ClassUtil;
 import com.dtstack.flinkx.util.ExceptionUtil;
+import com.dtstack.flinkx.util.GsonUtil;
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang.ObjectUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.flink.types.Row;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import ru.yandex.clickhouse.ClickHouseStatement;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -42,6 +48,29 @@ public class ClickhouseOutputFormat extends JdbcOutputFormat {
 
     private static final Logger LOG = LoggerFactory.getLogger(ClickhouseOutputFormat.class);
 
+    private static final String TYPE_STRING = "String";
+
+    /** server side async insert, requires ClickHouse 21.11+ */
+    protected boolean asyncInsert;
+
+    /** deduplicate batches replayed after a failover by a token derived from the checkpoint position, requires ClickHouse 22.2+ */
+    protected boolean insertDeduplicate;
+
+    /** per column RowBinary encoders, null when a column type is not supported and batches go through jdbc */
+    private transient ClickhouseFieldEncoder[] encoders;
+
+    private transient boolean[] stringColumns;
+
+    private transient String rowBinaryInsertSql;
+
+    private transient ClickHouseStatement rowBinaryStatement;
+
+    /** rows written by this subtask up to the last checkpoint, restored from the checkpoint after a failover */
+    private transient long checkpointWrites;
+
+    /** batches sent since the last checkpoint */
+    private transient long batchesSinceCheckpoint;
+
     @Override
     protected void openInternal(int taskNumber, int numTasks) {
         try {
@@ -66,6 +95,9 @@ public class ClickhouseOutputFormat extends JdbcOutputFormat {
             }
 
             preparedStatement = prepareTemplates();
+            initRowBinaryEncoders();
+            checkpointWrites = snapshotWriteCounter.getLocalValue();
+            batchesSinceCheckpoint = 0;
             readyCheckpoint = false;
 
             LOG.info("subTask[{}}] wait finished", taskNumber);
@@ -101,4 +133,137 @@ public class ClickhouseOutputFormat extends JdbcOutputFormat {
             fullColumnType = typeList;
         }
     }
+
+    private void initRowBinaryEncoders() throws SQLException {
+        if (columnType.size() != column.size()) {
+            throw new IllegalArgumentException(String.format("column types %s do not match columns %s of table %s", columnType, column, table));
+        }
+
+        ClickhouseFieldEncoder[] fieldEncoders = new ClickhouseFieldEncoder[columnType.size()];
+        stringColumns = new boolean[columnType.size()];
+        for (int i = 0; i < columnType.size(); i++) {
+            fieldEncoders[i] = ClickhouseFieldEncoder.forType(columnType.get(i));
+            if (fieldEncoders[i] == null) {
+                LOG.warn("column [{}] type [{}] is not supported by RowBinary insert, use jdbc batch insert instead", column.get(i), columnType.get(i));
+                return;
+            }
+            stringColumns[i] = TYPE_STRING.equals(ClickhouseFieldEncoder.baseType(columnType.get(i)));
+        }
+
+        StringBuilder sql = new StringBuilder()
+                .append("INSERT INTO ")
+                .append(databaseInterface.quoteTable(table))
+                .append(" (")
+                .append(databaseInterface.quoteColumns(column))
+                .append(")");
+        List<String> settings = new ArrayList<>();
+        if (asyncInsert) {
+            settings.add("async_insert=1");
+            settings.add("wait_for_async_insert=1");
+        }
+        if (!settings.isEmpty()) {
+            sql.append(" SETTINGS ").append(StringUtils.join(settings, ", "));
+        }
+        rowBinaryInsertSql = sql.toString();
+        rowBinaryStatement = dbConn.createStatement().unwrap(ClickHouseStatement.class);
+        encoders = fieldEncoders;
+        LOG.info("write sql:{} FORMAT RowBinary", rowBinaryInsertSql);
+    }
+
+    /**
+     * Sends the whole batch as one RowBinary stream instead of a jdbc batch, the driver would otherwise
+     * render every row into a VALUES string on the client.
+     */
+    @Override
+    protected void writeMultipleRecordsInternal() throws Exception {
+        if (encoders == null) {
+            super.writeMultipleRecordsInternal();
+            return;
+        }
+
+        for (Row row : rows) {
+            if (row.getArity() != encoders.length) {
+                throw new IllegalArgumentException(String.format("row arity %d does not match column size %d of table %s, row = %s",
+                        row.getArity(), encoders.length, table, row));
+            }
+        }
+
+        try {
+            String sql = rowBinaryInsertSql;
+            // without restore the write counter is not checkpointed, tokens would repeat after a failover
+            if (insertDeduplicate && restoreConfig.isRestore()) {
+                sql += (asyncInsert ? ", " : " SETTINGS ") + "insert_deduplication_token='" + deduplicationToken() + "'";
+            }
+
+            rowBinaryStatement.sendRowBinaryStream(sql, stream -> {
+                for (Row row : rows) {
+                    for (int index = 0; index < encoders.length; index++) {
+                        encoders[index].encode(stream, rowBinaryField(row, index));
+                    }
+                }
+            });
+
+            if (restoreConfig.isRestore()) {
+                for (Row row : rows) {
+                    if (lastRow != null) {
+                        readyCheckpoint = !ObjectUtils.equals(lastRow.getField(restoreConfig.getRestoreColumnIndex()),
+                                row.getField(restoreConfig.getRestoreColumnIndex()));
+                    }
+                    lastRow = row;
+                }
+                rowsOfCurrentTransaction += rows.size();
+            }
+        } catch (Exception e) {
+            LOG.warn("write Multiple Records error, row size = {}, first row = {},  e = {}",
+                    rows.size(),
+                    rows.size() > 0 ? GsonUtil.GSON.toJson(rows.get(0)) : "null",
+                    ExceptionUtil.getErrorMessage(e));
+            throw e;
+        }
+    }
+
+    private Object rowBinaryField(Row row, int index) {
+        Object field = row.getField(index);
+        //field为空字符串，且写入目标类型不为字符串类型的字段，则将object设置为null
+        if (field instanceof String && !stringColumns[index] && StringUtils.isBlank((String) field)) {
+            return null;
+        }
+        return field;
+    }
+
+    /**
+     * Batches replayed from the same checkpoint after a failover get the same token, so the server drops the
+     * ones already inserted before the failure. The token only depends on the position of the batch in the
+     * output of this subtask, distinct batches and re-runs of the job (new job id) never share a token.
+     * Only takes effect on Replicated tables or tables with non_replicated_deduplication_window set,
+     * and only sent in restore mode, where the checkpointed write counter makes the position deterministic.
+     */
+    private String deduplicationToken() {
+        return jobId + "-" + taskNumber + "-" + checkpointWrites + "-" + batchesSinceCheckpoint++;
+    }
+
+    @Override
+    public FormatState getFormatState() {
+        FormatState state = super.getFormatState();
+        if (state != null) {
+            checkpointWrites = snapshotWriteCounter.getLocalValue();
+            batchesSinceCheckpoint = 0;
+        }
+        return state;
+    }
+
+    @Override
+    public void closeInternal() {
+        DbUtil.closeDbResources(null, rowBinaryStatement, null, false);
+        rowBinaryStatement = null;
+        super.closeInternal();
+    }
+
+    public void setAsyncInsert(boolean asyncInsert) {
+        this.asyncInsert = asyncInsert;
+    }
+
+    public void setInsertDeduplicate(boolean insertDeduplicate) {
+        this.insertDeduplicate = insertDeduplicate;
+    }
 }
@@ -20,6 +20,7 @@ package com.dtstack.flinkx.clickhouse.writer;
 import com.dtstack.flinkx.clickhouse.core.ClickhouseDatabaseMeta;
 import com.dtstack.flinkx.clickhouse.format.ClickhouseOutputFormat;
 import com.dtstack.flinkx.config.DataTransferConfig;
+import com.dtstack.flinkx.config.WriterConfig;
 import com.dtstack.flinkx.enums.EWriteMode;
 import com.dtstack.flinkx.rdb.datawriter.JdbcDataWriter;
 import com.dtstack.flinkx.rdb.outputformat.JdbcOutputFormatBuilder;
@@ -32,8 +33,19 @@ import com.dtstack.flinkx.rdb.outputformat.JdbcOutputFormatBuilder;
  */
 public class ClickhouseWriter extends JdbcDataWriter {
 
+    public static final String KEY_ASYNC_INSERT = "asyncInsert";
+
+    public static final String KEY_INSERT_DEDUPLICATE = "insertDeduplicate";
+
+    private boolean asyncInsert;
+
+    private boolean insertDeduplicate;
+
     public ClickhouseWriter(DataTransferConfig config) {
         super(config);
+        WriterConfig writerConfig = config.getJob().getContent().get(0).getWriter();
+        asyncInsert = writerConfig.getParameter().getBooleanVal(KEY_ASYNC_INSERT, false);
+        insertDeduplicate = writerConfig.getParameter().getBooleanVal(KEY_INSERT_DEDUPLICATE, false);
         if(config.getJob().getSetting().getSpeed().getChannel() != 1){
             throw new UnsupportedOperationException("clickhouse writer's channel setting must be 1");
         }
@@ -45,6 +57,9 @@ public class ClickhouseWriter extends JdbcDataWriter {
 
     @Override
     protected JdbcOutputFormatBuilder getBuilder() {
-        return new JdbcOutputFormatBuilder(new ClickhouseOutputFormat());
+        ClickhouseOutputFormat outputFormat = new ClickhouseOutputFormat();
+        outputFormat.setAsyncInsert(asyncInsert);
+        outputFormat.setInsertDeduplicate(insertDeduplicate);
+        return new JdbcOutputFormatBuilder(outputFormat);
     }
 }
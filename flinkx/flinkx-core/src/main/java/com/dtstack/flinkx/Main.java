@@ -44,6 +44,7 @@ import org.apache.flink.streaming.api.CheckpointingMode;
 import org.apache.flink.streaming.api.datastream.DataStream;
 import org.apache.flink.streaming.api.datastream.DataStreamSink;
 import org.apache.flink.streaming.api.datastream.DataStreamSource;
+import org.apache.flink.streaming.api.datastream.SingleOutputStreamOperator;
 import org.apache.flink.streaming.api.environment.CheckpointConfig;
 import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
 import org.apache.flink.types.Row;
@@ -51,6 +52,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.URLDecoder;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.TimeUnit;
@@ -98,6 +100,8 @@ public class Main {
             config.setRemotePluginPath(remotePluginPath);
         }
 
+        config.setPluginLoadMode(options.getPluginLoadMode());
+
         Configuration flinkConf = new Configuration();
         if (StringUtils.isNotEmpty(options.getFlinkconf())) {
             flinkConf = GlobalConfiguration.loadConfiguration(options.getFlinkconf());
@@ -116,12 +120,39 @@ public class Main {
 
         env.setParallelism(speedConfig.getChannel());
         env.setRestartStrategy(RestartStrategies.noRestart());
+
+        // 每个content构建一条独立的reader到writer管道，多表同步只提交一个flink任务
+        List<DataTransferConfig> pipelineConfigs = config.getPipelineConfigs();
+        boolean isolatePipelineSlot = config.getJob().getSetting().isIsolatePipelineSlot();
+        for (DataTransferConfig pipelineConfig : pipelineConfigs) {
+            buildPipeline(pipelineConfig, env, speedConfig, isolatePipelineSlot);
+        }
+        LOG.info("build {} pipelines, isolatePipelineSlot = {}", pipelineConfigs.size(), isolatePipelineSlot);
+
+        if(env instanceof MyLocalStreamEnvironment) {
+            if(StringUtils.isNotEmpty(savepointPath)){
+                ((MyLocalStreamEnvironment) env).setSettings(SavepointRestoreSettings.forPath(savepointPath));
+            }
+        }
+
+        JobExecutionResult result = env.execute(jobIdString);
+        if(env instanceof MyLocalStreamEnvironment){
+            ResultPrintUtil.printResult(result);
+        }
+    }
+
+    private static void buildPipeline(DataTransferConfig config, StreamExecutionEnvironment env, SpeedConfig speedConfig, boolean isolateSlot) {
+        String pipelineName = config.getPipelineName();
         BaseDataReader dataReader = DataReaderFactory.getDataReader(config, env);
         DataStream<Row> dataStream = dataReader.readData();
         if(speedConfig.getReaderChannel() > 0){
             dataStream = ((DataStreamSource<Row>) dataStream).setParallelism(speedConfig.getReaderChannel());
         }
 
+        if (isolateSlot && pipelineName != null && dataStream instanceof SingleOutputStreamOperator) {
+            ((SingleOutputStreamOperator<Row>) dataStream).slotSharingGroup(pipelineName);
+        }
+
         if (speedConfig.isRebalance()) {
             dataStream = dataStream.rebalance();
         }
@@ -132,15 +163,8 @@ public class Main {
             dataStreamSink.setParallelism(speedConfig.getWriterChannel());
         }
 
-        if(env instanceof MyLocalStreamEnvironment) {
-            if(StringUtils.isNotEmpty(savepointPath)){
-                ((MyLocalStreamEnvironment) env).setSettings(SavepointRestoreSettings.forPath(savepointPath));
-            }
-        }
-
-        JobExecutionResult result = env.execute(jobIdString);
-        if(env instanceof MyLocalStreamEnvironment){
-            ResultPrintUtil.printResult(result);
+        if (isolateSlot && pipelineName != null) {
+            dataStreamSink.slotSharingGroup(pipelineName);
         }
     }
 
@@ -192,11 +216,13 @@ public class Main {
     private static void speedTest(DataTransferConfig config) {
         TestConfig testConfig = config.getJob().getSetting().getTestConfig();
         if (READER.equalsIgnoreCase(testConfig.getSpeedTest())) {
-            ContentConfig contentConfig = config.getJob().getContent().get(0);
-            contentConfig.getWriter().setName(STREAM_WRITER);
+            for (ContentConfig contentConfig : config.getJob().getContent()) {
+                contentConfig.getWriter().setName(STREAM_WRITER);
+            }
         } else if (WRITER.equalsIgnoreCase(testConfig.getSpeedTest())){
-            ContentConfig contentConfig = config.getJob().getContent().get(0);
-            contentConfig.getReader().setName(STREAM_READER);
+            for (ContentConfig contentConfig : config.getJob().getContent()) {
+                contentConfig.getReader().setName(STREAM_READER);
+            }
         }else {
             return;
         }
@@ -20,18 +20,39 @@
 package com.dtstack.flinkx.classloader;
 
 import com.dtstack.flink.api.java.MyLocalStreamEnvironment;
+import com.dtstack.flinkx.config.ContentConfig;
 import com.dtstack.flinkx.config.DataTransferConfig;
 import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
+import org.apache.flink.util.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.dtstack.flinkx.constants.ConstantValue.CLASS_PATH_PLUGIN_LOAD_MODE;
 
 /**
  * @author jiangbo
@@ -39,6 +60,8 @@ import java.util.Set;
  */
 public class PluginUtil {
 
+    private static final Logger LOG = LoggerFactory.getLogger(PluginUtil.class);
+
     private static final String COMMON_DIR = "common";
 
     private static final String READER_SUFFIX = "reader";
@@ -55,6 +78,12 @@ public class PluginUtil {
 
     private static final String CLASS_FILE_NAME_FMT = "class_path_%d";
 
+    /** 插件根目录下保存jar指纹的文件，每次提交任务都是新的Launcher进程，指纹需要落盘才能复用 */
+    private static final String FINGERPRINT_FILE_NAME = ".jar_fingerprints";
+
+    /** jar绝对路径 -> 指纹，文件大小和修改时间不变时复用，避免每次提交任务都重新读取整个jar */
+    private static final Map<String, JarFingerprint> FINGERPRINT_CACHE = new ConcurrentHashMap<>();
+
     public static Set<URL> getJarFileDirPath(String pluginName, String pluginRoot, String remotePluginPath) {
         Set<URL> urlList = new HashSet<>();
 
@@ -118,26 +147,179 @@ public class PluginUtil {
     }
 
     public static void registerPluginUrlToCachedFile(DataTransferConfig config, StreamExecutionEnvironment env) {
-        String readerPluginName = config.getJob().getContent().get(0).getReader().getName();
-        Set<URL> readerUrlList = PluginUtil.getJarFileDirPath(readerPluginName, config.getPluginRoot(), config.getRemotePluginPath());
-
-        String writerPluginName = config.getJob().getContent().get(0).getWriter().getName();
-        Set<URL> writerUrlList = PluginUtil.getJarFileDirPath(writerPluginName, config.getPluginRoot(), config.getRemotePluginPath());
+        Set<String> pluginNames = new LinkedHashSet<>();
+        for (ContentConfig content : config.getJob().getContent()) {
+            pluginNames.add(content.getReader().getName());
+            pluginNames.add(content.getWriter().getName());
+        }
 
         Set<URL> urlSet = new HashSet<>();
+        for (String pluginName : pluginNames) {
+            urlSet.addAll(PluginUtil.getJarFileDirPath(pluginName, config.getPluginRoot(), config.getRemotePluginPath()));
+        }
 
-        urlSet.addAll(readerUrlList);
-        urlSet.addAll(writerUrlList);
+        boolean localEnv = env instanceof MyLocalStreamEnvironment;
+        // classpath模式下插件包已部署在集群各节点，任务通过classpath引用，不再随每个任务上传到BlobServer
+        if (!localEnv && CLASS_PATH_PLUGIN_LOAD_MODE.equalsIgnoreCase(config.getPluginLoadMode())) {
+            LOG.info("plugin load mode is {}, skip registering {} plugin jars to cached file", CLASS_PATH_PLUGIN_LOAD_MODE, urlSet.size());
+            return;
+        }
 
         int i = 0;
-        for (URL url : urlSet) {
+        for (URL url : distinctByContent(urlSet, config.getPluginRoot())) {
             String classFileName = String.format(CLASS_FILE_NAME_FMT, i);
             env.registerCachedFile(url.getPath(), classFileName, true);
             i++;
         }
 
-        if (env instanceof MyLocalStreamEnvironment) {
+        if (localEnv) {
             ((MyLocalStreamEnvironment) env).setClasspaths(new ArrayList<>(urlSet));
         }
     }
+
+    /**
+     * 按jar内容去重，不同插件目录下内容相同的jar只保留一个
+     * 本地不存在的路径（如remotePluginPath）无法计算指纹，按路径保留
+     * 指纹保存在插件根目录下，只有新增或修改过的jar才会重新计算
+     */
+    public static List<URL> distinctByContent(Iterable<URL> urls, String pluginRoot) {
+        File fingerprintFile = new File(pluginRoot, FINGERPRINT_FILE_NAME);
+        loadFingerprints(fingerprintFile);
+
+        boolean updated = false;
+        Map<String, URL> distinct = new LinkedHashMap<>();
+        for (URL url : urls) {
+            File file = new File(url.getPath());
+            String key = url.toString();
+            if (file.isFile()) {
+                key = cachedFingerprint(file);
+                if (key == null) {
+                    key = fingerprint(file);
+                    updated = true;
+                }
+            }
+            URL previous = distinct.putIfAbsent(key, url);
+            if (previous != null) {
+                LOG.info("jar [{}] has the same content as [{}], skip it", url, previous);
+            }
+        }
+
+        if (updated) {
+            saveFingerprints(fingerprintFile);
+        }
+        return new ArrayList<>(distinct.values());
+    }
+
+    /**
+     * @return jar内容的sha-1，按文件大小和修改时间缓存
+     */
+    public static String fingerprint(File jar) {
+        String cached = cachedFingerprint(jar);
+        if (cached != null) {
+            return cached;
+        }
+
+        String path = jar.getAbsolutePath();
+        long length = jar.length();
+        long lastModified = jar.lastModified();
+
+        try (InputStream in = new FileInputStream(jar)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            String hash = StringUtils.byteToHexString(digest.digest());
+            FINGERPRINT_CACHE.put(path, new JarFingerprint(length, lastModified, hash));
+            return hash;
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new RuntimeException("compute fingerprint of jar [" + path + "] error", e);
+        }
+    }
+
+    private static String cachedFingerprint(File jar) {
+        JarFingerprint cached = FINGERPRINT_CACHE.get(jar.getAbsolutePath());
+        if (cached != null && cached.length == jar.length() && cached.lastModified == jar.lastModified()) {
+            return cached.hash;
+        }
+        return null;
+    }
+
+    /**
+     * 每行格式为 jar绝对路径=文件大小,修改时间,sha-1，文件损坏时忽略，重新计算即可
+     */
+    private static void loadFingerprints(File fingerprintFile) {
+        if (!fingerprintFile.isFile()) {
+            return;
+        }
+
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(fingerprintFile)) {
+            properties.load(in);
+        } catch (IOException e) {
+            LOG.warn("read jar fingerprints from [{}] error, ignore it", fingerprintFile, e);
+            return;
+        }
+
+        for (String path : properties.stringPropertyNames()) {
+            String[] parts = properties.getProperty(path).split(",");
+            if (parts.length != 3) {
+                continue;
+            }
+            try {
+                FINGERPRINT_CACHE.putIfAbsent(path, new JarFingerprint(Long.parseLong(parts[0]), Long.parseLong(parts[1]), parts[2]));
+            } catch (NumberFormatException e) {
+                LOG.warn("invalid jar fingerprint [{}] of [{}], ignore it", properties.getProperty(path), path);
+            }
+        }
+    }
+
+    /**
+     * 先写临时文件再替换，多个Launcher进程同时提交任务时不会读到写了一半的文件；
+     * 插件目录只读时只打印日志，下次提交重新计算
+     */
+    private static void saveFingerprints(File fingerprintFile) {
+        String rootPath = fingerprintFile.getAbsoluteFile().getParent() + SP;
+        Properties properties = new Properties();
+        for (Map.Entry<String, JarFingerprint> entry : FINGERPRINT_CACHE.entrySet()) {
+            if (entry.getKey().startsWith(rootPath) && new File(entry.getKey()).isFile()) {
+                JarFingerprint fingerprint = entry.getValue();
+                properties.setProperty(entry.getKey(), fingerprint.length + "," + fingerprint.lastModified + "," + fingerprint.hash);
+            }
+        }
+
+        File tmpFile = null;
+        try {
+            tmpFile = File.createTempFile(FINGERPRINT_FILE_NAME, ".tmp", fingerprintFile.getAbsoluteFile().getParentFile());
+            try (OutputStream out = new FileOutputStream(tmpFile)) {
+                properties.store(out, null);
+            }
+            try {
+                Files.move(tmpFile.toPath(), fingerprintFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmpFile.toPath(), fingerprintFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            LOG.warn("write jar fingerprints to [{}] error", fingerprintFile, e);
+            if (tmpFile != null && !tmpFile.delete()) {
+                tmpFile.deleteOnExit();
+            }
+        }
+    }
+
+    private static class JarFingerprint {
+
+        private final long length;
+
+        private final long lastModified;
+
+        private final String hash;
+
+        JarFingerprint(long length, long lastModified, String hash) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+    }
 }
@@ -30,6 +30,7 @@ public class ContentConfig extends AbstractConfig {
 
     public final static String KEY_READER_CONFIG = "reader";
     public final static String KEY_WRITER_CONFIG = "writer";
+    public final static String KEY_NAME = "name";
 
     ReaderConfig reader;
     WriterConfig writer;
@@ -42,6 +43,13 @@ public class ContentConfig extends AbstractConfig {
         }
     }
 
+    /**
+     * 多个content时管道的名称，不设置时按content的下标命名
+     */
+    public String getName() {
+        return getStringVal(KEY_NAME);
+    }
+
     public ReaderConfig getReader() {
         return reader;
     }
@@ -20,11 +20,17 @@ package com.dtstack.flinkx.config;
 
 import com.dtstack.flinkx.util.GsonUtil;
 import com.dtstack.flinkx.util.MapUtil;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.flink.util.Preconditions;
 
 import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * The class of Data transfer task configuration
@@ -34,11 +40,15 @@ import java.util.Map;
  */
 public class DataTransferConfig extends AbstractConfig {
 
+    public static final String KEY_JOB_CONFIG = "job";
+
+    public static final String PIPELINE_NAME_PREFIX = "pipeline";
+
     JobConfig job;
 
     public DataTransferConfig(Map<String, Object> map) {
         super(map);
-        job = new JobConfig((Map<String, Object>) map.get("job"));
+        job = new JobConfig((Map<String, Object>) map.get(KEY_JOB_CONFIG));
     }
 
     public JobConfig getJob() {
@@ -79,6 +89,66 @@ public class DataTransferConfig extends AbstractConfig {
         this.remotePluginPath = remotePluginPath;
     }
 
+    String pluginLoadMode;
+
+    public String getPluginLoadMode() {
+        return pluginLoadMode;
+    }
+
+    public void setPluginLoadMode(String pluginLoadMode) {
+        this.pluginLoadMode = pluginLoadMode;
+    }
+
+    String pipelineName;
+
+    /**
+     * 多个content时每条reader到writer管道的名称，用于区分各管道的累加器，只有一个content时为null
+     */
+    public String getPipelineName() {
+        return pipelineName;
+    }
+
+    public void setPipelineName(String pipelineName) {
+        this.pipelineName = pipelineName;
+    }
+
+    /**
+     * 按content拆分出每条管道的配置，只有一个content时返回自身
+     *
+     * 拆分出的配置只包含对应的content，插件中读取content第一个元素的逻辑不需要修改；
+     * setting按管道各自复制一份，写插件会修改其中的断点续传配置
+     *
+     * @return 每条管道的配置
+     */
+    public List<DataTransferConfig> getPipelineConfigs() {
+        List<ContentConfig> contentList = job.getContent();
+        if (contentList.size() == 1) {
+            return Collections.singletonList(this);
+        }
+
+        List<DataTransferConfig> pipelineConfigs = new ArrayList<>(contentList.size());
+        Set<String> pipelineNames = new HashSet<>();
+        for (int i = 0; i < contentList.size(); i++) {
+            ContentConfig content = contentList.get(i);
+            String name = StringUtils.isNotBlank(content.getName()) ? content.getName() : PIPELINE_NAME_PREFIX + i;
+            Preconditions.checkArgument(pipelineNames.add(name), "Duplicate content name: %s", name);
+
+            Map<String, Object> jobMap = new HashMap<>(job.getAll());
+            jobMap.put(JobConfig.KEY_CONTENT_CONFIG_LIST, Collections.singletonList(content.getAll()));
+            Map<String, Object> map = new HashMap<>(internalMap);
+            map.put(KEY_JOB_CONFIG, jobMap);
+
+            DataTransferConfig pipelineConfig = parse(GsonUtil.GSON.toJson(map));
+            pipelineConfig.setMonitorUrls(monitorUrls);
+            pipelineConfig.setPluginRoot(pluginRoot);
+            pipelineConfig.setRemotePluginPath(remotePluginPath);
+            pipelineConfig.setPluginLoadMode(pluginLoadMode);
+            pipelineConfig.setPipelineName(name);
+            pipelineConfigs.add(pipelineConfig);
+        }
+        return pipelineConfigs;
+    }
+
     private static void checkConfig(DataTransferConfig config) {
         Preconditions.checkNotNull(config);
 
@@ -89,9 +159,12 @@ public class DataTransferConfig extends AbstractConfig {
         Preconditions.checkNotNull(contentConfig, "Must specify content array");
         Preconditions.checkArgument(contentConfig.size() != 0, "Must specify at least one content element");
 
-        // 暂时只考虑只包含一个Content元素的情况
-        ContentConfig content =  contentConfig.get(0);
+        for (ContentConfig content : contentConfig) {
+            checkContent(content);
+        }
+    }
 
+    private static void checkContent(ContentConfig content) {
         // 检查reader配置
         ReaderConfig readerConfig = content.getReader();
         Preconditions.checkNotNull(readerConfig, "Must specify a reader element");
@@ -106,7 +179,6 @@ public class DataTransferConfig extends AbstractConfig {
         Preconditions.checkNotNull(writerConfig.getName(), "Must specify the writer name");
         WriterConfig.ParameterConfig writerParameter = writerConfig.getParameter();
         Preconditions.checkNotNull(writerParameter, "Must specify parameter for the writer");
-
     }
 
     public static DataTransferConfig parse(String json) {
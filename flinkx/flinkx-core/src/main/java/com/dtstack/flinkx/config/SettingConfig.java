@@ -42,6 +42,12 @@ public class SettingConfig extends AbstractConfig {
 
     public static final String KEY_LOG = "log";
 
+    public static final String KEY_PIPELINE_SLOT_SHARING = "pipelineSlotSharing";
+
+    public static final String PIPELINE_SLOT_SHARING_SHARED = "shared";
+
+    public static final String PIPELINE_SLOT_SHARING_ISOLATED = "isolated";
+
     private SpeedConfig speed = SpeedConfig.defaultConfig();
 
     private ErrorLimitConfig errorLimit = ErrorLimitConfig.defaultConfig();
@@ -141,5 +147,12 @@ public class SettingConfig extends AbstractConfig {
     public void setRestartConfig(RestartConfig restartConfig) {
         this.restartConfig = restartConfig;
     }
-}
 
+    /**
+     * 多个content时各管道是否使用各自的slot共享组，默认所有管道共享slot
+     */
+    public boolean isIsolatePipelineSlot() {
+        String slotSharing = getStringVal(KEY_PIPELINE_SLOT_SHARING, PIPELINE_SLOT_SHARING_SHARED);
+        return PIPELINE_SLOT_SHARING_ISOLATED.equalsIgnoreCase(slotSharing);
+    }
+}
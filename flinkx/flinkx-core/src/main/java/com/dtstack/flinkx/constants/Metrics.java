@@ -64,6 +64,12 @@ public class Metrics {
 
     public static final String MAX_VALUE = "maxValue";
 
+    public static final String NUM_POLLING_QUERIES = "numPollingQuery";
+
+    public static final String NUM_POLLING_EMPTY_QUERIES = "numPollingEmptyQuery";
+
+    public static final String NUM_POLLING_PROBES = "numPollingProbe";
+
     public static final String METRIC_GROUP_KEY_FLINKX = "flinkx";
 
     public static final String METRIC_GROUP_VALUE_OUTPUT = "output";
@@ -78,4 +84,18 @@ public class Metrics {
     public static final String RATE_COUNTER_PROCESS_ROWS = "RateCounterProcessRows";
     public static final String RATE_COUNTER_PROCESS_MS = "RateCounterProcessMs";
     public static final String RATE_COUNTER_PROCESS_VALID_MS = "RateCounterProcessValidMs";
+
+    /**
+     * 多管道任务中累加器的名称加上管道名称前缀，避免不同管道的同名累加器在JobManager上合并
+     *
+     * @param pipelineName 管道名称，单管道任务为null
+     * @param name 累加器名称
+     * @return 带管道前缀的累加器名称
+     */
+    public static String withPipeline(String pipelineName, String name) {
+        if (pipelineName == null || pipelineName.isEmpty()) {
+            return name;
+        }
+        return pipelineName + "_" + name;
+    }
 }
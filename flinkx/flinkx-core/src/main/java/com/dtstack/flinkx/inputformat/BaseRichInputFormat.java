@@ -80,6 +80,11 @@ public abstract class BaseRichInputFormat extends org.apache.flink.api.common.io
     protected LogConfig logConfig;
     protected DataTransferConfig dataTransferConfig;
 
+    /**
+     * 多管道任务中所属管道的名称，单管道任务为null
+     */
+    protected String pipelineName;
+
     protected FormatState formatState;
 
     protected TestConfig testConfig = TestConfig.defaultConfig();
@@ -228,7 +233,7 @@ public abstract class BaseRichInputFormat extends org.apache.flink.api.common.io
                         Metrics.WRITE_BYTES,
                         Metrics.NUM_WRITES,
                         lastWriteLocation,
-                        lastWriteNum));
+                        lastWriteNum), pipelineName);
         accumulatorCollector.start();
     }
 
@@ -249,15 +254,15 @@ public abstract class BaseRichInputFormat extends org.apache.flink.api.common.io
 
     private void openByteRateLimiter(){
         if (this.bytes > 0) {
-            this.byteRateLimiter = new ByteRateLimiter(accumulatorCollector, this.bytes);
+            this.byteRateLimiter = new ByteRateLimiter(accumulatorCollector, this.bytes, getRuntimeContext().getNumberOfParallelSubtasks());
             this.byteRateLimiter.start();
         }
     }
 
     private void initStatisticsAccumulator(){
-        numReadCounter = getRuntimeContext().getLongCounter(Metrics.NUM_READS);
-        bytesReadCounter = getRuntimeContext().getLongCounter(Metrics.READ_BYTES);
-        durationCounter = getRuntimeContext().getLongCounter(Metrics.READ_DURATION);
+        numReadCounter = getRuntimeContext().getLongCounter(accumulatorName(Metrics.NUM_READS));
+        bytesReadCounter = getRuntimeContext().getLongCounter(accumulatorName(Metrics.READ_BYTES));
+        durationCounter = getRuntimeContext().getLongCounter(accumulatorName(Metrics.READ_DURATION));
 
         inputMetric = new BaseMetric(getRuntimeContext());
         inputMetric.addMetric(Metrics.NUM_READS, numReadCounter, true);
@@ -297,6 +302,9 @@ public abstract class BaseRichInputFormat extends org.apache.flink.api.common.io
             if(bytesReadCounter!=null){
                 bytesReadCounter.add(bytesLen);
             }
+            if(byteRateLimiter != null) {
+                byteRateLimiter.consume(bytesLen);
+            }
         }
 
         if (testConfig.errorTest() && testConfig.getFailedPerRecord() > 0) {
@@ -330,6 +338,28 @@ public abstract class BaseRichInputFormat extends org.apache.flink.api.common.io
         return formatState;
     }
 
+    /**
+     * 数据发送到下游之后在checkpoint锁内调用，实时采集插件可以在这里更新快照要保存的位点
+     */
+    public void afterCollect() {
+    }
+
+    /**
+     * checkpoint快照时在{@link #getFormatState()}之后调用，实时采集插件可以记录这次快照对应的位点
+     *
+     * @param checkpointId checkpoint id
+     */
+    public void snapshotState(long checkpointId) {
+    }
+
+    /**
+     * checkpoint完成后调用，实时采集插件可以在这里向源端确认已经保存的位点
+     *
+     * @param checkpointId 完成的checkpoint id
+     */
+    public void notifyCheckpointComplete(long checkpointId) {
+    }
+
     /**
      * 由子类实现，读取一条数据
      *
@@ -434,6 +464,20 @@ public abstract class BaseRichInputFormat extends org.apache.flink.api.common.io
         return dataTransferConfig;
     }
 
+    public void setPipelineName(String pipelineName) {
+        this.pipelineName = pipelineName;
+    }
+
+    /**
+     * 注册累加器时使用的名称，多管道任务中加上管道名称前缀
+     *
+     * @param name 累加器名称
+     * @return 实际注册的累加器名称
+     */
+    protected String accumulatorName(String name) {
+        return Metrics.withPipeline(pipelineName, name);
+    }
+
     public void setRateCounterLimit(long limit) {
         this.rateCounterLimit = limit > 1 ? limit : 1000;
     }
@@ -20,6 +20,7 @@
 package com.dtstack.flinkx.metrics;
 
 import com.dtstack.flinkx.constants.ConstantValue;
+import com.dtstack.flinkx.constants.Metrics;
 import com.dtstack.flinkx.log.DtLogger;
 import com.dtstack.flinkx.util.UrlUtil;
 import com.google.common.collect.Lists;
@@ -81,9 +82,23 @@ public class AccumulatorCollector {
 
     private List<String> metricNames;
 
+    /**
+     * 多管道任务的管道名称，累加器按带前缀的名称注册和匹配，对外仍按原名称获取
+     */
+    private String pipelineName;
+
+    /**
+     * 带管道前缀的累加器名称与累加器的对应关系，用于匹配rest api返回的累加器
+     */
+    private Map<String, ValueAccumulator> globalAccumulatorMap;
+
     private long collectErrorTimes = 0;
 
     public AccumulatorCollector(String jobId, String monitorUrlStr, RuntimeContext runtimeContext, int period, List<String> metricNames){
+        this(jobId, monitorUrlStr, runtimeContext, period, metricNames, null);
+    }
+
+    public AccumulatorCollector(String jobId, String monitorUrlStr, RuntimeContext runtimeContext, int period, List<String> metricNames, String pipelineName){
         Preconditions.checkArgument(jobId != null && jobId.length() > 0);
         Preconditions.checkArgument(period > 0);
         Preconditions.checkArgument(metricNames != null && metricNames.size() > 0);
@@ -92,6 +107,7 @@ public class AccumulatorCollector {
         this.period = period;
         this.jobId = jobId;
         this.metricNames = metricNames;
+        this.pipelineName = pipelineName;
 
         isLocalMode = StringUtils.isEmpty(monitorUrlStr);
 
@@ -109,8 +125,12 @@ public class AccumulatorCollector {
 
     private void initValueAccumulatorMap(){
         valueAccumulatorMap = new HashMap<>(metricNames.size());
+        globalAccumulatorMap = new HashMap<>(metricNames.size());
         for (String metricName : metricNames) {
-            valueAccumulatorMap.put(metricName, new ValueAccumulator(0, context.getLongCounter(metricName)));
+            String accumulatorName = Metrics.withPipeline(pipelineName, metricName);
+            ValueAccumulator valueAccumulator = new ValueAccumulator(0, context.getLongCounter(accumulatorName));
+            valueAccumulatorMap.put(metricName, valueAccumulator);
+            globalAccumulatorMap.put(accumulatorName, valueAccumulator);
         }
     }
 
@@ -193,6 +213,13 @@ public class AccumulatorCollector {
         }
     }
 
+    /**
+     * 本地模式下获取不到其它通道的累加器，{@link #getAccumulatorValue(String)}返回的是当前通道的值
+     */
+    public boolean isLocalMode() {
+        return isLocalMode;
+    }
+
     public long getAccumulatorValue(String name){
         ValueAccumulator valueAccumulator = valueAccumulatorMap.get(name);
         if(valueAccumulator == null){
@@ -230,7 +257,7 @@ public class AccumulatorCollector {
                                 String accValue = (String) accumulator.get(KEY_VALUE);
                                 if (!"null".equals(accValue)) {
                                     long value = Double.valueOf(accValue).longValue();
-                                    ValueAccumulator valueAccumulator = valueAccumulatorMap.get(name);
+                                    ValueAccumulator valueAccumulator = globalAccumulatorMap.get(name);
                                     if (valueAccumulator != null) {
                                         valueAccumulator.setGlobal(value);
                                     }
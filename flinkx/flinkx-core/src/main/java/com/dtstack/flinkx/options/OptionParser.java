@@ -23,10 +23,12 @@ import org.apache.commons.cli.BasicParser;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.ParseException;
 import org.apache.commons.codec.Charsets;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
@@ -43,6 +45,13 @@ public class OptionParser {
 
     private final static String OPTION_JOB = "job";
 
+    /**
+     * -job指定为stdin时从标准输入读取任务json，提交方不需要再写临时文件
+     */
+    public final static String JOB_FROM_STDIN = "stdin";
+
+    private static volatile String stdinJob;
+
     private org.apache.commons.cli.Options options = new org.apache.commons.cli.Options();
 
     private BasicParser parser = new BasicParser();
@@ -116,16 +125,37 @@ public class OptionParser {
             if(value == null){
                 continue;
             }else if(OPTION_JOB.equalsIgnoreCase(key)){
-                File file = new File(value.toString());
-                try (FileInputStream in = new FileInputStream(file)) {
-                    byte[] filecontent = new byte[(int) file.length()];
-                    in.read(filecontent);
-                    value = new String(filecontent, Charsets.UTF_8.name());
-                }
+                value = readJob(value.toString());
             }
             args.add("-" + key);
             args.add(value.toString());
         }
         return args;
     }
+
+    /**
+     * 读取任务json，job为stdin时读取标准输入，同一进程内只读取一次，否则按文件路径读取
+     *
+     * @param job -job参数的值
+     * @return 任务json
+     */
+    public static String readJob(String job) throws IOException {
+        if (!JOB_FROM_STDIN.equals(job)) {
+            File file = new File(job);
+            try (FileInputStream in = new FileInputStream(file)) {
+                byte[] filecontent = new byte[(int) file.length()];
+                in.read(filecontent);
+                return new String(filecontent, Charsets.UTF_8.name());
+            }
+        }
+
+        if (stdinJob == null) {
+            synchronized (OptionParser.class) {
+                if (stdinJob == null) {
+                    stdinJob = IOUtils.toString(System.in, Charsets.UTF_8);
+                }
+            }
+        }
+        return stdinJob;
+    }
 }
@@ -146,6 +146,9 @@ public abstract class BaseRichOutputFormat extends org.apache.flink.api.common.i
 
     protected String jobId;
 
+    /** 多管道任务中所属管道的名称，单管道任务为null */
+    protected String pipelineName;
+
     protected RestoreConfig restoreConfig;
 
     protected FormatState formatState;
@@ -249,7 +252,7 @@ public abstract class BaseRichOutputFormat extends org.apache.flink.api.common.i
                         Metrics.NUM_WRITES,
                         Metrics.WRITE_BYTES,
                         Metrics.NUM_READS,
-                        Metrics.WRITE_DURATION));
+                        Metrics.WRITE_DURATION), pipelineName);
         accumulatorCollector.start();
     }
 
@@ -290,15 +293,15 @@ public abstract class BaseRichOutputFormat extends org.apache.flink.api.common.i
     }
 
     protected void initStatisticsAccumulator(){
-        errCounter = context.getLongCounter(Metrics.NUM_ERRORS);
-        nullErrCounter = context.getLongCounter(Metrics.NUM_NULL_ERRORS);
-        duplicateErrCounter = context.getLongCounter(Metrics.NUM_DUPLICATE_ERRORS);
-        conversionErrCounter = context.getLongCounter(Metrics.NUM_CONVERSION_ERRORS);
-        otherErrCounter = context.getLongCounter(Metrics.NUM_OTHER_ERRORS);
-        numWriteCounter = context.getLongCounter(Metrics.NUM_WRITES);
-        snapshotWriteCounter = context.getLongCounter(Metrics.SNAPSHOT_WRITES);
-        bytesWriteCounter = context.getLongCounter(Metrics.WRITE_BYTES);
-        durationCounter = context.getLongCounter(Metrics.WRITE_DURATION);
+        errCounter = context.getLongCounter(accumulatorName(Metrics.NUM_ERRORS));
+        nullErrCounter = context.getLongCounter(accumulatorName(Metrics.NUM_NULL_ERRORS));
+        duplicateErrCounter = context.getLongCounter(accumulatorName(Metrics.NUM_DUPLICATE_ERRORS));
+        conversionErrCounter = context.getLongCounter(accumulatorName(Metrics.NUM_CONVERSION_ERRORS));
+        otherErrCounter = context.getLongCounter(accumulatorName(Metrics.NUM_OTHER_ERRORS));
+        numWriteCounter = context.getLongCounter(accumulatorName(Metrics.NUM_WRITES));
+        snapshotWriteCounter = context.getLongCounter(accumulatorName(Metrics.SNAPSHOT_WRITES));
+        bytesWriteCounter = context.getLongCounter(accumulatorName(Metrics.WRITE_BYTES));
+        durationCounter = context.getLongCounter(accumulatorName(Metrics.WRITE_DURATION));
 
         outputMetric = new BaseMetric(context);
         outputMetric.addMetric(Metrics.NUM_ERRORS, errCounter);
@@ -371,18 +374,10 @@ public abstract class BaseRichOutputFormat extends org.apache.flink.api.common.i
                 snapshotWriteCounter.add(1);
             }
         } catch(WriteRecordException e) {
-            saveErrorData(row, e);
-            updateStatisticsOfDirtyData(row, e);
+            writeDirtyRecord(row, e);
             // 总记录数加1
             numWriteCounter.add(1);
             snapshotWriteCounter.add(1);
-
-            if(dirtyDataManager == null && errCounter.getLocalValue() % LOG_PRINT_INTERNAL == 0){
-                LOG.error(e.getMessage());
-            }
-            if(DtLogger.isEnableTrace()){
-                LOG.trace("write error row, row = {}, e = {}", row.toString(), ExceptionUtil.getErrorMessage(e));
-            }
         }
 
         if(errorLimiter != null) {
@@ -390,6 +385,22 @@ public abstract class BaseRichOutputFormat extends org.apache.flink.api.common.i
         }
     }
 
+    /**
+     * 记录脏数据并更新错误统计，不计入写入条数
+     * 批量写入时可对部分失败的行单独调用，其余行仍按批量成功处理
+     */
+    protected void writeDirtyRecord(Row row, WriteRecordException e) {
+        saveErrorData(row, e);
+        updateStatisticsOfDirtyData(row, e);
+
+        if(dirtyDataManager == null && errCounter.getLocalValue() % LOG_PRINT_INTERNAL == 0){
+            LOG.error(e.getMessage());
+        }
+        if(DtLogger.isEnableTrace()){
+            LOG.trace("write error row, row = {}, e = {}", row.toString(), ExceptionUtil.getErrorMessage(e));
+        }
+    }
+
     protected boolean isStreamButNoWriteCheckpoint(){
         return false;
     }
@@ -674,6 +685,7 @@ public abstract class BaseRichOutputFormat extends org.apache.flink.api.common.i
     }
 
     protected BaseLatch newLatch(String latchName) {
+        latchName = accumulatorName(latchName);
         if(StringUtils.isNotBlank(monitorUrl)) {
             return new MetricLatch(getRuntimeContext(), monitorUrl, latchName);
         } else {
@@ -681,6 +693,20 @@ public abstract class BaseRichOutputFormat extends org.apache.flink.api.common.i
         }
     }
 
+    public void setPipelineName(String pipelineName) {
+        this.pipelineName = pipelineName;
+    }
+
+    /**
+     * 注册累加器时使用的名称，多管道任务中加上管道名称前缀
+     *
+     * @param name 累加器名称
+     * @return 实际注册的累加器名称
+     */
+    protected String accumulatorName(String name) {
+        return Metrics.withPipeline(pipelineName, name);
+    }
+
     public int getBatchInterval() {
         return batchInterval;
     }
@@ -24,6 +24,8 @@ import com.dtstack.flinkx.config.ReaderConfig;
 import com.dtstack.flinkx.config.RestoreConfig;
 import com.dtstack.flinkx.config.DirtyConfig;
 import com.dtstack.flinkx.config.TestConfig;
+import com.dtstack.flinkx.constants.ConstantValue;
+import com.dtstack.flinkx.inputformat.BaseRichInputFormat;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import org.apache.flink.api.common.io.InputFormat;
 import org.apache.flink.api.common.typeinfo.TypeInformation;
@@ -34,6 +36,8 @@ import com.dtstack.flinkx.streaming.api.functions.source.DtInputFormatSourceFunc
 import org.apache.flink.types.Row;
 import org.apache.flink.util.Preconditions;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -139,7 +143,17 @@ public abstract class BaseDataReader {
     protected DataStream<Row> createInput(InputFormat inputFormat, String sourceName) {
         Preconditions.checkNotNull(sourceName);
         Preconditions.checkNotNull(inputFormat);
-        TypeInformation typeInfo = TypeExtractor.getInputFormatTypes(inputFormat);
+        String pipelineName = dataTransferConfig.getPipelineName();
+        if (StringUtils.isNotEmpty(pipelineName)) {
+            sourceName = pipelineName + "_" + sourceName;
+            if (inputFormat instanceof BaseRichInputFormat) {
+                ((BaseRichInputFormat) inputFormat).setPipelineName(pipelineName);
+            }
+        }
+        TypeInformation typeInfo = getRowTypeInfo();
+        if (typeInfo == null) {
+            typeInfo = TypeExtractor.getInputFormatTypes(inputFormat);
+        }
         DtInputFormatSourceFunction function = new DtInputFormatSourceFunction(inputFormat, typeInfo);
         return env.addSource(function, sourceName, typeInfo);
     }
@@ -148,4 +162,34 @@ public abstract class BaseDataReader {
         return createInput(inputFormat,this.getClass().getSimpleName().toLowerCase());
     }
 
+    /**
+     * Type information derived from the configured columns, so rows are not serialized by kryo
+     * when they are redistributed to the writer.
+     *
+     * @return null for real-time jobs and for columns that are only known at runtime, the generic type is used then
+     */
+    protected TypeInformation<Row> getRowTypeInfo() {
+        if (restoreConfig.isStream()) {
+            return null;
+        }
+
+        List columns = dataTransferConfig.getJob().getContent().get(0).getReader().getParameter().getColumn();
+        if (CollectionUtils.isEmpty(columns)) {
+            return null;
+        }
+
+        List<MetaColumn> metaColumns;
+        try {
+            metaColumns = MetaColumn.getMetaColumns(columns);
+        } catch (IllegalArgumentException e) {
+            //插件自定义格式的column配置
+            return null;
+        }
+        if (metaColumns.size() == 1 && ConstantValue.STAR_SYMBOL.equals(metaColumns.get(0).getName())) {
+            return null;
+        }
+
+        return ColumnRowTypeInfo.of(metaColumns);
+    }
+
 }
@@ -20,20 +20,24 @@ package com.dtstack.flinkx.reader;
 
 import com.dtstack.flinkx.constants.Metrics;
 import com.dtstack.flinkx.metrics.AccumulatorCollector;
-import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.Uninterruptibles;
 import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.math.BigDecimal;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
 
 /**
  * This class is user for speed control
  *
+ * 每个通道按字节数维护一个令牌桶，读取的数据按实际字节数扣减，累计到一批后再结算，桶中字节数为负时等待补齐；
+ * 每秒根据全局累加器中各通道最近读取的字节数重新分配当前通道的限速
+ *
  * Company: www.dtstack.com
  * @author huyifan.zju@163.com
  */
@@ -41,21 +45,55 @@ public class ByteRateLimiter {
 
     private final static Logger LOG = LoggerFactory.getLogger(ByteRateLimiter.class);
 
-    public static final int MIN_RECORD_NUMBER_UPDATE_RATE = 1000;
+    /**
+     * 桶中最多积累的令牌对应的时长，空闲之后的突发流量不超过这个时长的限速
+     */
+    private static final double MAX_BURST_SECONDS = 1.0;
+
+    /**
+     * 每批结算的字节数对应的时长，批次越小等待越平滑，批次越大结算的开销越小
+     */
+    private static final double BATCH_SECONDS = 0.01;
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final double expectedBytePerSecond;
+
+    private final int parallelism;
 
-    private RateLimiter rateLimiter;
+    private final AccumulatorCollector accumulatorCollector;
 
-    private double expectedBytePerSecond;
+    private final Ticker ticker;
 
-    private AccumulatorCollector accumulatorCollector;
+    private final LongConsumer sleeper;
 
     private ScheduledExecutorService scheduledExecutorService;
 
-    public ByteRateLimiter(AccumulatorCollector accumulatorCollector, double expectedBytePerSecond) {
-        double initialRate = 1000.0;
-        this.rateLimiter = RateLimiter.create(initialRate);
-        this.expectedBytePerSecond = expectedBytePerSecond;
-        this.accumulatorCollector = accumulatorCollector;
+    /**
+     * 当前通道的限速，由限速线程更新
+     */
+    private volatile double bytesPerSecond;
+
+    private volatile long batchBytes;
+
+    /**
+     * 结算过的字节数，只由读取线程写入
+     */
+    private volatile long consumedBytes;
+
+    private double storedBytes;
+
+    private long lastRefillNanos;
+
+    private long pendingBytes;
+
+    private long lastGlobalBytes;
+
+    private long lastLocalBytes;
+
+    public ByteRateLimiter(AccumulatorCollector accumulatorCollector, double expectedBytePerSecond, int parallelism) {
+        this(accumulatorCollector, expectedBytePerSecond, parallelism, Ticker.systemTicker(),
+                nanos -> Uninterruptibles.sleepUninterruptibly(nanos, TimeUnit.NANOSECONDS));
 
         ThreadFactory threadFactory = new BasicThreadFactory
                 .Builder()
@@ -65,6 +103,16 @@ public class ByteRateLimiter {
         scheduledExecutorService = new ScheduledThreadPoolExecutor(1, threadFactory);
     }
 
+    ByteRateLimiter(AccumulatorCollector accumulatorCollector, double expectedBytePerSecond, int parallelism, Ticker ticker, LongConsumer sleeper) {
+        this.accumulatorCollector = accumulatorCollector;
+        this.expectedBytePerSecond = expectedBytePerSecond;
+        this.parallelism = Math.max(parallelism, 1);
+        this.ticker = ticker;
+        this.sleeper = sleeper;
+        this.lastRefillNanos = ticker.read();
+        setRate(expectedBytePerSecond / this.parallelism);
+    }
+
     public void start(){
         scheduledExecutorService.scheduleAtFixedRate(this::updateRate,0, 1000L, TimeUnit.MILLISECONDS);
     }
@@ -75,22 +123,91 @@ public class ByteRateLimiter {
         }
     }
 
+    /**
+     * 读取数据前调用，累计的字节数达到一批时结算，令牌不足时阻塞
+     */
     public void acquire() {
-        rateLimiter.acquire();
+        if (pendingBytes >= batchBytes) {
+            settle();
+        }
+    }
+
+    /**
+     * 记录读取到的一条数据的字节数，在下一次{@link #acquire()}时结算
+     *
+     * @param bytes 数据的字节数
+     */
+    public void consume(long bytes) {
+        pendingBytes += bytes;
+    }
+
+    public double getRate() {
+        return bytesPerSecond;
+    }
+
+    private void settle() {
+        refill();
+        storedBytes -= pendingBytes;
+        consumedBytes += pendingBytes;
+        pendingBytes = 0;
+
+        if (storedBytes < 0) {
+            sleeper.accept((long) (-storedBytes / bytesPerSecond * NANOS_PER_SECOND));
+            refill();
+        }
     }
 
-    private void updateRate(){
-        long totalBytes = accumulatorCollector.getAccumulatorValue(Metrics.READ_BYTES);
-        long thisRecords = accumulatorCollector.getLocalAccumulatorValue(Metrics.NUM_READS);
-        long totalRecords = accumulatorCollector.getAccumulatorValue(Metrics.NUM_READS);
+    private void refill() {
+        long now = ticker.read();
+        double rate = bytesPerSecond;
+        storedBytes = Math.min(storedBytes + (now - lastRefillNanos) / NANOS_PER_SECOND * rate, rate * MAX_BURST_SECONDS);
+        lastRefillNanos = now;
+    }
 
-        BigDecimal thisWriteRatio = BigDecimal.valueOf(totalRecords == 0 ? 0 : thisRecords / (double) totalRecords);
+    void setRate(double rate) {
+        rate = Math.max(rate, 1.0);
+        bytesPerSecond = rate;
+        batchBytes = Math.max(1L, (long) (rate * BATCH_SECONDS));
+    }
 
-        if (totalRecords > MIN_RECORD_NUMBER_UPDATE_RATE && totalBytes != 0
-                && thisWriteRatio.compareTo(BigDecimal.ZERO) != 0) {
-            double bpr = totalBytes / (double)totalRecords;
-            double permitsPerSecond = expectedBytePerSecond / bpr * thisWriteRatio.doubleValue();
-            rateLimiter.setRate(permitsPerSecond);
+    void updateRate(){
+        if (parallelism == 1 || accumulatorCollector.isLocalMode()) {
+            // 获取不到其它通道的读取量时平均分配
+            setRate(expectedBytePerSecond / parallelism);
+            return;
         }
+
+        long globalBytes = accumulatorCollector.getAccumulatorValue(Metrics.READ_BYTES);
+        if (globalBytes == lastGlobalBytes) {
+            return;
+        }
+
+        long localBytes = consumedBytes;
+        double share = computeShare(localBytes - lastLocalBytes, globalBytes - lastGlobalBytes, parallelism);
+        lastGlobalBytes = globalBytes;
+        lastLocalBytes = localBytes;
+        setRate(expectedBytePerSecond * share);
+        LOG.debug("update byte rate to {}, share = {}", bytesPerSecond, share);
+    }
+
+    /**
+     * 当前通道分到的限速比例，取最近读取量的占比与平均值的中间值
+     *
+     * 各通道的比例之和为1，所有通道都读满时收敛到平均分配；空闲通道的份额让给其它通道，但至少保留平均值的一半，
+     * 恢复读取后逐步收回
+     *
+     * @param localDelta  当前通道最近读取的字节数
+     * @param globalDelta 所有通道最近读取的字节数
+     * @param parallelism 通道数
+     * @return 限速比例
+     */
+    static double computeShare(long localDelta, long globalDelta, int parallelism) {
+        double fairShare = 1.0 / parallelism;
+        if (globalDelta <= 0) {
+            return fairShare;
+        }
+
+        double usedShare = Math.min(1.0, Math.max(0.0, localDelta / (double) globalDelta));
+        return (usedShare + fairShare) / 2;
     }
 }
@@ -0,0 +1,376 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.flinkx.reader;
+
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.api.common.typeutils.CompositeTypeSerializerSnapshot;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.api.common.typeutils.TypeSerializerSnapshot;
+import org.apache.flink.api.java.typeutils.runtime.kryo.KryoSerializer;
+import org.apache.flink.core.memory.DataInputView;
+import org.apache.flink.core.memory.DataOutputView;
+import org.apache.flink.types.Row;
+import org.apache.flink.types.StringValue;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Date;
+
+/**
+ * Serializer of the rows emitted by readers.
+ *
+ * The java class of a field depends on the reader and the source data rather than on the configured column type,
+ * and the arity of a row is only known at runtime for some readers, so every field is written with a one byte tag
+ * of its class. Common JDK value classes are written directly, anything else falls back to kryo for that field only.
+ * The kryo serializer is created from the job's {@link ExecutionConfig}, so registered types and default kryo
+ * serializers apply to those fields as well.
+ */
+public class ColumnRowSerializer extends TypeSerializer<Row> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INT = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte FLOAT = 5;
+    private static final byte SHORT = 6;
+    private static final byte BYTE = 7;
+    private static final byte BOOLEAN = 8;
+    private static final byte CHAR = 9;
+    private static final byte BIG_DECIMAL = 10;
+    private static final byte BIG_INTEGER = 11;
+    private static final byte TIMESTAMP = 12;
+    private static final byte SQL_DATE = 13;
+    private static final byte SQL_TIME = 14;
+    private static final byte DATE = 15;
+    private static final byte BYTES = 16;
+    private static final byte GENERIC = 17;
+
+    /** kryo instances are not thread safe, every duplicate owns its own copy */
+    private final KryoSerializer<Object> kryoSerializer;
+
+    public ColumnRowSerializer(ExecutionConfig executionConfig) {
+        this(new KryoSerializer<>(Object.class, executionConfig));
+    }
+
+    private ColumnRowSerializer(KryoSerializer<Object> kryoSerializer) {
+        this.kryoSerializer = kryoSerializer;
+    }
+
+    @Override
+    public boolean isImmutableType() {
+        return false;
+    }
+
+    @Override
+    public TypeSerializer<Row> duplicate() {
+        return new ColumnRowSerializer(kryoSerializer.duplicate());
+    }
+
+    @Override
+    public Row createInstance() {
+        return new Row(0);
+    }
+
+    @Override
+    public Row copy(Row from) {
+        Row row = new Row(from.getArity());
+        for (int i = 0; i < from.getArity(); i++) {
+            row.setField(i, copyField(from.getField(i)));
+        }
+        return row;
+    }
+
+    @Override
+    public Row copy(Row from, Row reuse) {
+        return copy(from);
+    }
+
+    @Override
+    public int getLength() {
+        return -1;
+    }
+
+    @Override
+    public void serialize(Row record, DataOutputView target) throws IOException {
+        int arity = record.getArity();
+        target.writeInt(arity);
+        for (int i = 0; i < arity; i++) {
+            serializeField(record.getField(i), target);
+        }
+    }
+
+    @Override
+    public Row deserialize(DataInputView source) throws IOException {
+        int arity = source.readInt();
+        Row row = new Row(arity);
+        for (int i = 0; i < arity; i++) {
+            row.setField(i, deserializeField(source));
+        }
+        return row;
+    }
+
+    @Override
+    public Row deserialize(Row reuse, DataInputView source) throws IOException {
+        return deserialize(source);
+    }
+
+    @Override
+    public void copy(DataInputView source, DataOutputView target) throws IOException {
+        serialize(deserialize(source), target);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof ColumnRowSerializer
+                && kryoSerializer.equals(((ColumnRowSerializer) obj).kryoSerializer);
+    }
+
+    @Override
+    public int hashCode() {
+        return kryoSerializer.hashCode();
+    }
+
+    @Override
+    public TypeSerializerSnapshot<Row> snapshotConfiguration() {
+        return new ColumnRowSerializerSnapshot(this);
+    }
+
+    private Object copyField(Object value) {
+        if (value == null) {
+            return null;
+        }
+
+        Class<?> clazz = value.getClass();
+        if (clazz == Timestamp.class) {
+            Timestamp timestamp = new Timestamp(((Timestamp) value).getTime());
+            timestamp.setNanos(((Timestamp) value).getNanos());
+            return timestamp;
+        } else if (clazz == java.sql.Date.class) {
+            return new java.sql.Date(((java.sql.Date) value).getTime());
+        } else if (clazz == Time.class) {
+            return new Time(((Time) value).getTime());
+        } else if (clazz == Date.class) {
+            return new Date(((Date) value).getTime());
+        } else if (clazz == byte[].class) {
+            return ((byte[]) value).clone();
+        } else if (tagOf(clazz) != GENERIC) {
+            return value;
+        }
+        return kryoSerializer.copy(value);
+    }
+
+    private void serializeField(Object value, DataOutputView target) throws IOException {
+        if (value == null) {
+            target.writeByte(NULL);
+            return;
+        }
+
+        byte tag = tagOf(value.getClass());
+        target.writeByte(tag);
+        switch (tag) {
+            case STRING:
+                StringValue.writeString((String) value, target);
+                break;
+            case INT:
+                target.writeInt((Integer) value);
+                break;
+            case LONG:
+                target.writeLong((Long) value);
+                break;
+            case DOUBLE:
+                target.writeDouble((Double) value);
+                break;
+            case FLOAT:
+                target.writeFloat((Float) value);
+                break;
+            case SHORT:
+                target.writeShort((Short) value);
+                break;
+            case BYTE:
+                target.writeByte((Byte) value);
+                break;
+            case BOOLEAN:
+                target.writeBoolean((Boolean) value);
+                break;
+            case CHAR:
+                target.writeChar((Character) value);
+                break;
+            case BIG_DECIMAL:
+                BigDecimal decimal = (BigDecimal) value;
+                writeBytes(decimal.unscaledValue().toByteArray(), target);
+                target.writeInt(decimal.scale());
+                break;
+            case BIG_INTEGER:
+                writeBytes(((BigInteger) value).toByteArray(), target);
+                break;
+            case TIMESTAMP:
+                target.writeLong(((Timestamp) value).getTime());
+                target.writeInt(((Timestamp) value).getNanos());
+                break;
+            case SQL_DATE:
+            case SQL_TIME:
+            case DATE:
+                target.writeLong(((Date) value).getTime());
+                break;
+            case BYTES:
+                writeBytes((byte[]) value, target);
+                break;
+            default:
+                kryoSerializer.serialize(value, target);
+                break;
+        }
+    }
+
+    private Object deserializeField(DataInputView source) throws IOException {
+        byte tag = source.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case STRING:
+                return StringValue.readString(source);
+            case INT:
+                return source.readInt();
+            case LONG:
+                return source.readLong();
+            case DOUBLE:
+                return source.readDouble();
+            case FLOAT:
+                return source.readFloat();
+            case SHORT:
+                return source.readShort();
+            case BYTE:
+                return source.readByte();
+            case BOOLEAN:
+                return source.readBoolean();
+            case CHAR:
+                return source.readChar();
+            case BIG_DECIMAL:
+                BigInteger unscaledValue = new BigInteger(readBytes(source));
+                return new BigDecimal(unscaledValue, source.readInt());
+            case BIG_INTEGER:
+                return new BigInteger(readBytes(source));
+            case TIMESTAMP:
+                Timestamp timestamp = new Timestamp(source.readLong());
+                timestamp.setNanos(source.readInt());
+                return timestamp;
+            case SQL_DATE:
+                return new java.sql.Date(source.readLong());
+            case SQL_TIME:
+                return new Time(source.readLong());
+            case DATE:
+                return new Date(source.readLong());
+            case BYTES:
+                return readBytes(source);
+            case GENERIC:
+                return kryoSerializer.deserialize(source);
+            default:
+                throw new IOException("Unknown field tag: " + tag);
+        }
+    }
+
+    /**
+     * Only exact classes get a tag, subclasses go through kryo so the deserialized object has the same class.
+     */
+    private static byte tagOf(Class<?> clazz) {
+        if (clazz == String.class) {
+            return STRING;
+        } else if (clazz == Integer.class) {
+            return INT;
+        } else if (clazz == Long.class) {
+            return LONG;
+        } else if (clazz == Double.class) {
+            return DOUBLE;
+        } else if (clazz == Float.class) {
+            return FLOAT;
+        } else if (clazz == Short.class) {
+            return SHORT;
+        } else if (clazz == Byte.class) {
+            return BYTE;
+        } else if (clazz == Boolean.class) {
+            return BOOLEAN;
+        } else if (clazz == Character.class) {
+            return CHAR;
+        } else if (clazz == BigDecimal.class) {
+            return BIG_DECIMAL;
+        } else if (clazz == BigInteger.class) {
+            return BIG_INTEGER;
+        } else if (clazz == Timestamp.class) {
+            return TIMESTAMP;
+        } else if (clazz == java.sql.Date.class) {
+            return SQL_DATE;
+        } else if (clazz == Time.class) {
+            return SQL_TIME;
+        } else if (clazz == Date.class) {
+            return DATE;
+        } else if (clazz == byte[].class) {
+            return BYTES;
+        }
+        return GENERIC;
+    }
+
+    private static void writeBytes(byte[] bytes, DataOutputView target) throws IOException {
+        target.writeInt(bytes.length);
+        target.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputView source) throws IOException {
+        byte[] bytes = new byte[source.readInt()];
+        source.readFully(bytes);
+        return bytes;
+    }
+
+    /**
+     * Snapshot of the serializer, the kryo serializer is nested so changes of the kryo registrations are checked
+     * by its own snapshot on restore.
+     */
+    public static final class ColumnRowSerializerSnapshot extends CompositeTypeSerializerSnapshot<Row, ColumnRowSerializer> {
+
+        private static final int CURRENT_VERSION = 1;
+
+        public ColumnRowSerializerSnapshot() {
+            super(ColumnRowSerializer.class);
+        }
+
+        ColumnRowSerializerSnapshot(ColumnRowSerializer serializer) {
+            super(serializer);
+        }
+
+        @Override
+        protected int getCurrentOuterSnapshotVersion() {
+            return CURRENT_VERSION;
+        }
+
+        @Override
+        protected TypeSerializer<?>[] getNestedSerializers(ColumnRowSerializer outerSerializer) {
+            return new TypeSerializer<?>[]{outerSerializer.kryoSerializer};
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected ColumnRowSerializer createOuterSerializerWithNestedSerializers(TypeSerializer<?>[] nestedSerializers) {
+            return new ColumnRowSerializer((KryoSerializer<Object>) nestedSerializers[0]);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.flinkx.reader;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.api.common.typeinfo.BasicTypeInfo;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.api.java.typeutils.GenericTypeInfo;
+import org.apache.flink.api.java.typeutils.RowTypeInfo;
+import org.apache.flink.types.Row;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Type information of the rows emitted by readers, derived from the configured columns.
+ *
+ * The last field is the channel index appended by BaseRichInputFormat. Rows are serialized by
+ * {@link ColumnRowSerializer} instead of kryo, which also accepts rows whose arity differs from the configuration.
+ */
+public class ColumnRowTypeInfo extends RowTypeInfo {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String CHANNEL_FIELD_NAME = "channel";
+
+    public ColumnRowTypeInfo(TypeInformation<?>[] types, String[] fieldNames) {
+        super(types, fieldNames);
+    }
+
+    public static ColumnRowTypeInfo of(List<MetaColumn> metaColumns) {
+        int size = metaColumns.size();
+        TypeInformation<?>[] types = new TypeInformation<?>[size + 1];
+        String[] fieldNames = new String[size + 1];
+        Set<String> usedNames = new HashSet<>();
+        for (int i = 0; i < size; i++) {
+            types[i] = new GenericTypeInfo<>(Object.class);
+            fieldNames[i] = uniqueName(metaColumns.get(i).getName(), i, usedNames);
+        }
+        types[size] = BasicTypeInfo.INT_TYPE_INFO;
+        fieldNames[size] = uniqueName(CHANNEL_FIELD_NAME, size, usedNames);
+
+        return new ColumnRowTypeInfo(types, fieldNames);
+    }
+
+    private static String uniqueName(String name, int index, Set<String> usedNames) {
+        if (StringUtils.isBlank(name) || usedNames.contains(name)) {
+            name = "f" + index;
+        }
+        while (!usedNames.add(name)) {
+            name = "_" + name;
+        }
+        return name;
+    }
+
+    @Override
+    public TypeSerializer<Row> createSerializer(ExecutionConfig config) {
+        return new ColumnRowSerializer(config);
+    }
+
+    @Override
+    public boolean canEqual(Object obj) {
+        return obj instanceof ColumnRowTypeInfo;
+    }
+
+    @Override
+    public String toString() {
+        return "Column" + super.toString();
+    }
+}
@@ -37,6 +37,7 @@ import org.apache.flink.metrics.Counter;
 import org.apache.flink.runtime.jobgraph.tasks.InputSplitProvider;
 import org.apache.flink.runtime.jobgraph.tasks.InputSplitProviderException;
 import org.apache.flink.runtime.state.FunctionInitializationContext;
+import org.apache.flink.runtime.state.CheckpointListener;
 import org.apache.flink.runtime.state.FunctionSnapshotContext;
 import org.apache.flink.streaming.api.checkpoint.CheckpointedFunction;
 import org.apache.flink.streaming.api.functions.source.InputFormatSourceFunction;
@@ -55,7 +56,7 @@ import java.util.NoSuchElementException;
  * @author jiangbo
  */
 @Internal
-public class DtInputFormatSourceFunction<OUT> extends InputFormatSourceFunction<OUT> implements CheckpointedFunction {
+public class DtInputFormatSourceFunction<OUT> extends InputFormatSourceFunction<OUT> implements CheckpointedFunction, CheckpointListener {
 	private static final long serialVersionUID = 1L;
 
     private static final Logger LOG = LoggerFactory.getLogger(DtInputFormatSourceFunction.class);
@@ -132,13 +133,17 @@ public class DtInputFormatSourceFunction<OUT> extends InputFormatSourceFunction<
 				    if(isStream){
                         nextElement = format.nextRecord(nextElement);
                         if (nextElement != null) {
-                            ctx.collect(nextElement);
+                            synchronized (ctx.getCheckpointLock()){
+                                ctx.collect(nextElement);
+                                afterCollect();
+                            }
                         }
                     } else {
                         synchronized (ctx.getCheckpointLock()){
                             nextElement = format.nextRecord(nextElement);
                             if (nextElement != null) {
                                 ctx.collect(nextElement);
+                                afterCollect();
                             }
                         }
                     }
@@ -174,6 +179,12 @@ public class DtInputFormatSourceFunction<OUT> extends InputFormatSourceFunction<
 		}
 	}
 
+	private void afterCollect() {
+		if (format instanceof BaseRichInputFormat) {
+			((BaseRichInputFormat) format).afterCollect();
+		}
+	}
+
 	@Override
 	public void cancel() {
 		isRunning = false;
@@ -256,6 +267,12 @@ public class DtInputFormatSourceFunction<OUT> extends InputFormatSourceFunction<
             unionOffsetStates.clear();
             unionOffsetStates.add(formatState);
         }
+        ((BaseRichInputFormat) format).snapshotState(context.getCheckpointId());
+	}
+
+	@Override
+	public void notifyCheckpointComplete(long checkpointId) throws Exception {
+		((BaseRichInputFormat) format).notifyCheckpointComplete(checkpointId);
 	}
 
 	@Override
@@ -0,0 +1,233 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.flinkx.util;
+
+import com.dtstack.flinkx.enums.ColumnType;
+import com.dtstack.flinkx.reader.MetaColumn;
+
+import java.sql.Timestamp;
+import java.text.SimpleDateFormat;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 字符串到字段值的转换器，每个字段根据配置的类型和时间格式创建一次，读取数据时不用再解析类型字符串
+ *
+ * 转换结果和{@link StringUtil#string2col(String, ColumnType, SimpleDateFormat)}一致。
+ * 自定义时间格式会被复制一份，实例不是线程安全的，每个通道要单独创建
+ */
+public class ColumnConverter {
+
+    /**
+     * 不超过这个位数的整数一定不会超出long的范围，可以直接按字符计算
+     */
+    private static final int MAX_FAST_DIGITS = 18;
+
+    /**
+     * SimpleDateFormat使用儒略历和格里高利历的混合历法，这一年之前的日期和DateTimeFormatter的结果不同
+     */
+    private static final int GREGORIAN_START_YEAR = 1583;
+
+    private final ColumnType columnType;
+
+    private final Function<String, Object> function;
+
+    private ColumnConverter(ColumnType columnType, Function<String, Object> function) {
+        this.columnType = columnType;
+        this.function = function;
+    }
+
+    public static ColumnConverter of(MetaColumn metaColumn) {
+        return of(metaColumn.getType(), metaColumn.getTimeFormat());
+    }
+
+    public static ColumnConverter of(String type, SimpleDateFormat customTimeFormat) {
+        return of(type == null ? null : ColumnType.getType(type), customTimeFormat);
+    }
+
+    public static ColumnConverter of(ColumnType columnType, SimpleDateFormat customTimeFormat) {
+        if (columnType == null) {
+            return new ColumnConverter(null, str -> str);
+        }
+
+        switch (columnType) {
+            case TINYINT:
+                return new ColumnConverter(columnType,
+                        str -> (byte) parseLong(str, Byte.MIN_VALUE, Byte.MAX_VALUE, Byte::valueOf));
+            case SMALLINT:
+                return new ColumnConverter(columnType,
+                        str -> (short) parseLong(str, Short.MIN_VALUE, Short.MAX_VALUE, Short::valueOf));
+            case INT:
+            case INTEGER:
+                return new ColumnConverter(columnType,
+                        str -> (int) parseLong(str, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer::valueOf));
+            case MEDIUMINT:
+            case BIGINT:
+                return new ColumnConverter(columnType,
+                        str -> parseLong(str, Long.MIN_VALUE, Long.MAX_VALUE, Long::valueOf));
+            case FLOAT:
+                return new ColumnConverter(columnType, str -> Float.valueOf(str.trim()));
+            case DOUBLE:
+                return new ColumnConverter(columnType, str -> Double.valueOf(str.trim()));
+            case STRING:
+            case VARCHAR:
+            case CHAR:
+                if (customTimeFormat == null) {
+                    return new ColumnConverter(columnType, str -> str);
+                }
+                DateParser stringParser = new DateParser(customTimeFormat);
+                return new ColumnConverter(columnType, str -> {
+                    Date date = stringParser.parse(str);
+                    return date == null ? null : DateUtil.timestampToString(date);
+                });
+            case BOOLEAN:
+                // Boolean.valueOf本身忽略大小写
+                return new ColumnConverter(columnType, str -> Boolean.valueOf(str.trim()));
+            case DATE:
+                DateParser dateParser = new DateParser(customTimeFormat);
+                return new ColumnConverter(columnType, str -> {
+                    Date date = dateParser.parse(str);
+                    return date == null ? null : new java.sql.Date(date.getTime());
+                });
+            case TIMESTAMP:
+            case DATETIME:
+                DateParser timestampParser = new DateParser(customTimeFormat);
+                return new ColumnConverter(columnType, str -> {
+                    Date date = timestampParser.parse(str);
+                    return date == null ? null : new Timestamp(date.getTime());
+                });
+            default:
+                return new ColumnConverter(columnType, str -> str);
+        }
+    }
+
+    public static ColumnConverter[] of(List<MetaColumn> metaColumns) {
+        ColumnConverter[] converters = new ColumnConverter[metaColumns.size()];
+        for (int i = 0; i < converters.length; i++) {
+            converters[i] = of(metaColumns.get(i));
+        }
+        return converters;
+    }
+
+    /**
+     * 转换字段值
+     *
+     * @param str 字段值
+     * @return null和空字符串原样返回
+     */
+    public Object convert(String str) {
+        if (str == null || str.length() == 0) {
+            return str;
+        }
+        return function.apply(str);
+    }
+
+    public ColumnType getColumnType() {
+        return columnType;
+    }
+
+    /**
+     * 解析去掉首尾空白后的十进制整数，不创建新的字符串；
+     * 位数过多、包含其它字符或超出范围时交给JDK解析，抛出和原来相同的异常
+     */
+    static long parseLong(String str, long min, long max, Function<String, ? extends Number> jdkParser) {
+        int begin = 0;
+        int end = str.length();
+        while (begin < end && str.charAt(begin) <= ' ') {
+            begin++;
+        }
+        while (end > begin && str.charAt(end - 1) <= ' ') {
+            end--;
+        }
+
+        int i = begin;
+        boolean negative = false;
+        if (i < end && (str.charAt(i) == '-' || str.charAt(i) == '+')) {
+            negative = str.charAt(i) == '-';
+            i++;
+        }
+
+        if (i < end && end - i <= MAX_FAST_DIGITS) {
+            long value = 0;
+            for (; i < end; i++) {
+                int digit = str.charAt(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    break;
+                }
+                value = value * 10 + digit;
+            }
+
+            if (i == end) {
+                value = negative ? -value : value;
+                if (value >= min && value <= max) {
+                    return value;
+                }
+            }
+        }
+
+        return jdkParser.apply(str.trim()).longValue();
+    }
+
+    /**
+     * 先用缓存的DateTimeFormatter严格解析配置的格式，没有配置时解析标准的日期时间格式，
+     * 解析失败时按{@link DateUtil#stringToDate(String, SimpleDateFormat)}的顺序依次尝试各种格式
+     */
+    private static class DateParser {
+
+        private final SimpleDateFormat customTimeFormat;
+
+        private final DateTimeFormatter formatter;
+
+        private final ZoneId zoneId;
+
+        DateParser(SimpleDateFormat customTimeFormat) {
+            if (customTimeFormat != null) {
+                this.customTimeFormat = (SimpleDateFormat) customTimeFormat.clone();
+                this.formatter = DateUtil.getStrictFormatter(customTimeFormat.toPattern());
+                this.zoneId = customTimeFormat.getTimeZone().toZoneId();
+            } else {
+                this.customTimeFormat = null;
+                this.formatter = DateUtil.getStrictFormatter(DateUtil.STANDARD_DATETIME_PATTERN);
+                this.zoneId = DateUtil.getTimeZone().toZoneId();
+            }
+        }
+
+        Date parse(String str) {
+            if (formatter != null) {
+                // 和DateUtil.stringToDate一样忽略第一个小数点之后的内容
+                int dotIndex = str.indexOf('.');
+                String text = dotIndex < 0 ? str : str.substring(0, dotIndex);
+                try {
+                    LocalDateTime dateTime = LocalDateTime.parse(text, formatter);
+                    if (dateTime.getYear() >= GREGORIAN_START_YEAR) {
+                        return new Date(dateTime.atZone(zoneId).toInstant().toEpochMilli());
+                    }
+                } catch (DateTimeException ignored) {
+                }
+            }
+
+            return DateUtil.stringToDate(str, customTimeFormat);
+        }
+    }
+}
@@ -23,11 +23,17 @@ import org.apache.commons.lang3.StringUtils;
 import java.sql.Timestamp;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.ResolverStyle;
+import java.time.temporal.ChronoField;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 /**
@@ -65,12 +71,19 @@ public class DateUtil {
     public final static int LENGTH_MICROSECOND = 16;
     public final static int LENGTH_NANOSECOND = 19;
 
+    public final static String STANDARD_DATETIME_PATTERN = "yyyy-MM-dd HH:mm:ss";
+
+    /**
+     * DateTimeFormatter没有可变状态，同一个模式的所有线程共用一个实例
+     */
+    private static final Map<String, Optional<DateTimeFormatter>> STRICT_FORMATTERS = new ConcurrentHashMap<>();
+
     public static ThreadLocal<Map<String,SimpleDateFormat>> datetimeFormatter = ThreadLocal.withInitial(() -> {
             TimeZone timeZone = TimeZone.getTimeZone(TIME_ZONE);
 
             Map<String, SimpleDateFormat> formatterMap = new HashMap<>();
 
-            SimpleDateFormat standardDatetimeFormatter = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+            SimpleDateFormat standardDatetimeFormatter = new SimpleDateFormat(STANDARD_DATETIME_PATTERN);
             standardDatetimeFormatter.setTimeZone(timeZone);
             formatterMap.put(STANDARD_DATETIME_FORMAT,standardDatetimeFormatter);
 
@@ -263,6 +276,105 @@ public class DateUtil {
         return sdf;
     }
 
+    public static TimeZone getTimeZone(){
+        return TimeZone.getTimeZone(TIME_ZONE);
+    }
+
+    /**
+     * 获取SimpleDateFormat模式对应的严格解析的DateTimeFormatter，同一个模式只创建一次
+     *
+     * 只支持数字形式的年月日时分秒和三位毫秒，严格解析成功时结果和SimpleDateFormat一致，
+     * 解析失败时应该交给SimpleDateFormat兜底，缺少的字段按1970-01-01 00:00:00补齐
+     *
+     * @param pattern SimpleDateFormat的模式
+     * @return 模式中有不支持的字母时返回null
+     */
+    public static DateTimeFormatter getStrictFormatter(String pattern){
+        return STRICT_FORMATTERS.computeIfAbsent(pattern, key -> {
+            String strictPattern = toStrictPattern(key);
+            if (strictPattern == null) {
+                return Optional.empty();
+            }
+
+            return Optional.of(new DateTimeFormatterBuilder()
+                    .appendPattern(strictPattern)
+                    .parseDefaulting(ChronoField.YEAR, 1970)
+                    .parseDefaulting(ChronoField.MONTH_OF_YEAR, 1)
+                    .parseDefaulting(ChronoField.DAY_OF_MONTH, 1)
+                    .parseDefaulting(ChronoField.HOUR_OF_DAY, 0)
+                    .parseDefaulting(ChronoField.MINUTE_OF_HOUR, 0)
+                    .parseDefaulting(ChronoField.SECOND_OF_MINUTE, 0)
+                    .parseDefaulting(ChronoField.NANO_OF_SECOND, 0)
+                    .toFormatter()
+                    .withResolverStyle(ResolverStyle.STRICT));
+        }).orElse(null);
+    }
+
+    /**
+     * 两种模式的引号转义规则相同，引号中的内容原样保留；年份换成不依赖纪元的u，
+     * 两位年份、文本月份、12小时制、时区等解析规则不同的字母都不支持
+     */
+    static String toStrictPattern(String pattern){
+        StringBuilder sb = new StringBuilder(pattern.length());
+        boolean inQuote = false;
+        int i = 0;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                inQuote = !inQuote;
+                sb.append(c);
+                i++;
+                continue;
+            }
+
+            if (inQuote || !Character.isLetter(c)) {
+                if (!inQuote && "[]{}#".indexOf(c) >= 0) {
+                    return null;
+                }
+                sb.append(c);
+                i++;
+                continue;
+            }
+
+            int count = 1;
+            while (i + count < pattern.length() && pattern.charAt(i + count) == c) {
+                count++;
+            }
+
+            switch (c) {
+                case 'y':
+                    if (count == 2) {
+                        return null;
+                    }
+                    c = 'u';
+                    break;
+                case 'M':
+                case 'd':
+                case 'H':
+                case 'm':
+                case 's':
+                    if (count > 2) {
+                        return null;
+                    }
+                    break;
+                case 'S':
+                    if (count != 3) {
+                        return null;
+                    }
+                    break;
+                default:
+                    return null;
+            }
+
+            for (int j = 0; j < count; j++) {
+                sb.append(c);
+            }
+            i += count;
+        }
+
+        return inQuote ? null : sb.toString();
+    }
+
     /**
      * 常规自动日期格式识别
      * @param str 时间字符串
@@ -82,7 +82,22 @@ public class StringUtil {
             return str;
         }
 
-        ColumnType columnType = ColumnType.getType(type.toUpperCase());
+        return string2col(str, ColumnType.getType(type), customTimeFormat);
+    }
+
+    /**
+     * 字段类型已经解析过时使用，避免每条数据都解析一次类型字符串
+     *
+     * @param str 字段值
+     * @param columnType 字段类型，为null时直接返回原值
+     * @param customTimeFormat 自定义时间格式
+     * @return 转换后的值
+     */
+    public static Object string2col(String str, ColumnType columnType, SimpleDateFormat customTimeFormat) {
+        if(str == null || str.length() == 0 || columnType == null){
+            return str;
+        }
+
         Object ret;
         switch(columnType) {
             case TINYINT:
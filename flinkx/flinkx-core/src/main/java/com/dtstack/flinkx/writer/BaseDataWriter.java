@@ -21,6 +21,7 @@ package com.dtstack.flinkx.writer;
 import com.dtstack.flinkx.config.DataTransferConfig;
 import com.dtstack.flinkx.config.DirtyConfig;
 import com.dtstack.flinkx.config.RestoreConfig;
+import com.dtstack.flinkx.outputformat.BaseRichOutputFormat;
 import com.dtstack.flinkx.reader.MetaColumn;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -62,6 +63,9 @@ public abstract class BaseDataWriter {
 
     protected List<String> srcCols = new ArrayList<>();
 
+    /** 多管道任务中所属管道的名称，单管道任务为null */
+    protected String pipelineName;
+
     protected static ObjectMapper objectMapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
 
     public List<String> getSrcCols() {
@@ -74,6 +78,7 @@ public abstract class BaseDataWriter {
 
     public BaseDataWriter(DataTransferConfig config) {
         this.monitorUrls = config.getMonitorUrls();
+        this.pipelineName = config.getPipelineName();
         this.restoreConfig = config.getJob().getSetting().getRestoreConfig();
         this.errors = config.getJob().getSetting().getErrorLimit().getRecord();
         this.errorTryPlan = config.getJob().getSetting().getErrorLimit().getTryPlan();
@@ -170,6 +175,13 @@ public abstract class BaseDataWriter {
         Preconditions.checkNotNull(sinkName);
         Preconditions.checkNotNull(outputFormat);
 
+        if (StringUtils.isNotEmpty(pipelineName)) {
+            sinkName = pipelineName + "_" + sinkName;
+            if (outputFormat instanceof BaseRichOutputFormat) {
+                ((BaseRichOutputFormat) outputFormat).setPipelineName(pipelineName);
+            }
+        }
+
         DtOutputFormatSinkFunction sinkFunction = new DtOutputFormatSinkFunction(outputFormat);
         DataStreamSink<?> dataStreamSink = dataSet.addSink(sinkFunction);
         dataStreamSink.name(sinkName);
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.flinkx.reader;
+
+import com.google.common.base.Ticker;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+public class ByteRateLimiterTest {
+
+    private static final double EXPECTED_BYTES_PER_SECOND = 1024 * 1024;
+
+    @Test
+    public void testRateWithSkewedRecords() {
+        FakeTicker ticker = new FakeTicker();
+        ByteRateLimiter limiter = new ByteRateLimiter(null, EXPECTED_BYTES_PER_SECOND, 1, ticker, ticker::advance);
+
+        Random random = new Random(42);
+        long totalBytes = 0;
+        long end = TimeUnit.SECONDS.toNanos(30);
+        while (ticker.read() < end) {
+            limiter.acquire();
+            long bytes = random.nextInt(10) == 0 ? 20 * 1024 + random.nextInt(60 * 1024) : 50 + random.nextInt(150);
+            limiter.consume(bytes);
+            totalBytes += bytes;
+        }
+
+        double rate = totalBytes / (ticker.read() / 1_000_000_000.0);
+        Assert.assertEquals(EXPECTED_BYTES_PER_SECOND, rate, EXPECTED_BYTES_PER_SECOND * 0.02);
+    }
+
+    @Test
+    public void testRateAfterSetRate() {
+        FakeTicker ticker = new FakeTicker();
+        ByteRateLimiter limiter = new ByteRateLimiter(null, EXPECTED_BYTES_PER_SECOND, 4, ticker, ticker::advance);
+        Assert.assertEquals(EXPECTED_BYTES_PER_SECOND / 4, limiter.getRate(), 0.001);
+
+        limiter.setRate(EXPECTED_BYTES_PER_SECOND / 2);
+        long start = ticker.read();
+        long totalBytes = 0;
+        while (ticker.read() - start < TimeUnit.SECONDS.toNanos(20)) {
+            limiter.acquire();
+            limiter.consume(1000);
+            totalBytes += 1000;
+        }
+
+        double rate = totalBytes / ((ticker.read() - start) / 1_000_000_000.0);
+        Assert.assertEquals(EXPECTED_BYTES_PER_SECOND / 2, rate, EXPECTED_BYTES_PER_SECOND / 2 * 0.02);
+    }
+
+    @Test
+    public void testComputeShare() {
+        Assert.assertEquals(0.25, ByteRateLimiter.computeShare(0, 0, 4), 0.0001);
+        Assert.assertEquals(0.125, ByteRateLimiter.computeShare(0, 1000, 4), 0.0001);
+        Assert.assertEquals(0.625, ByteRateLimiter.computeShare(1000, 1000, 4), 0.0001);
+        Assert.assertEquals(0.625, ByteRateLimiter.computeShare(2000, 1000, 4), 0.0001);
+    }
+
+    @Test
+    public void testShareConvergesWhenAllChannelsAreBusy() {
+        double first = 0.9;
+        double second = 0.1;
+        for (int i = 0; i < 20; i++) {
+            long firstBytes = (long) (first * 100000);
+            long secondBytes = (long) (second * 100000);
+            first = ByteRateLimiter.computeShare(firstBytes, firstBytes + secondBytes, 2);
+            second = ByteRateLimiter.computeShare(secondBytes, firstBytes + secondBytes, 2);
+        }
+
+        Assert.assertEquals(0.5, first, 0.001);
+        Assert.assertEquals(0.5, second, 0.001);
+    }
+
+    private static class FakeTicker extends Ticker {
+
+        private long nanos;
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+
+        void advance(long delta) {
+            nanos += delta;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.flinkx.reader;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.api.common.typeutils.TypeSerializerSchemaCompatibility;
+import org.apache.flink.api.common.typeutils.TypeSerializerSnapshot;
+import org.apache.flink.core.memory.DataInputDeserializer;
+import org.apache.flink.core.memory.DataOutputSerializer;
+import org.apache.flink.types.Row;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+
+public class ColumnRowSerializerTest {
+
+    @Test
+    public void testSerializeRoundTrip() throws Exception {
+        Timestamp timestamp = new Timestamp(1600000000123L);
+        timestamp.setNanos(123456789);
+
+        Row row = Row.of("val", 1, 2L, 3.5D, 4.5F, (short) 5, (byte) 6, true, 'c',
+                new BigDecimal("-12345678901234567890.123"), new BigInteger("98765432109876543210"),
+                timestamp, new java.sql.Date(1600000000000L), new Time(3600000L), new Date(1600000000000L),
+                new byte[]{1, 2, 3}, new HashMap<>(Collections.singletonMap("k", "v")), null);
+
+        Row result = roundTrip(row);
+        Assert.assertEquals(row.getArity(), result.getArity());
+        for (int i = 0; i < row.getArity(); i++) {
+            if (row.getField(i) instanceof byte[]) {
+                Assert.assertArrayEquals((byte[]) row.getField(i), (byte[]) result.getField(i));
+            } else {
+                Assert.assertEquals(row.getField(i), result.getField(i));
+            }
+            if (row.getField(i) != null) {
+                Assert.assertEquals(row.getField(i).getClass(), result.getField(i).getClass());
+            }
+        }
+    }
+
+    @Test
+    public void testArityNotFromTypeInfo() throws Exception {
+        ColumnRowTypeInfo typeInfo = ColumnRowTypeInfo.of(MetaColumn.getMetaColumns(Arrays.asList("id", "name")));
+        Assert.assertEquals(3, typeInfo.getArity());
+
+        Row row = Row.of("a", "b", "c", "d", 0);
+        Assert.assertEquals(row, roundTrip(row));
+    }
+
+    @Test
+    public void testCopy() {
+        Timestamp timestamp = new Timestamp(1600000000123L);
+        Row row = Row.of(timestamp, "val");
+
+        Row copy = new ColumnRowSerializer(new ExecutionConfig()).copy(row);
+        Assert.assertEquals(row, copy);
+        Assert.assertNotSame(timestamp, copy.getField(0));
+    }
+
+    @Test
+    public void testKryoUsesExecutionConfig() throws Exception {
+        ExecutionConfig config = new ExecutionConfig();
+        config.addDefaultKryoSerializer(Marker.class, MarkerSerializer.class);
+        TypeSerializer<Row> serializer = ColumnRowTypeInfo.of(MetaColumn.getMetaColumns(Collections.singletonList("m")))
+                .createSerializer(config);
+
+        Row result = roundTrip(serializer, Row.of(new Marker("origin"), 0));
+        Assert.assertEquals(MarkerSerializer.VALUE, ((Marker) result.getField(0)).value);
+        Assert.assertEquals(0, result.getField(1));
+    }
+
+    @Test
+    public void testSnapshotCompatibility() throws Exception {
+        ExecutionConfig config = new ExecutionConfig();
+        config.registerKryoType(Marker.class);
+        ColumnRowSerializer serializer = new ColumnRowSerializer(config);
+
+        DataOutputSerializer output = new DataOutputSerializer(64);
+        TypeSerializerSnapshot.writeVersionedSnapshot(output, serializer.snapshotConfiguration());
+        DataInputDeserializer input = new DataInputDeserializer(output.getSharedBuffer(), 0, output.length());
+        TypeSerializerSnapshot<Row> snapshot = TypeSerializerSnapshot.readVersionedSnapshot(input, getClass().getClassLoader());
+
+        TypeSerializerSchemaCompatibility<Row> compatibility =
+                snapshot.resolveSchemaCompatibility(new ColumnRowSerializer(config));
+        Assert.assertTrue(compatibility.isCompatibleAsIs());
+
+        TypeSerializer<Row> restored = snapshot.restoreSerializer();
+        Assert.assertEquals(serializer, restored);
+
+        Row row = Row.of("val", new Marker("m"), 0);
+        Row result = roundTrip(restored, row);
+        Assert.assertEquals("val", result.getField(0));
+        Assert.assertEquals("m", ((Marker) result.getField(1)).value);
+    }
+
+    @Test
+    public void testDuplicate() {
+        ColumnRowSerializer serializer = new ColumnRowSerializer(new ExecutionConfig());
+        TypeSerializer<Row> duplicate = serializer.duplicate();
+        Assert.assertNotSame(serializer, duplicate);
+        Assert.assertEquals(serializer, duplicate);
+    }
+
+    private Row roundTrip(Row row) throws Exception {
+        return roundTrip(new ColumnRowSerializer(new ExecutionConfig()), row);
+    }
+
+    private Row roundTrip(TypeSerializer<Row> serializer, Row row) throws Exception {
+        DataOutputSerializer output = new DataOutputSerializer(64);
+        serializer.serialize(row, output);
+
+        DataInputDeserializer input = new DataInputDeserializer(output.getSharedBuffer(), 0, output.length());
+        return serializer.deserialize(input);
+    }
+
+    public static class Marker {
+        private String value;
+
+        public Marker() {
+        }
+
+        Marker(String value) {
+            this.value = value;
+        }
+    }
+
+    /**
+     * writes nothing and always reads the same value, so a row that went through it shows the config was used
+     */
+    public static class MarkerSerializer extends Serializer<Marker> {
+        static final String VALUE = "from-config";
+
+        @Override
+        public void write(Kryo kryo, Output output, Marker object) {
+        }
+
+        @Override
+        public Marker read(Kryo kryo, Input input, Class<Marker> type) {
+            return new Marker(VALUE);
+        }
+    }
+}
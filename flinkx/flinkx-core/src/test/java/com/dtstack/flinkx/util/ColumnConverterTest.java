@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.flinkx.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.List;
+
+public class ColumnConverterTest {
+
+    @Test
+    public void testSameAsString2col() {
+        List<String> types = Arrays.asList("tinyint", "smallint", "int", "integer", "mediumint", "bigint(20)",
+                "int unsigned", "float", "double", "decimal", "string", "varchar", "boolean", "date", "timestamp",
+                "datetime", "unknown");
+        List<String> values = Arrays.asList(null, "", "0", "1", " 12 ", "-128", "+127", "128", "-32768", "2147483647",
+                "-2147483648", "9223372036854775807", "-9223372036854775808", "1.5", "1e3", "value", "true", " TRUE ",
+                "False", "2020-03-12 17:44:12", "2020-03-12 17:44:12.123", "2020-03-12", "20200312174412",
+                "2020-02-30 10:00:00", "0001-01-01 00:00:00", "17:44:12", "2020");
+
+        for (String type : types) {
+            ColumnConverter converter = ColumnConverter.of(type, null);
+            for (String value : values) {
+                assertSameResult(converter, value, type, null);
+            }
+        }
+    }
+
+    @Test
+    public void testSameAsString2colWithCustomFormat() {
+        List<String> patterns = Arrays.asList("yyyyMMdd-HHmmss", "yyyy/MM/dd", "dd/MM/yyyy HH:mm", "yyyyMMddHHmmssSSS",
+                "yy-MM-dd", "yyyy-MM-dd'T'HH:mm:ss");
+        List<String> values = Arrays.asList("20200312-174412", "2020/03/12", "12/03/2020 17:44", "20200312174412123",
+                "20-03-12", "2020-03-12T17:44:12", "2020-03-12 17:44:12", "1583-01-01T00:00:00", "bad");
+
+        for (String pattern : patterns) {
+            for (String type : Arrays.asList("date", "timestamp", "string")) {
+                ColumnConverter converter = ColumnConverter.of(type, DateUtil.buildDateFormatter(pattern));
+                for (String value : values) {
+                    assertSameResult(converter, value, type, DateUtil.buildDateFormatter(pattern));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testToStrictPattern() {
+        Assert.assertEquals("uuuu-MM-dd HH:mm:ss", DateUtil.toStrictPattern("yyyy-MM-dd HH:mm:ss"));
+        Assert.assertEquals("uuuu-MM-dd'T'HH:mm:ss.SSS", DateUtil.toStrictPattern("yyyy-MM-dd'T'HH:mm:ss.SSS"));
+        Assert.assertEquals("d/M/uuuu", DateUtil.toStrictPattern("d/M/yyyy"));
+        Assert.assertEquals("'at '''HH", DateUtil.toStrictPattern("'at '''HH"));
+        Assert.assertNull(DateUtil.toStrictPattern("yy-MM-dd"));
+        Assert.assertNull(DateUtil.toStrictPattern("yyyy-MMM-dd"));
+        Assert.assertNull(DateUtil.toStrictPattern("yyyy-MM-dd hh:mm a"));
+        Assert.assertNull(DateUtil.toStrictPattern("yyyy-MM-dd HH:mm:ss.SS"));
+        Assert.assertNull(DateUtil.toStrictPattern("yyyy-MM-dd HH:mm:ssZ"));
+        Assert.assertNull(DateUtil.toStrictPattern("[yyyy]"));
+    }
+
+    @Test
+    public void testParseLong() {
+        Assert.assertEquals(123L, ColumnConverter.parseLong(" 123\t", Integer.MIN_VALUE, Integer.MAX_VALUE, Integer::valueOf));
+        Assert.assertEquals(-5L, ColumnConverter.parseLong("-5", Byte.MIN_VALUE, Byte.MAX_VALUE, Byte::valueOf));
+        Assert.assertEquals(Long.MAX_VALUE, ColumnConverter.parseLong("9223372036854775807", Long.MIN_VALUE, Long.MAX_VALUE, Long::valueOf));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testParseLongOutOfRange() {
+        ColumnConverter.parseLong("128", Byte.MIN_VALUE, Byte.MAX_VALUE, Byte::valueOf);
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testParseLongOnlySign() {
+        ColumnConverter.parseLong("-", Integer.MIN_VALUE, Integer.MAX_VALUE, Integer::valueOf);
+    }
+
+    private void assertSameResult(ColumnConverter converter, String value, String type, SimpleDateFormat format) {
+        Object expected;
+        try {
+            expected = StringUtil.string2col(value, type, format);
+        } catch (RuntimeException e) {
+            try {
+                converter.convert(value);
+                Assert.fail("expected " + e.getClass().getSimpleName() + " for value [" + value + "] of type " + type);
+            } catch (RuntimeException actual) {
+                Assert.assertEquals(e.getClass(), actual.getClass());
+            }
+            return;
+        }
+
+        Object actual = converter.convert(value);
+        String message = "value [" + value + "] of type " + type;
+        Assert.assertEquals(message, expected, actual);
+        if (expected != null) {
+            Assert.assertEquals(message, expected.getClass(), actual.getClass());
+        }
+    }
+}
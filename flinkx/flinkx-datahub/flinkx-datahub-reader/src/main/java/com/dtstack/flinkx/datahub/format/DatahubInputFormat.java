@@ -10,7 +10,7 @@ import com.dtstack.flinkx.inputformat.BaseRichInputFormat;
 import com.dtstack.flinkx.reader.MetaColumn;
 import com.dtstack.flinkx.restore.FormatState;
 import com.dtstack.flinkx.util.ExceptionUtil;
-import com.dtstack.flinkx.util.StringUtil;
+import com.dtstack.flinkx.util.ColumnConverter;
 import org.apache.commons.collections.MapUtils;
 import org.apache.flink.core.io.InputSplit;
 import org.apache.flink.types.Row;
@@ -31,6 +31,7 @@ public class DatahubInputFormat extends BaseRichInputFormat {
     public String subscriptionId;
     public Integer fetchSize;
     public List<MetaColumn> metaColumns;
+    protected transient ColumnConverter[] columnConverters;
 
     protected transient BlockingQueue<Row> queue;
     protected Map<String, Object> stateMap;
@@ -64,6 +65,7 @@ public class DatahubInputFormat extends BaseRichInputFormat {
             decode = new TextDecoder();
         }
 
+        columnConverters = ColumnConverter.of(metaColumns);
         consumer = new DataHubConsumer(endpoint, accessId, accessKey, project, topic, subscriptionId, fetchSize);
     }
 
@@ -107,7 +109,7 @@ public class DatahubInputFormat extends BaseRichInputFormat {
             for (int i = 0; i < metaColumns.size(); i++) {
                 MetaColumn metaColumn = metaColumns.get(i);
                 Object value = rowValueMap.get(metaColumn.getName());
-                Object obj = StringUtil.string2col(String.valueOf(value), metaColumn.getType(), metaColumn.getTimeFormat());
+                Object obj = columnConverters[i].convert(String.valueOf(value));
                 row.setField(i, obj);
             }
             queue.put(row);
@@ -58,4 +58,18 @@ public class EsConfigKeys {
 
     public static final String KEY_PATH_PREFIX = "pathPrefix";
 
+    public static final String KEY_SLICE_COUNT = "sliceCount";
+
+    public static final String KEY_PREFETCH_PAGES = "prefetchPages";
+
+    public static final String KEY_READ_MODE = "readMode";
+
+    public static final String READ_MODE_SCROLL = "scroll";
+
+    public static final String READ_MODE_SEARCH_AFTER = "searchAfter";
+
+    public static final String KEY_SORT_FIELD = "sortField";
+
+    public static final String DEFAULT_SORT_FIELD = "_id";
+
 }
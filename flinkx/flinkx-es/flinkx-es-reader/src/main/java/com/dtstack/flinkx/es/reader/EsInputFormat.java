@@ -18,10 +18,11 @@
 
 package com.dtstack.flinkx.es.reader;
 
+import com.dtstack.flinkx.es.EsConfigKeys;
 import com.dtstack.flinkx.es.EsUtil;
 import com.dtstack.flinkx.inputformat.BaseRichInputFormat;
-import com.google.common.collect.Lists;
 import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.apache.flink.core.io.GenericInputSplit;
 import org.apache.flink.core.io.InputSplit;
 import org.apache.flink.types.Row;
@@ -37,20 +38,33 @@ import org.elasticsearch.search.Scroll;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.slice.SliceBuilder;
+import org.elasticsearch.search.sort.SortOrder;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * InputFormat for Elasticsearch
  *
+ * 分页数据由后台线程预先拉取，当前页的数据转换和下一页的请求可以同时进行，预取的页数由prefetchPages限制
+ *
  * Company: www.dtstack.com
  * @author huyifan.zju@163.com
  */
 public class EsInputFormat extends BaseRichInputFormat {
 
+    private static final long PREFETCH_SHUTDOWN_TIMEOUT_SECONDS = 10L;
+
     protected String address;
 
     protected String username;
@@ -75,6 +89,24 @@ public class EsInputFormat extends BaseRichInputFormat {
 
     protected long keepAlive = 1;
 
+    /**
+     * 分片数量，小于等于0时和并行度一致
+     */
+    protected int sliceCount;
+
+    /**
+     * 后台预取的页数，小于等于0时不预取
+     */
+    protected int prefetchPages = 1;
+
+    protected String readMode = EsConfigKeys.READ_MODE_SCROLL;
+
+    /**
+     * search_after模式下的排序字段，需要在索引内唯一以保证翻页时数据的顺序稳定，
+     * 可以配置为doc_values开启的keyword字段；_id需要加载fielddata，大索引上开销较大
+     */
+    protected String sortField = EsConfigKeys.DEFAULT_SORT_FIELD;
+
     private transient RestHighLevelClient client;
 
     private Iterator<Map<String, Object>> iterator;
@@ -83,7 +115,15 @@ public class EsInputFormat extends BaseRichInputFormat {
 
     private transient Scroll scroll;
 
-    private String scrollId;
+    private volatile String scrollId;
+
+    private transient Object[] lastSortValues;
+
+    private transient ExecutorService prefetchExecutor;
+
+    private transient BlockingQueue<Page> pageQueue;
+
+    private transient boolean endOfData;
 
     @Override
     public void openInputFormat() throws IOException {
@@ -95,7 +135,6 @@ public class EsInputFormat extends BaseRichInputFormat {
         GenericInputSplit genericInputSplit = (GenericInputSplit)inputSplit;
 
         client = EsUtil.getClient(address, username, password, clientConfig);
-        scroll = new Scroll(TimeValue.timeValueMinutes(keepAlive));
 
         SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
         searchSourceBuilder.size(batchSize);
@@ -110,15 +149,36 @@ public class EsInputFormat extends BaseRichInputFormat {
 
         searchRequest = new SearchRequest(index);
         searchRequest.types(type);
-        searchRequest.scroll(scroll);
+        if (isSearchAfter()) {
+            searchSourceBuilder.sort(sortField, SortOrder.ASC);
+        } else {
+            scroll = new Scroll(TimeValue.timeValueMinutes(keepAlive));
+            searchRequest.scroll(scroll);
+        }
         searchRequest.source(searchSourceBuilder);
+
+        if (prefetchPages > 0) {
+            pageQueue = new ArrayBlockingQueue<>(prefetchPages);
+            prefetchExecutor = Executors.newSingleThreadExecutor(new BasicThreadFactory.Builder()
+                    .namingPattern("es-prefetch-" + genericInputSplit.getSplitNumber() + "-%d")
+                    .daemon(true)
+                    .build());
+            prefetchExecutor.execute(this::prefetch);
+        }
     }
 
     @Override
     public InputSplit[] createInputSplitsInternal(int splitNum) throws IOException {
-        InputSplit[] splits = new InputSplit[splitNum];
-        for (int i = 0; i < splitNum; i++) {
-            splits[i] = new GenericInputSplit(i,splitNum);
+        int sliceNum = sliceCount > 0 ? sliceCount : splitNum;
+        if (isSearchAfter() && sliceNum > 1) {
+            // slice只能和scroll一起使用，search_after模式下只读一个分片
+            LOG.info("slice is not supported in {} mode, read with one split", readMode);
+            sliceNum = 1;
+        }
+
+        InputSplit[] splits = new InputSplit[sliceNum];
+        for (int i = 0; i < sliceNum; i++) {
+            splits[i] = new GenericInputSplit(i,sliceNum);
         }
 
         return splits;
@@ -128,33 +188,79 @@ public class EsInputFormat extends BaseRichInputFormat {
     public boolean reachedEnd() throws IOException {
         if(iterator != null && iterator.hasNext()) {
             return false;
-        } else {
-            return searchScroll();
+        } else if (endOfData) {
+            return true;
         }
+
+        List<Map<String, Object>> page = prefetchExecutor == null ? fetchPage() : takePage();
+        endOfData = page.isEmpty();
+        iterator = page.iterator();
+        return endOfData;
     }
 
-    private boolean searchScroll() throws IOException{
-        SearchHit[] searchHits;
-        if(scrollId == null){
-            SearchResponse searchResponse = client.search(searchRequest);
+    /**
+     * 后台线程按顺序拉取每一页，空页表示数据已读完
+     */
+    private void prefetch() {
+        try {
+            List<Map<String, Object>> page;
+            do {
+                page = fetchPage();
+                pageQueue.put(new Page(page, null));
+            } while (!page.isEmpty());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            try {
+                pageQueue.put(new Page(Collections.emptyList(), e));
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private List<Map<String, Object>> takePage() throws IOException {
+        Page page;
+        try {
+            page = pageQueue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for elasticsearch response");
+        }
+
+        if (page.error != null) {
+            throw new IOException("Failed to fetch data from elasticsearch", page.error);
+        }
+        return page.hits;
+    }
+
+    private List<Map<String, Object>> fetchPage() throws IOException{
+        SearchResponse searchResponse;
+        if (isSearchAfter()) {
+            if (lastSortValues != null) {
+                searchRequest.source().searchAfter(lastSortValues);
+            }
+            searchResponse = client.search(searchRequest);
+        } else if(scrollId == null){
+            searchResponse = client.search(searchRequest);
             scrollId = searchResponse.getScrollId();
-            searchHits = searchResponse.getHits().getHits();
         } else {
             SearchScrollRequest scrollRequest = new SearchScrollRequest(scrollId);
             scrollRequest.scroll(scroll);
-            SearchResponse searchResponse = client.searchScroll(scrollRequest);
+            searchResponse = client.searchScroll(scrollRequest);
             scrollId = searchResponse.getScrollId();
-            searchHits = searchResponse.getHits().getHits();
         }
 
-        List<Map<String, Object>> resultList = Lists.newArrayList();
+        SearchHit[] searchHits = searchResponse.getHits().getHits();
+        List<Map<String, Object>> resultList = new ArrayList<>(searchHits.length);
         for(SearchHit searchHit : searchHits) {
-            Map<String,Object> source = searchHit.getSourceAsMap();
-            resultList.add(source);
+            resultList.add(searchHit.getSourceAsMap());
         }
 
-        iterator = resultList.iterator();
-        return !iterator.hasNext();
+        if (searchHits.length > 0) {
+            lastSortValues = searchHits[searchHits.length - 1].getSortValues();
+        }
+        return resultList;
     }
 
     @Override
@@ -164,12 +270,40 @@ public class EsInputFormat extends BaseRichInputFormat {
 
     @Override
     public void closeInternal() throws IOException {
+        stopPrefetch();
+
         if(client != null) {
             clearScroll();
 
             client.close();
             client = null;
         }
+
+        scrollId = null;
+        lastSortValues = null;
+        iterator = null;
+        endOfData = false;
+    }
+
+    /**
+     * 停止预取线程，等待正在进行的请求结束后再清理scroll，保证清理的是最新的scrollId
+     */
+    private void stopPrefetch() {
+        if (prefetchExecutor == null) {
+            return;
+        }
+
+        prefetchExecutor.shutdownNow();
+        try {
+            if (!prefetchExecutor.awaitTermination(PREFETCH_SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LOG.warn("prefetch thread did not stop in {} seconds", PREFETCH_SHUTDOWN_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        prefetchExecutor = null;
+        pageQueue = null;
     }
 
     private void clearScroll() throws IOException{
@@ -183,4 +317,20 @@ public class EsInputFormat extends BaseRichInputFormat {
         boolean succeeded = clearScrollResponse.isSucceeded();
         LOG.info("Clear scroll response:{}", succeeded);
     }
+
+    private boolean isSearchAfter() {
+        return EsConfigKeys.READ_MODE_SEARCH_AFTER.equalsIgnoreCase(readMode);
+    }
+
+    private static class Page {
+
+        private final List<Map<String, Object>> hits;
+
+        private final Throwable error;
+
+        Page(List<Map<String, Object>> hits, Throwable error) {
+            this.hits = hits;
+            this.error = error;
+        }
+    }
 }
@@ -19,7 +19,10 @@
 package com.dtstack.flinkx.es.reader;
 
 import com.dtstack.flinkx.constants.ConstantValue;
+import com.dtstack.flinkx.es.EsConfigKeys;
 import com.dtstack.flinkx.inputformat.BaseRichInputFormatBuilder;
+import org.apache.commons.lang.StringUtils;
+
 import java.util.List;
 import java.util.Map;
 
@@ -99,6 +102,26 @@ public class EsInputFormatBuilder extends BaseRichInputFormatBuilder {
         return this;
     }
 
+    public EsInputFormatBuilder setSliceCount(int sliceCount){
+        format.sliceCount = sliceCount;
+        return this;
+    }
+
+    public EsInputFormatBuilder setPrefetchPages(int prefetchPages){
+        format.prefetchPages = prefetchPages;
+        return this;
+    }
+
+    public EsInputFormatBuilder setReadMode(String readMode){
+        format.readMode = readMode;
+        return this;
+    }
+
+    public EsInputFormatBuilder setSortField(String sortField){
+        format.sortField = sortField;
+        return this;
+    }
+
     @Override
     protected void checkFormat() {
         if (format.getRestoreConfig() != null && format.getRestoreConfig().isRestore()){
@@ -108,5 +131,14 @@ public class EsInputFormatBuilder extends BaseRichInputFormatBuilder {
         if (format.batchSize > ConstantValue.MAX_BATCH_SIZE) {
             throw new IllegalArgumentException("批量读取数量不能大于[200000]条");
         }
+
+        if (!EsConfigKeys.READ_MODE_SCROLL.equalsIgnoreCase(format.readMode)
+                && !EsConfigKeys.READ_MODE_SEARCH_AFTER.equalsIgnoreCase(format.readMode)) {
+            throw new IllegalArgumentException("readMode只支持[scroll]和[searchAfter]");
+        }
+
+        if (StringUtils.isBlank(format.sortField)) {
+            throw new IllegalArgumentException("sortField不能为空");
+        }
     }
 }
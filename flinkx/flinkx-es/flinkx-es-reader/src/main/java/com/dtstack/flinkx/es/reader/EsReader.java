@@ -55,6 +55,10 @@ public class EsReader extends BaseDataReader {
     private String[] type;
     private Integer batchSize;
     private Map<String,Object> clientConfig;
+    private int sliceCount;
+    private int prefetchPages;
+    private String readMode;
+    private String sortField;
 
     protected List<String> columnType;
     protected List<String> columnValue;
@@ -69,6 +73,10 @@ public class EsReader extends BaseDataReader {
         index = EsUtil.getStringArray(readerConfig.getParameter().getVal(EsConfigKeys.KEY_INDEX));
         type = EsUtil.getStringArray(readerConfig.getParameter().getVal(EsConfigKeys.KEY_TYPE));
         batchSize = readerConfig.getParameter().getIntVal(EsConfigKeys.KEY_BATCH_SIZE, 10);
+        sliceCount = readerConfig.getParameter().getIntVal(EsConfigKeys.KEY_SLICE_COUNT, 0);
+        prefetchPages = readerConfig.getParameter().getIntVal(EsConfigKeys.KEY_PREFETCH_PAGES, 1);
+        readMode = readerConfig.getParameter().getStringVal(EsConfigKeys.KEY_READ_MODE, EsConfigKeys.READ_MODE_SCROLL);
+        sortField = readerConfig.getParameter().getStringVal(EsConfigKeys.KEY_SORT_FIELD, EsConfigKeys.DEFAULT_SORT_FIELD);
 
         clientConfig = new HashMap<>();
         clientConfig.put(EsConfigKeys.KEY_TIMEOUT, readerConfig.getParameter().getVal(EsConfigKeys.KEY_TIMEOUT));
@@ -115,6 +123,10 @@ public class EsReader extends BaseDataReader {
         builder.setType(type);
         builder.setBatchSize(batchSize);
         builder.setClientConfig(clientConfig);
+        builder.setSliceCount(sliceCount);
+        builder.setPrefetchPages(prefetchPages);
+        builder.setReadMode(readMode);
+        builder.setSortField(sortField);
         builder.setQuery(query);
         builder.setBytes(bytes);
         builder.setMonitorUrls(monitorUrls);
@@ -25,7 +25,7 @@ import com.dtstack.flinkx.ftp.IFtpHandler;
 import com.dtstack.flinkx.inputformat.BaseRichInputFormat;
 import com.dtstack.flinkx.reader.MetaColumn;
 import com.dtstack.flinkx.util.GsonUtil;
-import com.dtstack.flinkx.util.StringUtil;
+import com.dtstack.flinkx.util.ColumnConverter;
 import org.apache.flink.core.io.InputSplit;
 import org.apache.flink.types.Row;
 
@@ -51,9 +51,12 @@ public class FtpInputFormat extends BaseRichInputFormat {
 
     private transient String line;
 
+    private transient ColumnConverter[] columnConverters;
+
     @Override
     public void openInputFormat() throws IOException {
         super.openInputFormat();
+        columnConverters = ColumnConverter.of(metaColumns);
 
         ftpHandler = FtpHandlerFactory.createFtpHandler(ftpConfig.getProtocol());
         ftpHandler.loginFtpServer(ftpConfig);
@@ -133,7 +136,7 @@ public class FtpInputFormat extends BaseRichInputFormat {
                 }
 
                 if(value != null){
-                    value = StringUtil.string2col(String.valueOf(value),metaColumn.getType(),metaColumn.getTimeFormat());
+                    value = columnConverters[i].convert(String.valueOf(value));
                 }
 
                 row.setField(i, value);
@@ -42,4 +42,6 @@ public class HbaseConfigConstants {
 
     public static final boolean DEFAULT_WAL_FLAG = false;
 
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
 }
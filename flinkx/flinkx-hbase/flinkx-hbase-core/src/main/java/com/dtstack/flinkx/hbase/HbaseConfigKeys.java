@@ -64,6 +64,8 @@ public class HbaseConfigKeys {
 
     public static final String KEY_WRITE_BUFFER_SIZE = "writeBufferSize";
 
+    public static final String KEY_BATCH_SIZE = "batchSize";
+
     public static final String KEY_VERSION_COLUMN_INDEX = "index";
 
     public static final String KEY_VERSION_COLUMN_VALUE = "value";
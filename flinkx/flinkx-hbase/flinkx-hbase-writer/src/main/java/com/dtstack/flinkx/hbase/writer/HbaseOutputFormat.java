@@ -27,7 +27,6 @@ import com.dtstack.flinkx.hbase.writer.function.FunctionTree;
 import com.dtstack.flinkx.outputformat.BaseRichOutputFormat;
 import com.dtstack.flinkx.util.DateUtil;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang3.Validate;
 import org.apache.flink.configuration.Configuration;
@@ -45,8 +44,8 @@ import java.security.PrivilegedAction;
 import java.sql.Timestamp;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -89,9 +88,14 @@ public class HbaseOutputFormat extends BaseRichOutputFormat {
     protected List<String> rowKeyColumns = Lists.newArrayList();
     protected List<Integer> rowKeyColumnIndex = Lists.newArrayList();
 
-    private transient Map<String,String[]> nameMaps;
+    /** column families, qualifiers and types of each field, compiled once at open */
+    private transient byte[][] families;
 
-    private transient Map<String, byte[][]> nameByteMaps ;
+    private transient byte[][] qualifiers;
+
+    private transient ColumnType[] types;
+
+    private transient Charset charset;
 
     private transient ThreadLocal<SimpleDateFormat> timeSecondFormatThreadLocal;
 
@@ -132,8 +136,6 @@ public class HbaseOutputFormat extends BaseRichOutputFormat {
 
     public void openConnection() {
         LOG.info("HbaseOutputFormat configure start");
-        nameMaps = Maps.newConcurrentMap();
-        nameByteMaps = Maps.newConcurrentMap();
         timeSecondFormatThreadLocal = new ThreadLocal();
         timeMillisecondFormatThreadLocal = new ThreadLocal();
         Validate.isTrue(hbaseConfig != null && hbaseConfig.size() !=0, "hbaseConfig不能为空Map结构!");
@@ -161,12 +163,41 @@ public class HbaseOutputFormat extends BaseRichOutputFormat {
             }
             rowKeyColumnIndex.add(index);
         }
+        functionTree.bindColumns(columnNames);
+
+        compileColumns();
 
         LOG.info("HbaseOutputFormat configure end");
     }
 
+    private void compileColumns() {
+        charset = Charset.forName(encoding);
+        families = new byte[columnNames.size()][];
+        qualifiers = new byte[columnNames.size()][];
+        types = new ColumnType[columnNames.size()];
+        for (int i = 0; i < columnNames.size(); i++) {
+            String name = columnNames.get(i);
+            String[] cfAndQualifier = name.split(":", 2);
+            if(cfAndQualifier.length != 2){
+                throw new IllegalArgumentException("Hbasewriter 中，column 的列配置格式应该是：列族:列名. 您配置的列错误：" + name);
+            }
+            families[i] = Bytes.toBytes(cfAndQualifier[0]);
+            qualifiers[i] = Bytes.toBytes(cfAndQualifier[1]);
+            types[i] = ColumnType.getType(columnTypes.get(i));
+        }
+    }
+
     @Override
     public void writeSingleRecordInternal(Row record) throws WriteRecordException {
+        Put put = buildPut(record);
+        try {
+            bufferedMutator.mutate(put);
+        } catch(Exception ex) {
+            throw new WriteRecordException(ex.getMessage(), ex);
+        }
+    }
+
+    private Put buildPut(Row record) throws WriteRecordException {
         int i = 0;
         try {
             byte[] rowkey = getRowkey(record);
@@ -180,43 +211,19 @@ public class HbaseOutputFormat extends BaseRichOutputFormat {
                 long timestamp = getVersion(record);
                 put = new Put(rowkey,timestamp);
             }
-            LOG.debug("===hbase: rowkey: " + Bytes.toString(rowkey));
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("===hbase: rowkey: " + Bytes.toString(rowkey));
+            }
 
             for (; i < record.getArity(); ++i) {
-//                if(rowKeyColumnIndex.contains(i)){
-//                    continue;
-//                }
-
-                String type = columnTypes.get(i);
-                String name = columnNames.get(i);
-                String[] cfAndQualifier = nameMaps.get(name);
-                byte[][] cfAndQualifierBytes = nameByteMaps.get(name);
-                if(cfAndQualifier == null || cfAndQualifierBytes == null){
-                    cfAndQualifier = name.split(":", 2);
-                    if(cfAndQualifier.length == 2){
-                        nameMaps.put(name,cfAndQualifier);
-                        cfAndQualifierBytes = new byte[2][];
-                        cfAndQualifierBytes[0] = Bytes.toBytes(cfAndQualifier[0]);
-                        cfAndQualifierBytes[1] = Bytes.toBytes(cfAndQualifier[1]);
-                        nameByteMaps.put(name,cfAndQualifierBytes);
-                    } else {
-                        throw new IllegalArgumentException("Hbasewriter 中，column 的列配置格式应该是：列族:列名. 您配置的列错误：" + name);
-                    }
-                }
-
-                ColumnType columnType = ColumnType.getType(type);
-                byte[] columnBytes = getColumnByte(columnType, record.getField(i));
+                byte[] columnBytes = getColumnByte(types[i], record.getField(i));
                 //columnBytes 为null忽略这列
                 if(null != columnBytes){
-                    LOG.debug(String.format("===hbase: rowkey: %s, column: %s", Bytes.toString(rowkey), Bytes.toString(columnBytes)));
-                    put.addColumn(
-                            cfAndQualifierBytes[0],
-                            cfAndQualifierBytes[1],
-                            columnBytes);
+                    put.addColumn(families[i], qualifiers[i], columnBytes);
                 }
             }
 
-            bufferedMutator.mutate(put);
+            return put;
         } catch(Exception ex) {
             if(i < record.getArity()) {
                 throw new WriteRecordException(recordConvertDetailErrorMessage(i, record), ex, i, record);
@@ -249,19 +256,20 @@ public class HbaseOutputFormat extends BaseRichOutputFormat {
         return "\nHbaseOutputFormat [" + jobName + "] writeRecord error: when converting field[" + columnNames.get(pos) + "] in Row(" + row + ")";
     }
 
+    /**
+     * 整批转换为Put后一次交给BufferedMutator，任一行转换失败则抛出异常，由上层逐条重写并记录脏数据
+     */
     @Override
     protected void writeMultipleRecordsInternal() throws Exception {
-        notSupportBatchWrite("HbaseWriter");
+        List<Put> puts = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            puts.add(buildPut(row));
+        }
+        bufferedMutator.mutate(puts);
     }
 
     private byte[] getRowkey(Row record) throws Exception{
-        Map<String, Object> nameValueMap = new HashMap<>((rowKeyColumnIndex.size()<<2)/3);
-        for (Integer keyColumnIndex : rowKeyColumnIndex) {
-            nameValueMap.put(columnNames.get(keyColumnIndex), record.getField(keyColumnIndex));
-        }
-
-        String rowKeyStr = functionTree.evaluate(nameValueMap);
-        return rowKeyStr.getBytes(StandardCharsets.UTF_8);
+        return functionTree.evaluate(record).getBytes(StandardCharsets.UTF_8);
     }
 
     public long getVersion(Row record){
@@ -336,7 +344,7 @@ public class HbaseOutputFormat extends BaseRichOutputFormat {
                     bytes = Bytes.toBytes(Boolean.parseBoolean(value));
                     break;
                 case STRING:
-                    bytes = value.getBytes(Charset.forName(encoding));
+                    bytes = value.getBytes(charset);
                     break;
                 default:
                     throw new IllegalArgumentException("Unsupported column type: " + columnType);
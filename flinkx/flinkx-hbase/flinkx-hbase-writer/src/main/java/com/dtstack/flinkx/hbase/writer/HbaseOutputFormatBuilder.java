@@ -110,7 +110,5 @@ public class HbaseOutputFormatBuilder extends BaseRichOutputFormatBuilder {
         if (format.getRestoreConfig() != null && format.getRestoreConfig().isRestore()){
             throw new UnsupportedOperationException("This plugin not support restore from failed state");
         }
-
-        notSupportBatchWrite("HbaseWriter");
     }
 }
@@ -32,8 +32,10 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import static com.dtstack.flinkx.hbase.HbaseConfigConstants.DEFAULT_BATCH_SIZE;
 import static com.dtstack.flinkx.hbase.HbaseConfigConstants.DEFAULT_WAL_FLAG;
 import static com.dtstack.flinkx.hbase.HbaseConfigConstants.DEFAULT_WRITE_BUFFER_SIZE;
+import static com.dtstack.flinkx.hbase.HbaseConfigKeys.KEY_BATCH_SIZE;
 import static com.dtstack.flinkx.hbase.HbaseConfigKeys.KEY_COLUMN_NAME;
 import static com.dtstack.flinkx.hbase.HbaseConfigKeys.KEY_COLUMN_TYPE;
 import static com.dtstack.flinkx.hbase.HbaseConfigKeys.KEY_ENCODING;
@@ -63,6 +65,7 @@ public class HbaseWriter extends BaseDataWriter {
     private String nullMode;
     private Boolean walFlag;
     private long writeBufferSize;
+    private int batchSize;
 
     private List<String> columnTypes;
     private List<String> columnNames;
@@ -81,6 +84,7 @@ public class HbaseWriter extends BaseDataWriter {
         nullMode = writerConfig.getParameter().getStringVal(KEY_NULL_MODE);
         walFlag = writerConfig.getParameter().getBooleanVal(KEY_WAL_FLAG, DEFAULT_WAL_FLAG);
         writeBufferSize = writerConfig.getParameter().getLongVal(KEY_WRITE_BUFFER_SIZE, DEFAULT_WRITE_BUFFER_SIZE);
+        batchSize = writerConfig.getParameter().getIntVal(KEY_BATCH_SIZE, DEFAULT_BATCH_SIZE);
 
         List columns = writerConfig.getParameter().getColumn();
         if(CollectionUtils.isNotEmpty(columns)) {
@@ -146,6 +150,7 @@ public class HbaseWriter extends BaseDataWriter {
         builder.setNullMode(nullMode);
         builder.setWalFlag(walFlag);
         builder.setWriteBufferSize(writeBufferSize);
+        builder.setBatchInterval(batchSize);
         builder.setColumnNames(columnNames);
         builder.setColumnTypes(columnTypes);
         builder.setRowkeyExpress(rowkeyExpress);
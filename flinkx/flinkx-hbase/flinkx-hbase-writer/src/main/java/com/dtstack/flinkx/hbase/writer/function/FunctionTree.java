@@ -23,6 +23,7 @@ import com.google.common.collect.Lists;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
 import org.apache.commons.lang.StringUtils;
+import org.apache.flink.types.Row;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -36,6 +37,9 @@ public class FunctionTree {
 
     private String columnName;
 
+    /** index of columnName in the row, resolved by {@link #bindColumns(List)} */
+    private int columnIndex = -1;
+
     private IFunction function;
 
     private List<FunctionTree> inputFunctions = Lists.newArrayList();
@@ -57,6 +61,44 @@ public class FunctionTree {
         }
     }
 
+    /**
+     * Resolves column names to row indexes once, so {@link #evaluate(Row)} reads fields directly
+     * instead of going through a name to value map for every row.
+     */
+    public void bindColumns(List<String> columnNames) {
+        if (StringUtils.isNotEmpty(columnName)) {
+            columnIndex = columnNames.indexOf(columnName);
+            if (columnIndex == -1) {
+                throw new IllegalArgumentException("Can not get row key column from columns:" + columnName);
+            }
+        }
+
+        for (FunctionTree inputFunction : inputFunctions) {
+            inputFunction.bindColumns(columnNames);
+        }
+    }
+
+    public String evaluate(Row row) throws Exception {
+        if (columnIndex != -1) {
+            return function.evaluate(row.getField(columnIndex));
+        }
+
+        if (inputFunctions.isEmpty()) {
+            return function.evaluate(null);
+        } else if (inputFunctions.size() == 1) {
+            return function.evaluate(inputFunctions.get(0).evaluate(row));
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < inputFunctions.size(); i++) {
+            if (i > 0) {
+                sb.append('_');
+            }
+            sb.append(inputFunctions.get(i).evaluate(row));
+        }
+        return function.evaluate(sb.toString());
+    }
+
     public void addInputFunction(FunctionTree inputFunction){
         inputFunctions.add(inputFunction);
     }
@@ -22,10 +22,12 @@ import com.dtstack.flinkx.hbase.writer.function.FunctionParser;
 import com.dtstack.flinkx.hbase.writer.function.FunctionTree;
 import com.dtstack.flinkx.hbase.writer.function.Md5Function;
 import com.dtstack.flinkx.hbase.writer.function.StringFunction;
+import org.apache.flink.types.Row;
 import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -88,4 +90,26 @@ public class RowKeyFunctionTest {
         express = FunctionParser.replaceColToStringFunc(express);
         Assert.assertEquals(expect, express);
     }
+
+    @Test
+    public void evaluateBoundColumnsTest() throws Exception{
+        String express = "_md5(test_$(col1)_test_$(col2)_test)_";
+        List<String> columnNames = Arrays.asList("col0", "col1", "col2");
+
+        FunctionTree functionTree = FunctionParser.parse(express);
+        functionTree.bindColumns(columnNames);
+
+        Row row = Row.of("value0", "value1", "value2");
+
+        Map<String, Object> nameValueMap = new HashMap<>();
+        nameValueMap.put("col1", "value1");
+        nameValueMap.put("col2", "value2");
+
+        Assert.assertEquals(functionTree.evaluate(nameValueMap), functionTree.evaluate(row));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void bindMissingColumnTest(){
+        FunctionParser.parse("$(col1)_$(col3)").bindColumns(Arrays.asList("col1", "col2"));
+    }
 }
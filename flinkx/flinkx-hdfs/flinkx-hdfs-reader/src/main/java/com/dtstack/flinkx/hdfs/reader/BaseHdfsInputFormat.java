@@ -20,6 +20,7 @@ package com.dtstack.flinkx.hdfs.reader;
 
 import com.dtstack.flinkx.inputformat.BaseRichInputFormat;
 import com.dtstack.flinkx.reader.MetaColumn;
+import com.dtstack.flinkx.util.ColumnConverter;
 import com.dtstack.flinkx.util.FileSystemUtil;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
@@ -52,6 +53,8 @@ public abstract class BaseHdfsInputFormat extends BaseRichInputFormat {
 
     protected List<MetaColumn> metaColumns;
 
+    protected transient ColumnConverter[] columnConverters;
+
     protected String inputPath;
 
     protected String defaultFs;
@@ -86,6 +89,7 @@ public abstract class BaseHdfsInputFormat extends BaseRichInputFormat {
     @Override
     public void openInputFormat() throws IOException {
         super.openInputFormat();
+        columnConverters = ColumnConverter.of(metaColumns);
         conf = buildConfig();
 
         openKerberos = FileSystemUtil.isOpenKerberos(hadoopConfig);
@@ -19,10 +19,10 @@
 package com.dtstack.flinkx.hdfs.reader;
 
 import com.dtstack.flinkx.constants.ConstantValue;
+import com.dtstack.flinkx.constants.Metrics;
 import com.dtstack.flinkx.hdfs.HdfsUtil;
 import com.dtstack.flinkx.reader.MetaColumn;
 import com.dtstack.flinkx.util.FileSystemUtil;
-import com.dtstack.flinkx.util.StringUtil;
 import org.apache.commons.lang.StringUtils;
 import org.apache.flink.core.io.InputSplit;
 import org.apache.flink.types.Row;
@@ -99,7 +99,7 @@ public class HdfsOrcInputFormat extends BaseHdfsInputFormat {
     }
 
     private void openOrcReader(InputSplit inputSplit) throws IOException{
-        numReadCounter = getRuntimeContext().getLongCounter("numRead");
+        numReadCounter = getRuntimeContext().getLongCounter(accumulatorName(Metrics.NUM_READS));
         HdfsOrcInputSplit hdfsOrcInputSplit = (HdfsOrcInputSplit) inputSplit;
         OrcSplit orcSplit = hdfsOrcInputSplit.getOrcSplit();
         findCurrentPartition(orcSplit.getPath());
@@ -252,7 +252,7 @@ public class HdfsOrcInputFormat extends BaseHdfsInputFormat {
                 }
 
                 if(val instanceof String || val instanceof org.apache.hadoop.io.Text){
-                    val = StringUtil.string2col(String.valueOf(val), metaColumn.getType(), metaColumn.getTimeFormat());
+                    val = columnConverters[i].convert(String.valueOf(val));
                 } else if(val != null){
                     val = HdfsUtil.getWritableValue(val);
                 }
@@ -22,7 +22,6 @@ import com.dtstack.flinkx.constants.ConstantValue;
 import com.dtstack.flinkx.enums.ColumnType;
 import com.dtstack.flinkx.reader.MetaColumn;
 import com.dtstack.flinkx.util.FileSystemUtil;
-import com.dtstack.flinkx.util.StringUtil;
 import com.google.common.collect.Lists;
 import com.google.common.primitives.Ints;
 import com.google.common.primitives.Longs;
@@ -191,7 +190,7 @@ public class HdfsParquetInputFormat extends BaseHdfsInputFormat {
                 }
 
                 if(val instanceof String){
-                    val = StringUtil.string2col(String.valueOf(val), metaColumn.getType(), metaColumn.getTimeFormat());
+                    val = columnConverters[i].convert(String.valueOf(val));
                 }
 
                 row.setField(i,val);
@@ -22,7 +22,6 @@ import com.dtstack.flinkx.constants.ConstantValue;
 import com.dtstack.flinkx.hdfs.HdfsUtil;
 import com.dtstack.flinkx.reader.MetaColumn;
 import com.dtstack.flinkx.util.FileSystemUtil;
-import com.dtstack.flinkx.util.StringUtil;
 import org.apache.commons.io.output.ByteArrayOutputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.flink.core.io.InputSplit;
@@ -159,7 +158,7 @@ public class HdfsTextInputFormat extends BaseHdfsInputFormat {
                 }
 
                 if(value != null){
-                    value = StringUtil.string2col(String.valueOf(value), metaColumn.getType(),metaColumn.getTimeFormat());
+                    value = columnConverters[i].convert(String.valueOf(value));
                 }
 
                 row.setField(i, value);
@@ -26,6 +26,8 @@ import com.dtstack.flinkx.util.SysUtil;
 import com.google.gson.Gson;
 import io.minio.MinioClient;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.flink.api.common.io.FinalizeOnMaster;
+import org.apache.flink.api.common.io.InitializeOnMaster;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
@@ -40,10 +42,13 @@ import java.util.Map;
 /**
  * The Hdfs implementation of OutputFormat
  *
+ * 写数据前的目录准备和写完后 .data 目录到数据目录的移动由JobManager通过
+ * {@link InitializeOnMaster}/{@link FinalizeOnMaster} 各执行一次，子任务之间不再轮询 .finished 目录等待
+ *
  * Company: www.dtstack.com
  * @author huyifan.zju@163.com
  */
-public abstract class BaseHdfsOutputFormat extends BaseFileOutputFormat {
+public abstract class BaseHdfsOutputFormat extends BaseFileOutputFormat implements InitializeOnMaster, FinalizeOnMaster {
 
     private static final int FILE_NAME_PART_SIZE = 3;
 
@@ -194,14 +199,113 @@ public abstract class BaseHdfsOutputFormat extends BaseFileOutputFormat {
     @Override
     protected void openSource() throws IOException{
         try{
-            conf = FileSystemUtil.getConfiguration(hadoopConfig, defaultFs);
-            fs = FileSystemUtil.getFileSystem(hadoopConfig, defaultFs);
+            openFileSystem();
             minioClient = MinioUtil.getMinioClient(minioConfig);
         } catch (Exception e){
             throw new RuntimeException("Get FileSystem/MinioClient error", e);
         }
     }
 
+    private void openFileSystem() throws Exception {
+        conf = FileSystemUtil.getConfiguration(hadoopConfig, defaultFs);
+        fs = FileSystemUtil.getFileSystem(hadoopConfig, defaultFs);
+    }
+
+    /**
+     * 任务提交后、子任务部署前在JobManager上执行一次写数据前的操作
+     * 断点续传需要从checkpoint状态中判断是否覆盖和清理脏数据，仍由第一个通道执行
+     */
+    @Override
+    public void initializeGlobal(int parallelism) throws IOException {
+        if (restoreConfig.isRestore()) {
+            return;
+        }
+
+        initPath();
+        try {
+            openFileSystem();
+            checkOutputDir();
+            if (!APPEND_MODE.equalsIgnoreCase(writeMode)) {
+                coverageData();
+            }
+            clearTemporaryDataFiles();
+            LOG.info("initializeGlobal: prepared output dir [{}] for {} subtasks", outputFilePath, parallelism);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Prepare output dir error before write records", e);
+        } finally {
+            closeFileSystem();
+        }
+    }
+
+    /**
+     * 所有子任务正常结束后在JobManager上执行一次，把 .data 目录下的文件移动到数据目录
+     * 任务失败时不会调用，临时文件由各子任务清理
+     */
+    @Override
+    public void finalizeGlobal(int parallelism) throws IOException {
+        if (restoreConfig.isStream()) {
+            return;
+        }
+
+        initPath();
+        try {
+            openFileSystem();
+        } catch (Exception e) {
+            throw new IOException("Get FileSystem error", e);
+        }
+
+        try {
+            moveAllTemporaryDataFileToDirectory();
+            clearTemporaryDataFiles();
+            LOG.info("finalizeGlobal: committed data of {} subtasks to [{}]", parallelism, outputFilePath);
+        } finally {
+            closeFileSystem();
+        }
+    }
+
+    /**
+     * JobManager上打开的FileSystem没有使用缓存，用完后需要关闭
+     */
+    private void closeFileSystem() throws IOException {
+        if (fs != null) {
+            try {
+                fs.close();
+            } finally {
+                fs = null;
+            }
+        }
+    }
+
+    @Override
+    protected void actionBeforeWriteData() {
+        if (restoreConfig.isRestore()) {
+            super.actionBeforeWriteData();
+        }
+    }
+
+    @Override
+    protected void afterCloseInternal() {
+        if (restoreConfig.isStream()) {
+            super.afterCloseInternal();
+            return;
+        }
+
+        try {
+            if (isTaskEndsNormally()) {
+                closeSource();
+            }
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    protected boolean needWaitAfterCloseInternal() {
+        return restoreConfig.isStream();
+    }
+
     private void initColIndices() {
         if (fullColumnNames == null || fullColumnNames.size() == 0) {
             fullColumnNames = columnNames;
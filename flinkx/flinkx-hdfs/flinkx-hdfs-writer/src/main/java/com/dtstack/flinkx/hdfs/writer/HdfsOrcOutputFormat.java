@@ -73,6 +73,13 @@ public class HdfsOrcOutputFormat extends BaseHdfsOutputFormat {
     private FileOutputFormat outputFormat;
     private JobConf jobConf;
 
+    /** per column converters compiled at open, indexed like fullColumnNames */
+    private transient FieldConverter[] converters;
+
+    private transient Object[] record;
+
+    private transient List<Object> recordList;
+
     private static ColumnTypeUtil.DecimalInfo ORC_DEFAULT_DECIMAL_INFO = new ColumnTypeUtil.DecimalInfo(HiveDecimal.SYSTEM_DEFAULT_PRECISION, HiveDecimal.SYSTEM_DEFAULT_SCALE);
 
     @Override
@@ -102,6 +109,13 @@ public class HdfsOrcOutputFormat extends BaseHdfsOutputFormat {
 
         this.inspector = ObjectInspectorFactory
                 .getStandardStructObjectInspector(fullColumnNames, fullColTypeList);
+
+        converters = new FieldConverter[fullColumnNames.size()];
+        for (int i = 0; i < fullColumnNames.size(); i++) {
+            converters[i] = compileConverter(i);
+        }
+        record = new Object[fullColumnNames.size()];
+        recordList = Arrays.asList(record);
     }
 
     private Class getCompressType(){
@@ -158,11 +172,10 @@ public class HdfsOrcOutputFormat extends BaseHdfsOutputFormat {
             nextBlock();
         }
 
-        List<Object> recordList = new ArrayList<>();
         int i = 0;
         try {
             for (; i < fullColumnNames.size(); ++i) {
-                getData(recordList, i, row);
+                record[i] = getData(i, row);
             }
         } catch (Exception e) {
             if(e instanceof WriteRecordException){
@@ -194,74 +207,96 @@ public class HdfsOrcOutputFormat extends BaseHdfsOutputFormat {
         }
     }
 
-    private void getData(List<Object> recordList, int index, Row row) throws WriteRecordException{
+    private Object getData(int index, Row row) throws Exception {
         int j = colIndices[index];
         if(j == -1) {
-            recordList.add(null);
-            return;
+            return null;
         }
 
         Object column = row.getField(j);
         if (column == null) {
-            recordList.add(null);
-            return;
+            return null;
         }
 
-        ColumnType columnType = ColumnType.fromString(columnTypes.get(j));
-        String rowData = column.toString();
-        if(rowData == null || (rowData.length() == 0 && !ColumnType.isStringType(columnType)) ){
-            recordList.add(null);
-            return;
+        return converters[index].convert(column);
+    }
+
+    /**
+     * 按列类型生成转换器，已是目标类型的值直接使用，其余值仍按字符串解析
+     */
+    private FieldConverter compileConverter(int index) {
+        int j = colIndices[index];
+        if (j == -1) {
+            return column -> null;
+        }
+
+        ColumnType columnType;
+        try {
+            columnType = ColumnType.fromString(columnTypes.get(j));
+        } catch (RuntimeException e) {
+            return column -> {
+                throw new IllegalArgumentException(e.getMessage(), e);
+            };
         }
 
+        boolean stringType = ColumnType.isStringType(columnType);
+        FieldConverter converter = compileTypedConverter(index, columnType);
+        return column -> {
+            if (!stringType && column instanceof CharSequence && ((CharSequence) column).length() == 0) {
+                return null;
+            }
+            return converter.convert(column);
+        };
+    }
+
+    private FieldConverter compileTypedConverter(int index, ColumnType columnType) {
         switch (columnType) {
             case TINYINT:
-                recordList.add(Byte.valueOf(rowData));
-                break;
+                return column -> column instanceof Byte ? column : Byte.valueOf(column.toString());
             case SMALLINT:
-                recordList.add(Short.valueOf(rowData));
-                break;
+                return column -> column instanceof Short ? column : Short.valueOf(column.toString());
             case INT:
-                recordList.add(Integer.valueOf(rowData));
-                break;
+                return column -> column instanceof Integer ? column : Integer.valueOf(column.toString());
             case BIGINT:
-                recordList.add(getBigint(column, rowData));
-                break;
+                return column -> {
+                    if (column instanceof Long) {
+                        return column;
+                    } else if (column instanceof Integer || column instanceof Short || column instanceof Byte) {
+                        return ((Number) column).longValue();
+                    }
+                    return getBigint(column, column.toString());
+                };
             case FLOAT:
-                recordList.add(Float.valueOf(rowData));
-                break;
+                return column -> column instanceof Float ? column : Float.valueOf(column.toString());
             case DOUBLE:
-                recordList.add(Double.valueOf(rowData));
-                break;
+                return column -> column instanceof Double ? column : Double.valueOf(column.toString());
             case DECIMAL:
-                recordList.add(getDecimalWritable(index, rowData));
-                break;
+                ColumnTypeUtil.DecimalInfo decimalInfo = decimalColInfo.get(fullColumnNames.get(index));
+                return column -> getDecimalWritable(index, decimalInfo, column);
             case STRING:
             case VARCHAR:
             case CHAR:
-                if (column instanceof Timestamp){
-                    SimpleDateFormat fm = DateUtil.getDateTimeFormatter();
-                    recordList.add(fm.format(column));
-                }else if (column instanceof Map || column instanceof List){
-                    recordList.add(gson.toJson(column));
-                }else {
-                    recordList.add(rowData);
-                }
-                break;
+                return column -> {
+                    if (column instanceof Timestamp){
+                        SimpleDateFormat fm = DateUtil.getDateTimeFormatter();
+                        return fm.format(column);
+                    }else if (column instanceof Map || column instanceof List){
+                        return gson.toJson(column);
+                    }
+                    return column.toString();
+                };
             case BOOLEAN:
-                recordList.add(Boolean.valueOf(rowData));
-                break;
+                return column -> column instanceof Boolean ? column : Boolean.valueOf(column.toString());
             case DATE:
-                recordList.add(DateUtil.columnToDate(column,null));
-                break;
+                return column -> DateUtil.columnToDate(column,null);
             case TIMESTAMP:
-                recordList.add(DateUtil.columnToTimestamp(column,null));
-                break;
+                return column -> DateUtil.columnToTimestamp(column,null);
             case BINARY:
-                recordList.add(new BytesWritable(rowData.getBytes(StandardCharsets.UTF_8)));
-                break;
+                return column -> new BytesWritable(column.toString().getBytes(StandardCharsets.UTF_8));
             default:
-                throw new IllegalArgumentException();
+                return column -> {
+                    throw new IllegalArgumentException();
+                };
         }
     }
 
@@ -279,18 +314,23 @@ public class HdfsOrcOutputFormat extends BaseHdfsOutputFormat {
         }
     }
 
-    private HiveDecimalWritable getDecimalWritable(int index, String rowData) throws WriteRecordException {
-        ColumnTypeUtil.DecimalInfo decimalInfo = decimalColInfo.get(fullColumnNames.get(index));
-        HiveDecimal hiveDecimal = HiveDecimal.create(new BigDecimal(rowData));
+    private HiveDecimalWritable getDecimalWritable(int index, ColumnTypeUtil.DecimalInfo decimalInfo, Object column) throws WriteRecordException {
+        BigDecimal bigDecimal = column instanceof BigDecimal ? (BigDecimal) column : new BigDecimal(column.toString());
+        HiveDecimal hiveDecimal = HiveDecimal.create(bigDecimal);
         hiveDecimal = HiveDecimal.enforcePrecisionScale(hiveDecimal, decimalInfo.getPrecision(), decimalInfo.getScale());
         if(hiveDecimal == null){
-            String msg = String.format("第[%s]个数据数据[%s]precision和scale和元数据不匹配:decimal(%s, %s)", index, decimalInfo.getPrecision(), decimalInfo.getScale(), rowData);
+            String msg = String.format("第[%s]个数据数据[%s]precision和scale和元数据不匹配:decimal(%s, %s)", index, decimalInfo.getPrecision(), decimalInfo.getScale(), column);
             throw new WriteRecordException(msg, new IllegalArgumentException());
         }
 
         return new HiveDecimalWritable(hiveDecimal);
     }
 
+    @FunctionalInterface
+    private interface FieldConverter {
+        Object convert(Object column) throws Exception;
+    }
+
     @Override
     protected String recordConvertDetailErrorMessage(int pos, Row row) {
         return "\nHdfsOrcOutputFormat [" + jobName + "] writeRecord error: when converting field[" + fullColumnNames.get(pos) + "] in Row(" + row + ")";
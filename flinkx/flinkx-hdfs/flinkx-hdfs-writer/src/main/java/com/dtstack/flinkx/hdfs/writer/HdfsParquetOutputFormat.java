@@ -34,12 +34,8 @@ import org.apache.hadoop.hive.common.type.HiveDecimal;
 import org.apache.hadoop.hive.serde2.io.DateWritable;
 import org.apache.hadoop.security.UserGroupInformation;
 import org.apache.parquet.column.ParquetProperties;
-import org.apache.parquet.example.data.Group;
-import org.apache.parquet.example.data.simple.SimpleGroupFactory;
 import org.apache.parquet.hadoop.ParquetFileWriter;
 import org.apache.parquet.hadoop.ParquetWriter;
-import org.apache.parquet.hadoop.example.ExampleParquetWriter;
-import org.apache.parquet.hadoop.example.GroupWriteSupport;
 import org.apache.parquet.hadoop.metadata.CompressionCodecName;
 import org.apache.parquet.io.api.Binary;
 import org.apache.parquet.schema.MessageType;
@@ -64,12 +60,17 @@ import java.util.Map;
  */
 public class HdfsParquetOutputFormat extends BaseHdfsOutputFormat {
 
-    private SimpleGroupFactory groupFactory;
-
-    private ParquetWriter<Group> writer;
+    private ParquetWriter<ParquetRecordWriteSupport.Record> writer;
 
     private MessageType schema;
 
+    /** per column converters compiled at open, indexed like fullColumnNames */
+    private transient FieldConverter[] converters;
+
+    private transient boolean[] stringColumns;
+
+    private transient ParquetRecordWriteSupport.Record record;
+
     private static ColumnTypeUtil.DecimalInfo PARQUET_DEFAULT_DECIMAL_INFO = new ColumnTypeUtil.DecimalInfo(10, 0);
 
     @Override
@@ -77,8 +78,13 @@ public class HdfsParquetOutputFormat extends BaseHdfsOutputFormat {
         super.openSource();
 
         schema = buildSchema();
-        GroupWriteSupport.setSchema(schema,conf);
-        groupFactory = new SimpleGroupFactory(schema);
+        record = new ParquetRecordWriteSupport.Record(fullColumnNames.size());
+        converters = new FieldConverter[fullColumnNames.size()];
+        stringColumns = new boolean[fullColumnNames.size()];
+        for (int i = 0; i < fullColumnNames.size(); i++) {
+            converters[i] = compileConverter(i);
+            stringColumns[i] = ColumnType.isStringType(fullColumnTypes.get(i));
+        }
     }
 
     @Override
@@ -92,7 +98,7 @@ public class HdfsParquetOutputFormat extends BaseHdfsOutputFormat {
         try {
             String currentBlockTmpPath = tmpPath + SP + currentBlockFileName;
             Path writePath = new Path(currentBlockTmpPath);
-            ExampleParquetWriter.Builder builder = ExampleParquetWriter.builder(writePath)
+            ParquetRecordWriteSupport.Builder builder = new ParquetRecordWriteSupport.Builder(writePath)
                     .withWriteMode(ParquetFileWriter.Mode.CREATE)
                     .withWriterVersion(ParquetProperties.WriterVersion.PARQUET_1_0)
                     .withCompressionCodec(getCompressType())
@@ -168,18 +174,18 @@ public class HdfsParquetOutputFormat extends BaseHdfsOutputFormat {
             nextBlock();
         }
 
-        Group group = groupFactory.newGroup();
+        record.clear();
         int i = 0;
         try {
             for (; i < fullColumnNames.size(); i++) {
                 int colIndex = colIndices[i];
                 if(colIndex > -1){
                     Object valObj = row.getField(colIndex);
-                    if(valObj == null || (valObj.toString().length() == 0 && !ColumnType.isStringType(fullColumnTypes.get(i)))){
+                    if(valObj == null || (!stringColumns[i] && valObj instanceof CharSequence && ((CharSequence) valObj).length() == 0)){
                         continue;
                     }
 
-                    addDataToGroup(group, valObj, i);
+                    converters[i].convert(valObj, i);
                 }
             }
         } catch (Exception e){
@@ -191,7 +197,7 @@ public class HdfsParquetOutputFormat extends BaseHdfsOutputFormat {
         }
 
         try {
-            writer.write(group);
+            writer.write(record);
             rowsOfCurrentBlock++;
 
             if(restoreConfig.isRestore()){
@@ -202,76 +208,118 @@ public class HdfsParquetOutputFormat extends BaseHdfsOutputFormat {
         }
     }
 
-    private void addDataToGroup(Group group, Object valObj, int i) throws Exception{
-        String colName = fullColumnNames.get(i);
-        String colType = fullColumnTypes.get(i);
-        colType = ColumnType.fromString(colType).name().toLowerCase();
-
-        String val = valObj.toString();
+    /**
+     * 按列类型生成转换器，数值类型的值直接写入，不再经过toString再解析
+     */
+    private FieldConverter compileConverter(int i) {
+        String colType;
+        try {
+            colType = ColumnType.fromString(fullColumnTypes.get(i)).name().toLowerCase();
+        } catch (RuntimeException e) {
+            return (valObj, index) -> {
+                throw new IllegalArgumentException(e.getMessage(), e);
+            };
+        }
 
         switch (colType){
             case "tinyint" :
             case "smallint" :
             case "int" :
-                if (valObj instanceof Timestamp){
-                    ((Timestamp) valObj).getTime();
-                    group.add(colName,(int)((Timestamp) valObj).getTime());
-                } else if(valObj instanceof Date){
-                    group.add(colName,(int)((Date) valObj).getTime());
-                } else {
-                    group.add(colName,Integer.parseInt(val));
-                }
-                break;
+                return (valObj, index) -> {
+                    if (valObj instanceof Date){
+                        record.setInt(index, (int)((Date) valObj).getTime());
+                    } else if (valObj instanceof Integer || valObj instanceof Short || valObj instanceof Byte){
+                        record.setInt(index, ((Number) valObj).intValue());
+                    } else {
+                        record.setInt(index, Integer.parseInt(valObj.toString()));
+                    }
+                };
             case "bigint" :
-                if (valObj instanceof Timestamp){
-                    group.add(colName,((Timestamp) valObj).getTime());
-                } else if(valObj instanceof Date){
-                    group.add(colName,((Date) valObj).getTime());
-                } else {
-                    group.add(colName,Long.parseLong(val));
-                }
-                break;
-            case "float" : group.add(colName,Float.parseFloat(val));break;
-            case "double" : group.add(colName,Double.parseDouble(val));break;
-            case "binary" :group.add(colName,Binary.fromString(val));break;
+                return (valObj, index) -> {
+                    if (valObj instanceof Date){
+                        record.setLong(index, ((Date) valObj).getTime());
+                    } else if (isIntegral(valObj)){
+                        record.setLong(index, ((Number) valObj).longValue());
+                    } else {
+                        record.setLong(index, Long.parseLong(valObj.toString()));
+                    }
+                };
+            case "float" :
+                return (valObj, index) -> {
+                    if (valObj instanceof Float || isIntegral(valObj)){
+                        record.setFloat(index, ((Number) valObj).floatValue());
+                    } else {
+                        record.setFloat(index, Float.parseFloat(valObj.toString()));
+                    }
+                };
+            case "double" :
+                return (valObj, index) -> {
+                    if (valObj instanceof Double || isIntegral(valObj)){
+                        record.setDouble(index, ((Number) valObj).doubleValue());
+                    } else {
+                        record.setDouble(index, Double.parseDouble(valObj.toString()));
+                    }
+                };
             case "char" :
             case "varchar" :
             case "string" :
-                if (valObj instanceof Timestamp){
-                    val=DateUtil.getDateTimeFormatter().format(valObj);
-                    group.add(colName,val);
-                }else if (valObj instanceof Map || valObj instanceof List){
-                    group.add(colName,gson.toJson(valObj));
-                }else {
-                    group.add(colName,val);
-                }
-                break;
-            case "boolean" : group.add(colName,Boolean.parseBoolean(val));break;
+                return (valObj, index) -> {
+                    String val;
+                    if (valObj instanceof Timestamp){
+                        val = DateUtil.getDateTimeFormatter().format(valObj);
+                    } else if (valObj instanceof Map || valObj instanceof List){
+                        val = gson.toJson(valObj);
+                    } else {
+                        val = valObj.toString();
+                    }
+                    record.setBinary(index, Binary.fromString(val));
+                };
+            case "boolean" :
+                return (valObj, index) -> {
+                    if (valObj instanceof Boolean){
+                        record.setBoolean(index, (Boolean) valObj);
+                    } else {
+                        record.setBoolean(index, Boolean.parseBoolean(valObj.toString()));
+                    }
+                };
             case "timestamp" :
-                Timestamp ts = DateUtil.columnToTimestamp(valObj,null);
-                byte[] dst = HdfsUtil.longToByteArray(ts.getTime());
-                group.add(colName, Binary.fromConstantByteArray(dst));
-                break;
+                return (valObj, index) -> {
+                    Timestamp ts = DateUtil.columnToTimestamp(valObj,null);
+                    record.setBinary(index, Binary.fromConstantByteArray(HdfsUtil.longToByteArray(ts.getTime())));
+                };
             case "decimal" :
-                ColumnTypeUtil.DecimalInfo decimalInfo = decimalColInfo.get(colName);
-
-                HiveDecimal hiveDecimal = HiveDecimal.create(new BigDecimal(val));
-                hiveDecimal = HiveDecimal.enforcePrecisionScale(hiveDecimal, decimalInfo.getPrecision(), decimalInfo.getScale());
-                if(hiveDecimal == null){
-                    String msg = String.format("第[%s]个数据数据[%s]precision和scale和元数据不匹配:decimal(%s, %s)", i, decimalInfo.getPrecision(), decimalInfo.getScale(), valObj);
-                    throw new WriteRecordException(msg, new IllegalArgumentException());
-                }
+                ColumnTypeUtil.DecimalInfo decimalInfo = decimalColInfo.get(fullColumnNames.get(i));
+                return (valObj, index) -> {
+                    BigDecimal bigDecimal = valObj instanceof BigDecimal ? (BigDecimal) valObj : new BigDecimal(valObj.toString());
+                    HiveDecimal hiveDecimal = HiveDecimal.create(bigDecimal);
+                    hiveDecimal = HiveDecimal.enforcePrecisionScale(hiveDecimal, decimalInfo.getPrecision(), decimalInfo.getScale());
+                    if(hiveDecimal == null){
+                        String msg = String.format("第[%s]个数据数据[%s]precision和scale和元数据不匹配:decimal(%s, %s)", index, decimalInfo.getPrecision(), decimalInfo.getScale(), valObj);
+                        throw new WriteRecordException(msg, new IllegalArgumentException());
+                    }
 
-                group.add(colName, HdfsUtil.decimalToBinary(hiveDecimal, decimalInfo.getPrecision(), decimalInfo.getScale()));
-                break;
+                    record.setBinary(index, HdfsUtil.decimalToBinary(hiveDecimal, decimalInfo.getPrecision(), decimalInfo.getScale()));
+                };
             case "date" :
-                Date date = DateUtil.columnToDate(valObj,null);
-                group.add(colName, DateWritable.dateToDays(new java.sql.Date(date.getTime())));
-                break;
-            default: group.add(colName,val);break;
+                return (valObj, index) -> {
+                    Date date = DateUtil.columnToDate(valObj,null);
+                    record.setInt(index, DateWritable.dateToDays(new java.sql.Date(date.getTime())));
+                };
+            case "binary" :
+            default:
+                return (valObj, index) -> record.setBinary(index, Binary.fromString(valObj.toString()));
         }
     }
 
+    private static boolean isIntegral(Object valObj) {
+        return valObj instanceof Long || valObj instanceof Integer || valObj instanceof Short || valObj instanceof Byte;
+    }
+
+    @FunctionalInterface
+    private interface FieldConverter {
+        void convert(Object valObj, int index) throws Exception;
+    }
+
     @Override
     protected String recordConvertDetailErrorMessage(int pos, Row row) {
         return "\nHdfsParquetOutputFormat [" + jobName + "] writeRecord error: when converting field[" + fullColumnNames.get(pos) + "] in Row(" + row + ")";
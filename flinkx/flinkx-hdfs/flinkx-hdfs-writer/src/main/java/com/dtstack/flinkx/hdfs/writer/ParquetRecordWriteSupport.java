@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.flinkx.hdfs.writer;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.MessageType;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Writes a flat {@link Record} of already converted primitives straight to the parquet record consumer,
+ * so no Group object and no per field name lookups are needed for each row.
+ */
+public class ParquetRecordWriteSupport extends WriteSupport<ParquetRecordWriteSupport.Record> {
+
+    private final MessageType schema;
+
+    private final String[] fieldNames;
+
+    private RecordConsumer consumer;
+
+    public ParquetRecordWriteSupport(MessageType schema) {
+        this.schema = schema;
+        this.fieldNames = new String[schema.getFieldCount()];
+        for (int i = 0; i < fieldNames.length; i++) {
+            fieldNames[i] = schema.getFieldName(i);
+        }
+    }
+
+    @Override
+    public WriteContext init(Configuration configuration) {
+        return new WriteContext(schema, new HashMap<>(0));
+    }
+
+    @Override
+    public void prepareForWrite(RecordConsumer recordConsumer) {
+        this.consumer = recordConsumer;
+    }
+
+    @Override
+    public void write(Record record) {
+        consumer.startMessage();
+        for (int i = 0; i < fieldNames.length; i++) {
+            byte kind = record.kinds[i];
+            if (kind == Record.ABSENT) {
+                continue;
+            }
+
+            consumer.startField(fieldNames[i], i);
+            switch (kind) {
+                case Record.INT:
+                    consumer.addInteger((int) record.longs[i]);
+                    break;
+                case Record.LONG:
+                    consumer.addLong(record.longs[i]);
+                    break;
+                case Record.FLOAT:
+                    consumer.addFloat((float) record.doubles[i]);
+                    break;
+                case Record.DOUBLE:
+                    consumer.addDouble(record.doubles[i]);
+                    break;
+                case Record.BOOLEAN:
+                    consumer.addBoolean(record.longs[i] != 0);
+                    break;
+                default:
+                    consumer.addBinary(record.binaries[i]);
+                    break;
+            }
+            consumer.endField(fieldNames[i], i);
+        }
+        consumer.endMessage();
+    }
+
+    /**
+     * Reusable row holder, one slot per schema field. Fields that are not set are skipped as null.
+     */
+    public static class Record {
+
+        static final byte ABSENT = 0;
+        static final byte INT = 1;
+        static final byte LONG = 2;
+        static final byte FLOAT = 3;
+        static final byte DOUBLE = 4;
+        static final byte BOOLEAN = 5;
+        static final byte BINARY = 6;
+
+        private final byte[] kinds;
+        private final long[] longs;
+        private final double[] doubles;
+        private final Binary[] binaries;
+
+        public Record(int fieldCount) {
+            kinds = new byte[fieldCount];
+            longs = new long[fieldCount];
+            doubles = new double[fieldCount];
+            binaries = new Binary[fieldCount];
+        }
+
+        public void clear() {
+            Arrays.fill(kinds, ABSENT);
+            Arrays.fill(binaries, null);
+        }
+
+        public void setInt(int i, int value) {
+            kinds[i] = INT;
+            longs[i] = value;
+        }
+
+        public void setLong(int i, long value) {
+            kinds[i] = LONG;
+            longs[i] = value;
+        }
+
+        public void setFloat(int i, float value) {
+            kinds[i] = FLOAT;
+            doubles[i] = value;
+        }
+
+        public void setDouble(int i, double value) {
+            kinds[i] = DOUBLE;
+            doubles[i] = value;
+        }
+
+        public void setBoolean(int i, boolean value) {
+            kinds[i] = BOOLEAN;
+            longs[i] = value ? 1 : 0;
+        }
+
+        public void setBinary(int i, Binary value) {
+            kinds[i] = BINARY;
+            binaries[i] = value;
+        }
+    }
+
+    public static class Builder extends ParquetWriter.Builder<Record, Builder> {
+
+        private MessageType schema;
+
+        public Builder(Path file) {
+            super(file);
+        }
+
+        public Builder withType(MessageType schema) {
+            this.schema = schema;
+            return this;
+        }
+
+        @Override
+        protected Builder self() {
+            return this;
+        }
+
+        @Override
+        protected WriteSupport<Record> getWriteSupport(Configuration conf) {
+            return new ParquetRecordWriteSupport(schema);
+        }
+    }
+}
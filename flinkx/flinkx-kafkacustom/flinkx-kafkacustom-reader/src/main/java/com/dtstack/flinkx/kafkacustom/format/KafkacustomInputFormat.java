@@ -31,7 +31,6 @@ import com.dtstack.flinkx.reader.MetaColumn;
 import com.dtstack.flinkx.restore.FormatState;
 //import com.dtstack.flinkx.util.ProtoBufUtil;
 import com.dtstack.flinkx.util.RangeSplitUtil;
-import com.dtstack.flinkx.util.StringUtil;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
 import org.apache.commons.lang3.tuple.Pair;
@@ -129,7 +128,7 @@ public class KafkacustomInputFormat extends KafkaBaseInputFormat {
                     MetaColumn metaColumn = metaColumns.get(i);
                     Object value = pair.getLeft().get(metaColumn.getName());
                     try {
-                        Object obj = StringUtil.string2col(String.valueOf(value), metaColumn.getType(), metaColumn.getTimeFormat());
+                        Object obj = columnConverters[i].convert(String.valueOf(value));
                         row.setField(i , obj);
                     } catch (Exception e) {
                         row.setField(i , null);
@@ -30,7 +30,7 @@ import com.dtstack.flinkx.kafkabase.enums.StartupMode;
 import com.dtstack.flinkx.reader.MetaColumn;
 import com.dtstack.flinkx.restore.FormatState;
 import com.dtstack.flinkx.util.ExceptionUtil;
-import com.dtstack.flinkx.util.StringUtil;
+import com.dtstack.flinkx.util.ColumnConverter;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
 import org.apache.commons.lang3.tuple.Pair;
@@ -66,6 +66,7 @@ public class KafkaBaseInputFormat extends BaseRichInputFormat {
     protected Long timestamp;
     protected Map<String, String> consumerSettings;
     protected List<MetaColumn> metaColumns;
+    protected transient ColumnConverter[] columnConverters;
     protected Map<String, kafkaState> stateMap;
     protected volatile boolean running = false;
     protected transient BlockingQueue<Row> queue;
@@ -89,6 +90,9 @@ public class KafkaBaseInputFormat extends BaseRichInputFormat {
         super.openInputFormat();
         queue = new SynchronousQueue<>(false);
         stateMap = new HashMap<>(16);
+        if (CollectionUtils.isNotEmpty(metaColumns)) {
+            columnConverters = ColumnConverter.of(metaColumns);
+        }
         if (DecodeEnum.JSON.getName().equalsIgnoreCase(codec)) {
             decode = new JsonDecoder();
         } else {
@@ -124,7 +128,7 @@ public class KafkaBaseInputFormat extends BaseRichInputFormat {
                 for (int i = 0; i < metaColumns.size(); i++) {
                     MetaColumn metaColumn = metaColumns.get(i);
                     Object value = pair.getLeft().get(metaColumn.getName());
-                    Object obj = StringUtil.string2col(String.valueOf(value), metaColumn.getType(), metaColumn.getTimeFormat());
+                    Object obj = columnConverters[i].convert(String.valueOf(value));
                     row.setField(i , obj);
                 }
             }
@@ -25,7 +25,6 @@ import com.dtstack.flinkx.kingbase.util.KingBaseTypeConverter;
 import com.dtstack.flinkx.kingbase.format.KingbaseOutputFormat;
 import com.dtstack.flinkx.rdb.datawriter.JdbcDataWriter;
 import com.dtstack.flinkx.rdb.outputformat.JdbcOutputFormatBuilder;
-import com.dtstack.flinkx.streaming.api.functions.sink.DtOutputFormatSinkFunction;
 import org.apache.flink.streaming.api.datastream.DataStream;
 import org.apache.flink.streaming.api.datastream.DataStreamSink;
 import org.apache.flink.types.Row;
@@ -78,10 +77,7 @@ public class KingbaseWriter extends JdbcDataWriter {
         builder.setRestoreConfig(restoreConfig);
         builder.setInsertSqlMode(insertSqlMode);
 
-        DtOutputFormatSinkFunction sinkFunction = new DtOutputFormatSinkFunction(builder.finish());
-        DataStreamSink<?> dataStreamSink = dataSet.addSink(sinkFunction);
         String sinkName = (databaseInterface.getDatabaseType() + KEY_WRITER).toLowerCase();
-        dataStreamSink.name(sinkName);
-        return dataStreamSink;
+        return createOutput(dataSet, builder.finish(), sinkName);
     }
 }
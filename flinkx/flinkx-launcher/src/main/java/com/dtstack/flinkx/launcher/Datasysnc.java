@@ -17,14 +17,12 @@
  */
 package com.dtstack.flinkx.launcher;
 
-import com.dtstack.flinkx.config.ContentConfig;
 import com.dtstack.flinkx.config.DataTransferConfig;
 import com.dtstack.flinkx.enums.ClusterMode;
 import com.dtstack.flinkx.launcher.perJob.PerJobSubmitter;
 import com.dtstack.flinkx.options.OptionParser;
 import com.dtstack.flinkx.options.Options;
 import com.dtstack.flinkx.util.JsonModifyUtil;
-import com.dtstack.flinkx.util.SysUtil;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.flink.client.ClientUtils;
 import org.apache.flink.client.program.ClusterClient;
@@ -40,9 +38,7 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FilenameFilter;
-import java.net.MalformedURLException;
 import java.net.URL;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 
@@ -142,29 +138,12 @@ public class Datasysnc {
     }
 
     public static List<URL> analyzeUserClasspath(String content, String pluginRoot) {
-        List<URL> urlList = new ArrayList<>();
-
         String jobJson = readJob(content);
         DataTransferConfig config = DataTransferConfig.parse(jobJson);
 
         Preconditions.checkNotNull(pluginRoot);
 
-        ContentConfig contentConfig = config.getJob().getContent().get(0);
-        String readerName = contentConfig.getReader().getName().toLowerCase();
-        File readerDir = new File(pluginRoot + File.separator + readerName);
-        String writerName = contentConfig.getWriter().getName().toLowerCase();
-        File writerDir = new File(pluginRoot + File.separator + writerName);
-        File commonDir = new File(pluginRoot + File.separator + "common");
-
-        try {
-            urlList.addAll(SysUtil.findJarsInDir(readerDir));
-            urlList.addAll(SysUtil.findJarsInDir(writerDir));
-            urlList.addAll(SysUtil.findJarsInDir(commonDir));
-        } catch (MalformedURLException e) {
-            throw new RuntimeException(e);
-        }
-
-        return urlList;
+        return Launcher.getPluginClasspath(pluginRoot, config);
     }
 
     private static void findDefaultConfigDir(Options launcherOptions) {
@@ -17,6 +17,7 @@
  */
 package com.dtstack.flinkx.launcher;
 
+import com.dtstack.flinkx.classloader.PluginUtil;
 import com.dtstack.flinkx.config.ContentConfig;
 import com.dtstack.flinkx.config.DataTransferConfig;
 import com.dtstack.flinkx.enums.ClusterMode;
@@ -36,15 +37,15 @@ import org.apache.flink.runtime.jobgraph.SavepointRestoreSettings;
 import org.apache.flink.util.Preconditions;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FilenameFilter;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * FlinkX commandline Launcher
@@ -137,29 +138,57 @@ public class Launcher {
     }
 
     public static List<URL> analyzeUserClasspath(String content, String pluginRoot) {
-        List<URL> urlList = new ArrayList<>();
-
         String jobJson = readJob(content);
         DataTransferConfig config = DataTransferConfig.parse(jobJson);
 
         Preconditions.checkNotNull(pluginRoot);
 
-        ContentConfig contentConfig = config.getJob().getContent().get(0);
-        String readerName = contentConfig.getReader().getName().toLowerCase();
-        File readerDir = new File(pluginRoot + File.separator + readerName);
-        String writerName = contentConfig.getWriter().getName().toLowerCase();
-        File writerDir = new File(pluginRoot + File.separator + writerName);
-        File commonDir = new File(pluginRoot + File.separator + "common");
+        return getPluginClasspath(pluginRoot, config);
+    }
+
+    /**
+     * 任务中所有content的reader/writer插件的classpath，多个content使用相同插件时只扫描一次
+     */
+    public static List<URL> getPluginClasspath(String pluginRoot, DataTransferConfig config) {
+        List<ContentConfig> contentList = config.getJob().getContent();
+        if (contentList.size() == 1) {
+            ContentConfig contentConfig = contentList.get(0);
+            return getPluginClasspath(pluginRoot, contentConfig.getReader().getName().toLowerCase(), contentConfig.getWriter().getName().toLowerCase());
+        }
+
+        Set<String> plugins = new LinkedHashSet<>();
+        List<URL> urlList = new ArrayList<>();
+        for (ContentConfig contentConfig : contentList) {
+            String readerName = contentConfig.getReader().getName().toLowerCase();
+            String writerName = contentConfig.getWriter().getName().toLowerCase();
+            if (plugins.add(readerName + File.pathSeparator + writerName)) {
+                urlList.addAll(getPluginClasspath(pluginRoot, readerName, writerName));
+            }
+        }
+        return PluginUtil.distinctByContent(urlList, pluginRoot);
+    }
+
+    /**
+     * reader/writer/common目录下的jar，内容相同的jar只保留一个，减少ship到集群的文件；
+     * jar指纹保存在插件根目录下，每次提交只需要列目录，不会重新读取未修改的jar
+     */
+    public static List<URL> getPluginClasspath(String pluginRoot, String readerName, String writerName) {
+        File[] pluginDirs = new File[]{
+                new File(pluginRoot + File.separator + readerName),
+                new File(pluginRoot + File.separator + writerName),
+                new File(pluginRoot + File.separator + "common")
+        };
 
+        List<URL> urlList = new ArrayList<>();
         try {
-            urlList.addAll(SysUtil.findJarsInDir(readerDir));
-            urlList.addAll(SysUtil.findJarsInDir(writerDir));
-            urlList.addAll(SysUtil.findJarsInDir(commonDir));
+            for (File pluginDir : pluginDirs) {
+                urlList.addAll(SysUtil.findJarsInDir(pluginDir));
+            }
         } catch (MalformedURLException e) {
             throw new RuntimeException(e);
         }
 
-        return urlList;
+        return PluginUtil.distinctByContent(urlList, pluginRoot);
     }
 
     private static void findDefaultConfigDir(Options launcherOptions) {
@@ -257,12 +286,8 @@ public class Launcher {
     }
 
     private static String readJob(String job) {
-        File file = new File(job);
-        try (FileInputStream in = new FileInputStream(file)) {
-            byte[] fileContent = new byte[(int) file.length()];
-            in.read(fileContent);
-            in.close();
-            return new String(fileContent, StandardCharsets.UTF_8);
+        try {
+            return OptionParser.readJob(job);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -52,6 +52,11 @@ public class MongodbConfig implements Serializable {
 
     private String replaceKey;
 
+    private int batchSize = 1;
+
+    /** 写入确认级别，如 acknowledged/majority/w1，为空时使用连接默认值 */
+    private String writeConcern;
+
     private List<String> monitorDatabases;
 
     private List<String> monitorCollections;
@@ -259,6 +264,22 @@ public class MongodbConfig implements Serializable {
         this.replaceKey = replaceKey;
     }
 
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public String getWriteConcern() {
+        return writeConcern;
+    }
+
+    public void setWriteConcern(String writeConcern) {
+        this.writeConcern = writeConcern;
+    }
+
     public ConnectionConfig getMongodbConfig() {
         return mongodbConfig;
     }
@@ -297,6 +318,8 @@ public class MongodbConfig implements Serializable {
                 ", fetchSize=" + fetchSize +
                 ", writeMode='" + writeMode + '\'' +
                 ", replaceKey='" + replaceKey + '\'' +
+                ", batchSize=" + batchSize +
+                ", writeConcern='" + writeConcern + '\'' +
                 ", monitorDatabases=" + monitorDatabases +
                 ", monitorCollections=" + monitorCollections +
                 ", operateType=" + operateType +
@@ -25,7 +25,7 @@ import com.dtstack.flinkx.mongodb.MongodbConfig;
 import com.dtstack.flinkx.reader.MetaColumn;
 import com.dtstack.flinkx.util.ExceptionUtil;
 import com.dtstack.flinkx.util.GsonUtil;
-import com.dtstack.flinkx.util.StringUtil;
+import com.dtstack.flinkx.util.ColumnConverter;
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
@@ -65,9 +65,12 @@ public class MongodbInputFormat extends BaseRichInputFormat {
 
     private transient MongoClient client;
 
+    private transient ColumnConverter[] columnConverters;
+
     @Override
     public void openInputFormat() throws IOException {
         super.openInputFormat();
+        columnConverters = ColumnConverter.of(metaColumns);
 
         buildFilter();
     }
@@ -120,7 +123,7 @@ public class MongodbInputFormat extends BaseRichInputFormat {
                 }
 
                 if(value instanceof String){
-                    value = StringUtil.string2col(String.valueOf(value),metaColumn.getType(),metaColumn.getTimeFormat());
+                    value = columnConverters[i].convert(String.valueOf(value));
                 }
 
                 row.setField(i,value);
@@ -25,9 +25,20 @@ import com.dtstack.flinkx.mongodb.MongodbUtil;
 import com.dtstack.flinkx.outputformat.BaseRichOutputFormat;
 import com.dtstack.flinkx.reader.MetaColumn;
 import com.dtstack.flinkx.writer.WriteMode;
+import com.mongodb.MongoBulkWriteException;
 import com.mongodb.MongoClient;
+import com.mongodb.WriteConcern;
+import com.mongodb.bulk.BulkWriteError;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
+import org.apache.commons.lang.StringUtils;
 import org.apache.flink.configuration.Configuration;
 import org.apache.flink.types.Row;
 import org.bson.Document;
@@ -52,6 +63,12 @@ public class MongodbOutputFormat extends BaseRichOutputFormat {
 
     protected MongodbConfig mongodbConfig;
 
+    private static final BulkWriteOptions UNORDERED = new BulkWriteOptions().ordered(false);
+
+    private static final ReplaceOptions REPLACE_UPSERT = new ReplaceOptions().upsert(true);
+
+    private static final UpdateOptions UPDATE_UPSERT = new UpdateOptions().upsert(true);
+
     @Override
     public void configure(Configuration parameters) {
 
@@ -62,6 +79,9 @@ public class MongodbOutputFormat extends BaseRichOutputFormat {
         client = MongodbClientUtil.getClient(mongodbConfig);
         MongoDatabase db = client.getDatabase(mongodbConfig.getDatabase());
         collection = db.getCollection(mongodbConfig.getCollectionName());
+        if (StringUtils.isNotEmpty(mongodbConfig.getWriteConcern())) {
+            collection = collection.withWriteConcern(WriteConcern.valueOf(mongodbConfig.getWriteConcern()));
+        }
     }
 
     @Override
@@ -71,30 +91,55 @@ public class MongodbOutputFormat extends BaseRichOutputFormat {
 
             if(WriteMode.INSERT.getMode().equals(mongodbConfig.getWriteMode())){
                 collection.insertOne(doc);
-            } else if(WriteMode.REPLACE.getMode().equals(mongodbConfig.getWriteMode())
-                    || WriteMode.UPDATE.getMode().equals(mongodbConfig.getWriteMode())){
-                Document filter = new Document(mongodbConfig.getReplaceKey(), doc.get(mongodbConfig.getReplaceKey()));
-                collection.findOneAndReplace(filter,doc);
+            } else if(WriteMode.REPLACE.getMode().equals(mongodbConfig.getWriteMode())){
+                collection.replaceOne(replaceFilter(doc), doc, REPLACE_UPSERT);
+            } else if(WriteMode.UPDATE.getMode().equals(mongodbConfig.getWriteMode())){
+                collection.updateOne(replaceFilter(doc), new Document("$set", doc), UPDATE_UPSERT);
             }
         } catch (Exception e){
             throw new WriteRecordException("Writer data to mongodb error", e, 0, row);
         }
     }
 
+    /**
+     * 整批以无序bulkWrite提交，replace/update模式按replaceKey upsert
+     * 单条失败只影响对应的行，按错误下标记为脏数据，其余行正常写入
+     */
     @Override
     protected void writeMultipleRecordsInternal() throws Exception {
-        List<Document> documents = new ArrayList<>(rows.size());
+        List<WriteModel<Document>> models = new ArrayList<>(rows.size());
         for (Row row : rows) {
-            documents.add(MongodbUtil.convertRowToDoc(row,columns));
+            models.add(toWriteModel(MongodbUtil.convertRowToDoc(row,columns)));
         }
 
-        if(WriteMode.INSERT.getMode().equals(mongodbConfig.getWriteMode())){
-            collection.insertMany(documents);
+        try {
+            collection.bulkWrite(models, UNORDERED);
+        } catch (MongoBulkWriteException e) {
+            if (e.getWriteConcernError() != null) {
+                throw e;
+            }
+
+            for (BulkWriteError error : e.getWriteErrors()) {
+                Row row = rows.get(error.getIndex());
+                writeDirtyRecord(row, new WriteRecordException("Writer data to mongodb error: " + error.getMessage(), e, -1, row));
+                if (errorLimiter != null) {
+                    errorLimiter.acquire();
+                }
+            }
+        }
+    }
+
+    private WriteModel<Document> toWriteModel(Document doc) {
+        if(WriteMode.REPLACE.getMode().equals(mongodbConfig.getWriteMode())){
+            return new ReplaceOneModel<>(replaceFilter(doc), doc, REPLACE_UPSERT);
         } else if(WriteMode.UPDATE.getMode().equals(mongodbConfig.getWriteMode())) {
-            throw new RuntimeException("Does not support batch update documents");
-        } else if(WriteMode.REPLACE.getMode().equals(mongodbConfig.getWriteMode())){
-            throw new RuntimeException("Does not support batch replace documents");
+            return new UpdateOneModel<>(replaceFilter(doc), new Document("$set", doc), UPDATE_UPSERT);
         }
+        return new InsertOneModel<>(doc);
+    }
+
+    private Document replaceFilter(Document doc) {
+        return new Document(mongodbConfig.getReplaceKey(), doc.get(mongodbConfig.getReplaceKey()));
     }
 
     @Override
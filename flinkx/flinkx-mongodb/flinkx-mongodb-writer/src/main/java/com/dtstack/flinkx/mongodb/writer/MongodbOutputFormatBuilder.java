@@ -22,6 +22,7 @@ import com.dtstack.flinkx.mongodb.MongodbConfig;
 import com.dtstack.flinkx.outputformat.BaseRichOutputFormatBuilder;
 import com.dtstack.flinkx.reader.MetaColumn;
 import com.dtstack.flinkx.writer.WriteMode;
+import com.mongodb.WriteConcern;
 import org.apache.commons.lang.StringUtils;
 
 import java.util.List;
@@ -73,6 +74,11 @@ public class MongodbOutputFormatBuilder extends BaseRichOutputFormatBuilder {
             }
         }
 
+        if(StringUtils.isNotEmpty(format.mongodbConfig.getWriteConcern())
+                && WriteConcern.valueOf(format.mongodbConfig.getWriteConcern()) == null){
+            throw new IllegalArgumentException("Unknown writeConcern:" + format.mongodbConfig.getWriteConcern());
+        }
+
         if (format.getRestoreConfig() != null && format.getRestoreConfig().isRestore()){
             throw new UnsupportedOperationException("This plugin not support restore from failed state");
         }
@@ -60,6 +60,7 @@ public class MongodbWriter extends BaseDataWriter {
 
         builder.setMongodbConfig(mongodbConfig);
         builder.setColumns(columns);
+        builder.setBatchInterval(mongodbConfig.getBatchSize());
         builder.setMonitorUrls(monitorUrls);
         builder.setErrors(errors);
         builder.setDirtyPath(dirtyPath);
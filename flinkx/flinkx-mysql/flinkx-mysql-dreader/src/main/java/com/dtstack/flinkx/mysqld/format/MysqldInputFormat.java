@@ -23,7 +23,6 @@ import com.dtstack.flinkx.rdb.datareader.QuerySqlBuilder;
 import com.dtstack.flinkx.rdb.inputformat.DistributedJdbcInputFormat;
 import com.dtstack.flinkx.rdb.util.DbUtil;
 import com.dtstack.flinkx.util.DateUtil;
-import com.dtstack.flinkx.util.StringUtil;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.flink.types.Row;
 
@@ -112,7 +111,7 @@ public class MysqldInputFormat extends DistributedJdbcInputFormat {
                         }
 
                         if (val instanceof String){
-                            val = StringUtil.string2col(String.valueOf(val),metaColumns.get(i).getType(),metaColumns.get(i).getTimeFormat());
+                            val = columnConverters[i].convert(String.valueOf(val));
                             currentRecord.setField(i,val);
                         }
                     }
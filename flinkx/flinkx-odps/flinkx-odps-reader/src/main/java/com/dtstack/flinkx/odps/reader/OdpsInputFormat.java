@@ -26,7 +26,7 @@ import com.dtstack.flinkx.constants.ConstantValue;
 import com.dtstack.flinkx.inputformat.BaseRichInputFormat;
 import com.dtstack.flinkx.odps.OdpsUtil;
 import com.dtstack.flinkx.reader.MetaColumn;
-import com.dtstack.flinkx.util.StringUtil;
+import com.dtstack.flinkx.util.ColumnConverter;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.flink.core.io.InputSplit;
@@ -71,9 +71,12 @@ public class OdpsInputFormat extends BaseRichInputFormat {
 
     private transient Record record;
 
+    private transient ColumnConverter[] columnConverters;
+
     @Override
     public void openInputFormat() throws IOException {
         super.openInputFormat();
+        columnConverters = ColumnConverter.of(metaColumns);
 
         odps = OdpsUtil.initOdps(odpsConfig);
     }
@@ -161,7 +164,7 @@ public class OdpsInputFormat extends BaseRichInputFormat {
                 }
 
                 if(val != null && val instanceof String){
-                    val = StringUtil.string2col(String.valueOf(val),metaColumn.getType(),metaColumn.getTimeFormat());
+                    val = columnConverters[i].convert(String.valueOf(val));
                 }
 
                 row.setField(i,val);
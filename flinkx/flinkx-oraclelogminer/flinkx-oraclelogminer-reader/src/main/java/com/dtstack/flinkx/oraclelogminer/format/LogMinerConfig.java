@@ -74,6 +74,32 @@ public class LogMinerConfig implements Serializable {
      */
     private boolean supportAutoAddLog;
 
+    /**
+     * 解析redo日志的线程数，解析结果仍按查询顺序输出
+     */
+    private int parseParallelism = 4;
+
+    /**
+     * 每次查询v$logmnr_contents的初始scn范围，运行时根据每次查询出的数据量自动调整
+     */
+    private long scnWindowSize = 10000L;
+
+    public int getParseParallelism() {
+        return parseParallelism;
+    }
+
+    public void setParseParallelism(int parseParallelism) {
+        this.parseParallelism = parseParallelism;
+    }
+
+    public long getScnWindowSize() {
+        return scnWindowSize;
+    }
+
+    public void setScnWindowSize(long scnWindowSize) {
+        this.scnWindowSize = scnWindowSize;
+    }
+
     public boolean getSupportAutoAddLog() {
         return supportAutoAddLog;
     }
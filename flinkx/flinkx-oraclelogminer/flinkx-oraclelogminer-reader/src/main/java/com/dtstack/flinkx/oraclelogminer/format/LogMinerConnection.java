@@ -79,7 +79,6 @@ public class LogMinerConnection {
     public final static String KEY_SCN = "SCN";
     public final static String KEY_CURRENT_SCN = "CURRENT_SCN";
     public final static String KEY_FIRST_CHANGE = "FIRST_CHANGE#";
-    private static final long QUERY_LOG_INTERVAL = 10000;
     public static Logger LOG = LoggerFactory.getLogger(LogMinerConnection.class);
     public int oracleVersion;
     //oracle10数据库字符编码是否设置为GBK
@@ -92,7 +91,6 @@ public class LogMinerConnection {
     private ResultSet logMinerData;
     private QueueData result;
     private List<LogFile> addedLogFiles = new ArrayList<>();
-    private long lastQueryTime;
     private boolean logMinerStarted = false;
 
     /**
@@ -152,25 +150,12 @@ public class LogMinerConnection {
     }
 
     /**
-     * 启动LogMiner
+     * 启动LogMiner，没有新数据时的等待由LogMinerListener控制
      * @param startScn
      */
     public void startOrUpdateLogMiner(Long startScn) {
         String startSql = null;
         try {
-            // 防止没有数据更新的时候频繁查询数据库，限定查询的最小时间间隔 QUERY_LOG_INTERVAL
-            if (lastQueryTime > 0) {
-                long time = System.currentTimeMillis() - lastQueryTime;
-                if (time < QUERY_LOG_INTERVAL) {
-                    try {
-                        Thread.sleep(QUERY_LOG_INTERVAL-time);
-                    } catch (InterruptedException e) {
-                        LOG.warn("", e);
-                    }
-                }
-            }
-            lastQueryTime = System.currentTimeMillis();
-
             if (logMinerConfig.getSupportAutoAddLog()) {
                 startSql = isOracle10 ? SqlUtil.SQL_START_LOG_MINER_AUTO_ADD_LOG_10 : SqlUtil.SQL_START_LOG_MINER_AUTO_ADD_LOG;
             } else {
@@ -205,20 +190,22 @@ public class LogMinerConnection {
     }
 
     /**
-     * 从LogMiner视图查询数据
+     * 从LogMiner视图查询(startScn, endScn]范围内的数据
      * @param startScn
+     * @param endScn
      * @param logMinerSelectSql
      */
-    public void queryData(Long startScn, String logMinerSelectSql) {
+    public void queryData(Long startScn, Long endScn, String logMinerSelectSql) {
         try {
             logMinerSelectStmt = connection.prepareStatement(logMinerSelectSql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
             configStatement(logMinerSelectStmt);
 
             logMinerSelectStmt.setFetchSize(logMinerConfig.getFetchSize());
             logMinerSelectStmt.setLong(1, startScn);
+            logMinerSelectStmt.setLong(2, endScn);
             logMinerData = logMinerSelectStmt.executeQuery();
 
-            LOG.debug("query Log miner data, offset:{}", startScn);
+            LOG.debug("query Log miner data, offset:{}, endScn:{}", startScn, endScn);
         } catch (SQLException e) {
             String message = String.format("query logMiner data failed, sql:[%s], e: %s", logMinerSelectSql, ExceptionUtil.getErrorMessage(e));
             LOG.error(message);
@@ -317,7 +304,7 @@ public class LogMinerConnection {
         }
     }
 
-    private Long getCurrentScn() {
+    public Long getCurrentScn() {
         Long currentScn = null;
         CallableStatement currentScnStmt = null;
         ResultSet currentScnResultSet = null;
@@ -432,7 +419,6 @@ public class LogMinerConnection {
             }
         }
 
-        lastQueryTime = System.currentTimeMillis();
         return logFiles;
     }
 
@@ -24,22 +24,28 @@ import com.dtstack.flinkx.oraclelogminer.util.OraUtil;
 import com.dtstack.flinkx.oraclelogminer.util.SqlUtil;
 import com.dtstack.flinkx.util.ExceptionUtil;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
-import net.sf.jsqlparser.JSQLParserException;
 import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 /**
+ * 按scn范围分段查询v$logmnr_contents，查询线程只负责拉取数据，redo语句交给解析线程池处理，
+ * 解析结果按查询顺序放入队列，保证输出顺序和单线程解析一致
+ *
  * @author jiangbo
  * @date 2020/3/27
  */
@@ -47,10 +53,38 @@ public class LogMinerListener implements Runnable {
 
     public static Logger LOG = LoggerFactory.getLogger(LogMinerListener.class);
 
-    private BlockingQueue<QueueData> queue;
+    /**
+     * 已提交解析但还未被读取的数据条数上限
+     */
+    private static final int QUEUE_CAPACITY = 1024;
+
+    private static final long MIN_SCN_WINDOW_SIZE = 100L;
+
+    private static final long MAX_SCN_WINDOW_SIZE = 10000000L;
+
+    /**
+     * 一个scn范围期望查询出的数据量为fetchSize的倍数，超过时缩小范围，远小于时扩大范围
+     */
+    private static final int WINDOW_TARGET_FETCH_TIMES = 10;
+
+    private static final long MIN_IDLE_WAIT = 500L;
+
+    /**
+     * 没有新数据时查询的最大间隔
+     */
+    private static final long MAX_IDLE_WAIT = 10000L;
+
+    /**
+     * 同一条redo日志最多解析的次数，都失败时任务失败，位置不会越过这条日志
+     */
+    private static final int MAX_PARSE_TIMES = 3;
+
+    private BlockingQueue<PendingData> queue;
 
     private ExecutorService executor;
 
+    private ExecutorService parseExecutor;
+
     private LogMinerConfig logMinerConfig;
 
     private LogMinerConnection logMinerConnection;
@@ -70,6 +104,29 @@ public class LogMinerListener implements Runnable {
      */
     private int failedTimes;
 
+    /**
+     * 当前查询的scn范围(windowStart, windowEnd]，只在查询线程中访问
+     */
+    private long windowStart;
+
+    private long windowEnd;
+
+    /**
+     * 查询当前范围时数据库的最新scn
+     */
+    private long windowCurrentScn;
+
+    private long windowRows;
+
+    private long windowSize;
+
+    private long idleWait;
+
+    /**
+     * 最后一条提交解析的数据的scn
+     */
+    private long lastQueuedScn;
+
     public LogMinerListener(LogMinerConfig logMinerConfig, PositionManager positionManager) {
         this.positionManager = positionManager;
         this.logMinerConfig = logMinerConfig;
@@ -77,7 +134,7 @@ public class LogMinerListener implements Runnable {
     }
 
     public void init() {
-        queue = new SynchronousQueue<>(false);
+        queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
 
         ThreadFactory namedThreadFactory = new ThreadFactoryBuilder().setNameFormat("LogMiner-pool-%d").build();
         executor = new ThreadPoolExecutor(1,
@@ -87,6 +144,10 @@ public class LogMinerListener implements Runnable {
                 namedThreadFactory,
                 new ThreadPoolExecutor.AbortPolicy());
 
+        ThreadFactory parseThreadFactory = new ThreadFactoryBuilder().setNameFormat("LogMiner-parse-pool-%d").setDaemon(true).build();
+        parseExecutor = Executors.newFixedThreadPool(logMinerConfig.getParseParallelism(), parseThreadFactory);
+        windowSize = Math.min(Math.max(logMinerConfig.getScnWindowSize(), MIN_SCN_WINDOW_SIZE), MAX_SCN_WINDOW_SIZE);
+
         logMinerConnection = new LogMinerConnection(logMinerConfig);
         logParser = new LogParser(logMinerConfig);
     }
@@ -98,6 +159,9 @@ public class LogMinerListener implements Runnable {
         Long startScn = logMinerConnection.getStartScn(positionManager.getPosition());
         logMinerConnection.setPreScn(startScn);
         positionManager.updatePosition(startScn);
+        windowStart = startScn;
+        windowEnd = startScn;
+        lastQueuedScn = startScn;
 
         logMinerSelectSql = SqlUtil.buildSelectSql(logMinerConfig.getCat(), logMinerConfig.getListenerTables());
         executor.execute(this);
@@ -113,29 +177,24 @@ public class LogMinerListener implements Runnable {
         });
 
         while (running) {
-            QueueData log = null;
             try {
                 if (logMinerConnection.hasNext()) {
-                    log = logMinerConnection.next();
-                    queue.put(logParser.parse(log, logMinerConnection.isOracle10));
+                    QueueData log = logMinerConnection.next();
+                    boolean isOracle10 = logMinerConnection.isOracle10;
+                    //ts需要按数据顺序生成，不能放到解析线程中
+                    long ts = LogParser.idWorker.nextId();
+                    queue.put(new PendingData(log, isOracle10, ts, parseExecutor.submit(() -> logParser.parse(log, isOracle10, ts))));
+                    lastQueuedScn = log.getScn();
+                    windowRows++;
                 } else {
-                    logMinerConnection.closeStmt();
-                    logMinerConnection.startOrUpdateLogMiner(positionManager.getPosition());
-                    logMinerConnection.queryData(positionManager.getPosition(), logMinerSelectSql);
-                    LOG.debug("Update log and continue read:{}", positionManager.getPosition());
+                    nextWindow();
                 }
             } catch (Exception e) {
-                StringBuilder sb = new StringBuilder(512);
-                sb.append("LogMinerListener thread exception: current scn =")
-                        .append(positionManager.getPosition());
-                if (e instanceof JSQLParserException) {
-                    sb.append(",\nlog = ").append(log);
-                }
-                sb.append(",\ne = ").append(ExceptionUtil.getErrorMessage(e));
-                String msg = sb.toString();
+                String msg = "LogMinerListener thread exception: current scn =" + positionManager.getPosition() +
+                        ",\ne = " + ExceptionUtil.getErrorMessage(e);
                 LOG.warn(msg);
                 try {
-                    queue.put(new QueueData(0L, Collections.singletonMap("e", msg)));
+                    queue.put(new PendingData(new QueueData(0L, Collections.singletonMap("e", msg))));
                     Thread.sleep(2000L);
                 } catch (InterruptedException ex) {
                     LOG.warn("error to put exception message into queue, e = {}", ExceptionUtil.getErrorMessage(ex));
@@ -146,17 +205,78 @@ public class LogMinerListener implements Runnable {
                     LOG.warn("LogMiner Thread disConnect exception, e = {}", ExceptionUtil.getErrorMessage(e1));
                 }
 
+                //从最后一条已提交解析的数据之后重新查询，当前范围不放入结束标记
+                windowStart = Math.max(windowStart, lastQueuedScn);
+                windowEnd = windowStart;
                 logMinerConnection.connect();
             }
         }
     }
 
+    /**
+     * 当前scn范围读取完后，放入范围结束标记，并开始查询下一个范围
+     */
+    private void nextWindow() throws InterruptedException {
+        logMinerConnection.closeStmt();
+
+        if (windowEnd > windowStart) {
+            queue.put(new PendingData(new QueueData(windowEnd, null)));
+            boolean caughtUp = windowEnd >= windowCurrentScn;
+            if (!caughtUp) {
+                adjustWindowSize();
+            }
+            windowStart = windowEnd;
+
+            if (caughtUp && windowRows == 0) {
+                waitForNewData();
+            } else {
+                idleWait = 0;
+            }
+        }
+
+        windowCurrentScn = logMinerConnection.getCurrentScn();
+        if (windowCurrentScn <= windowStart) {
+            waitForNewData();
+            return;
+        }
+
+        windowEnd = Math.min(windowStart + windowSize, windowCurrentScn);
+        windowRows = 0;
+        logMinerConnection.startOrUpdateLogMiner(windowStart);
+        logMinerConnection.queryData(windowStart, windowEnd, logMinerSelectSql);
+        LOG.debug("Update log and continue read:({}, {}]", windowStart, windowEnd);
+    }
+
+    /**
+     * 根据上一个范围查询出的数据量调整scn范围大小
+     */
+    private void adjustWindowSize() {
+        long target = (long) logMinerConfig.getFetchSize() * WINDOW_TARGET_FETCH_TIMES;
+        if (windowRows > target) {
+            windowSize = Math.max(windowSize / 2, MIN_SCN_WINDOW_SIZE);
+        } else if (windowRows < target / 4) {
+            windowSize = Math.min(windowSize * 2, MAX_SCN_WINDOW_SIZE);
+        }
+    }
+
+    /**
+     * 没有新数据时等待，等待时间从MIN_IDLE_WAIT开始翻倍，最大为MAX_IDLE_WAIT，查询到数据后重置
+     */
+    private void waitForNewData() throws InterruptedException {
+        idleWait = idleWait == 0 ? MIN_IDLE_WAIT : Math.min(idleWait * 2, MAX_IDLE_WAIT);
+        Thread.sleep(idleWait);
+    }
+
     public void stop() {
         if (null != executor && !executor.isShutdown()) {
             executor.shutdown();
             running = false;
         }
 
+        if (null != parseExecutor && !parseExecutor.isShutdown()) {
+            parseExecutor.shutdownNow();
+        }
+
         if (null != queue) {
             queue.clear();
         }
@@ -168,7 +288,12 @@ public class LogMinerListener implements Runnable {
 
     public Map<String, Object> getData() {
         try {
-            QueueData data = queue.take();
+            QueueData data = takeData();
+            while (data.getScn() != 0L && data.getData() == null) {
+                //scn范围的结束标记，只推进位置
+                positionManager.updatePosition(data.getScn());
+                data = takeData();
+            }
             if (data.getScn() != 0L) {
                 positionManager.updatePosition(data.getScn());
                 failedTimes = 0;
@@ -195,4 +320,57 @@ public class LogMinerListener implements Runnable {
 
         return null;
     }
+
+    private QueueData takeData() throws InterruptedException {
+        PendingData pending = queue.take();
+        try {
+            return pending.result.get();
+        } catch (ExecutionException e) {
+            return reparse(pending, e.getCause());
+        }
+    }
+
+    /**
+     * 解析线程解析失败时在当前线程中重新解析同一条日志，仍然失败时任务失败，不会跳过这条日志
+     */
+    private QueueData reparse(PendingData pending, Throwable cause) {
+        for (int times = 1; times < MAX_PARSE_TIMES; times++) {
+            LOG.warn("parse log failed {} times, scn = {}, e = {}", times, pending.log.getScn(), ExceptionUtil.getErrorMessage(cause));
+            try {
+                return logParser.parse(pending.log, pending.isOracle10, pending.ts);
+            } catch (Exception e) {
+                cause = e;
+            }
+        }
+
+        String msg = "LogMinerListener parse exception " + MAX_PARSE_TIMES + " times continuously: current scn =" + pending.log.getScn() +
+                ",\nlog = " + pending.log +
+                ",\ne = " + ExceptionUtil.getErrorMessage(cause);
+        throw new RuntimeException(msg, cause);
+    }
+
+    /**
+     * 队列中的一条数据，查询出的日志在解析线程中解析，范围结束标记和错误数据直接完成
+     */
+    private static class PendingData {
+
+        private final QueueData log;
+
+        private final boolean isOracle10;
+
+        private final long ts;
+
+        private final Future<QueueData> result;
+
+        PendingData(QueueData log, boolean isOracle10, long ts, Future<QueueData> result) {
+            this.log = log;
+            this.isOracle10 = isOracle10;
+            this.ts = ts;
+            this.result = result;
+        }
+
+        PendingData(QueueData data) {
+            this(null, false, 0L, CompletableFuture.completedFuture(data));
+        }
+    }
 }
@@ -37,12 +37,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -62,13 +64,23 @@ public class LogParser {
 
     public static SnowflakeIdWorker idWorker = new SnowflakeIdWorker(1, 1);
 
+    /**
+     * 解析模板缓存的最大条数，超过后清空重新生成
+     */
+    private static final int MAX_TEMPLATE_CACHE_SIZE = 4096;
+
     private LogMinerConfig config;
 
+    /**
+     * key为常量替换成占位符之后的语句结构，会被多个解析线程同时访问
+     */
+    private final Map<String, RedoTemplate> templateCache = new ConcurrentHashMap<>();
+
     public LogParser(LogMinerConfig config) {
         this.config = config;
     }
 
-    private static String cleanString(String str) {
+    static String cleanString(String str) {
         if("NULL".equalsIgnoreCase(str)){
             return "";
         }
@@ -143,6 +155,19 @@ public class LogParser {
     }
 
     public QueueData parse(QueueData pair, boolean isOracle10) throws JSQLParserException {
+        return parse(pair, isOracle10, idWorker.nextId());
+    }
+
+    /**
+     * 解析一条redo日志，可以在多个线程中并发调用
+     *
+     * @param pair       LogMiner查询出的数据
+     * @param isOracle10 是否为oracle10
+     * @param ts         数据的ts字段，由调用方按数据顺序生成
+     * @return 解析后的数据
+     * @throws JSQLParserException redo语句解析失败
+     */
+    public QueueData parse(QueueData pair, boolean isOracle10, long ts) throws JSQLParserException {
         Map<String, Object> logData = pair.getData();
         String schema = MapUtils.getString(logData, "schema");
         String tableName = MapUtils.getString(logData, "tableName");
@@ -161,26 +186,21 @@ public class LogParser {
         message.put("type", operation);
         message.put("schema", schema);
         message.put("table", tableName);
-        message.put("ts", idWorker.nextId());
+        message.put("ts", ts);
         message.put("opTime", timestamp);
 
 
-        Statement stmt;
-        try {
-            stmt = CCJSqlParserUtil.parse(sqlRedo);
-        }catch (JSQLParserException e){
-            LOG.info("sqlRedo = {}", sqlRedo);
-            stmt = CCJSqlParserUtil.parse(sqlRedo.replace("\\'","\\ '"));
-        }
         LinkedHashMap<String,String> afterDataMap = new LinkedHashMap<>();
         LinkedHashMap<String,String> beforeDataMap = new LinkedHashMap<>();
 
-        if (stmt instanceof Insert){
-            parseInsertStmt((Insert) stmt, beforeDataMap, afterDataMap);
-        }else if (stmt instanceof Update){
-            parseUpdateStmt((Update) stmt, beforeDataMap, afterDataMap, sqlRedo);
-        }else if (stmt instanceof Delete){
-            parseDeleteStmt((Delete) stmt, beforeDataMap, afterDataMap);
+        List<String> literals = new ArrayList<>();
+        String shape = RedoTemplate.extractLiterals(sqlRedo, literals);
+        RedoTemplate template = shape == null ? null : templateCache.get(shape);
+        if (template == null || !template.apply(literals, beforeDataMap, afterDataMap)) {
+            parseStatement(sqlRedo, beforeDataMap, afterDataMap);
+            if (shape != null && template == null) {
+                cacheTemplate(shape, literals, beforeDataMap, afterDataMap);
+            }
         }
 
         if (config.getPavingData()) {
@@ -198,6 +218,52 @@ public class LogParser {
         }
     }
 
+    static void parseStatement(String sqlRedo, LinkedHashMap<String,String> beforeDataMap, LinkedHashMap<String,String> afterDataMap) throws JSQLParserException {
+        Statement stmt;
+        try {
+            stmt = CCJSqlParserUtil.parse(sqlRedo);
+        }catch (JSQLParserException e){
+            LOG.info("sqlRedo = {}", sqlRedo);
+            stmt = CCJSqlParserUtil.parse(sqlRedo.replace("\\'","\\ '"));
+        }
+
+        if (stmt instanceof Insert){
+            parseInsertStmt((Insert) stmt, beforeDataMap, afterDataMap);
+        }else if (stmt instanceof Update){
+            parseUpdateStmt((Update) stmt, beforeDataMap, afterDataMap, sqlRedo);
+        }else if (stmt instanceof Delete){
+            parseDeleteStmt((Delete) stmt, beforeDataMap, afterDataMap);
+        }
+    }
+
+    /**
+     * 根据语句结构生成解析模板，并用当前语句完整解析的结果校验，结果不一致的结构不再使用模板
+     */
+    private void cacheTemplate(String shape, List<String> literals, LinkedHashMap<String,String> beforeDataMap, LinkedHashMap<String,String> afterDataMap) {
+        RedoTemplate template = RedoTemplate.compile(shape, literals.size());
+        if (template != RedoTemplate.UNSUPPORTED) {
+            LinkedHashMap<String,String> before = new LinkedHashMap<>();
+            LinkedHashMap<String,String> after = new LinkedHashMap<>();
+            template.apply(literals, before, after);
+            if (!sameEntries(before, beforeDataMap) || !sameEntries(after, afterDataMap)) {
+                LOG.debug("redo template does not match the parsed result, shape = {}", shape);
+                template = RedoTemplate.UNSUPPORTED;
+            }
+        }
+
+        if (templateCache.size() >= MAX_TEMPLATE_CACHE_SIZE) {
+            templateCache.clear();
+        }
+        templateCache.put(shape, template);
+    }
+
+    /**
+     * 比较时包含顺序，输出的字段顺序也要和完整解析一致
+     */
+    private static boolean sameEntries(Map<String,String> left, Map<String,String> right) {
+        return new ArrayList<>(left.entrySet()).equals(new ArrayList<>(right.entrySet()));
+    }
+
     /**
      * 解析to_date函数
      *
@@ -0,0 +1,316 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dtstack.flinkx.oraclelogminer.format;
+
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.ExpressionVisitorAdapter;
+import net.sf.jsqlparser.expression.operators.relational.EqualsTo;
+import net.sf.jsqlparser.expression.operators.relational.ExpressionList;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.schema.Column;
+import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.statement.delete.Delete;
+import net.sf.jsqlparser.statement.insert.Insert;
+import net.sf.jsqlparser.statement.update.Update;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * redo语句的解析模板
+ *
+ * 同一张表同一种操作的redo语句，把字符串常量替换成占位符后结构基本一致，
+ * 每种结构只用JSQLParser解析一次，之后按常量出现的顺序把值填回before/after中
+ */
+class RedoTemplate {
+
+    /**
+     * 无法使用模板的语句结构，对应的语句每次都走完整解析
+     */
+    static final RedoTemplate UNSUPPORTED = new RedoTemplate(new String[0], new byte[0], new String[0], new int[0], 0);
+
+    private static final char PLACEHOLDER = '?';
+
+    private static final byte BEFORE = 1;
+    private static final byte AFTER = 2;
+    private static final byte BOTH = 3;
+
+    private final String[] columns;
+
+    private final byte[] targets;
+
+    /**
+     * 值表达式，常量位置为占位符，null表示直接写入null
+     */
+    private final String[] expressions;
+
+    /**
+     * 值表达式中第一个占位符对应的常量下标
+     */
+    private final int[] firstSlots;
+
+    private final int literalCount;
+
+    private RedoTemplate(String[] columns, byte[] targets, String[] expressions, int[] firstSlots, int literalCount) {
+        this.columns = columns;
+        this.targets = targets;
+        this.expressions = expressions;
+        this.firstSlots = firstSlots;
+        this.literalCount = literalCount;
+    }
+
+    /**
+     * 把语句中的字符串常量按顺序取出，返回替换成占位符之后的语句结构
+     *
+     * @param sql      redo语句
+     * @param literals 取出的常量，不包含两侧的单引号
+     * @return 语句结构，语句本身包含占位符或者引号不完整时返回null
+     */
+    static String extractLiterals(String sql, List<String> literals) {
+        if (sql.indexOf(PLACEHOLDER) >= 0) {
+            return null;
+        }
+
+        int length = sql.length();
+        StringBuilder shape = new StringBuilder(length);
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (c == '"') {
+                int end = sql.indexOf('"', i + 1);
+                if (end < 0) {
+                    return null;
+                }
+                shape.append(sql, i, end + 1);
+                i = end + 1;
+            } else if (c == '\'') {
+                int end = i + 1;
+                while (true) {
+                    if (end >= length) {
+                        return null;
+                    }
+                    if (sql.charAt(end) == '\'') {
+                        if (end + 1 < length && sql.charAt(end + 1) == '\'') {
+                            end += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    end++;
+                }
+                literals.add(sql.substring(i + 1, end));
+                shape.append(PLACEHOLDER);
+                i = end + 1;
+            } else {
+                shape.append(c);
+                i++;
+            }
+        }
+        return shape.toString();
+    }
+
+    /**
+     * 根据语句结构生成模板，结构解析失败或者占位符数量对不上时返回{@link #UNSUPPORTED}
+     */
+    static RedoTemplate compile(String shape, int literalCount) {
+        Statement stmt;
+        try {
+            stmt = CCJSqlParserUtil.parse(shape);
+        } catch (JSQLParserException e) {
+            return UNSUPPORTED;
+        }
+
+        Builder builder = new Builder();
+        if (stmt instanceof Insert) {
+            builder.insert((Insert) stmt);
+        } else if (stmt instanceof Update) {
+            builder.update((Update) stmt);
+        } else if (stmt instanceof Delete) {
+            builder.delete((Delete) stmt);
+        } else {
+            builder.supported = false;
+        }
+
+        if (!builder.supported || builder.nextSlot != literalCount) {
+            return UNSUPPORTED;
+        }
+        return builder.build(literalCount);
+    }
+
+    /**
+     * 按模板填充before/after，模板不可用时返回false且不修改传入的map
+     */
+    boolean apply(List<String> literals, LinkedHashMap<String, String> beforeDataMap, LinkedHashMap<String, String> afterDataMap) {
+        if (this == UNSUPPORTED || literals.size() != literalCount) {
+            return false;
+        }
+
+        for (int i = 0; i < columns.length; i++) {
+            String value = expressions[i] == null ? null : LogParser.cleanString(fill(expressions[i], firstSlots[i], literals));
+            if ((targets[i] & BEFORE) != 0) {
+                beforeDataMap.put(columns[i], value);
+            }
+            if ((targets[i] & AFTER) != 0) {
+                afterDataMap.put(columns[i], value);
+            }
+        }
+        return true;
+    }
+
+    private static String fill(String expression, int slot, List<String> literals) {
+        if (expression.length() == 1 && expression.charAt(0) == PLACEHOLDER) {
+            return '\'' + literals.get(slot) + '\'';
+        }
+
+        int index = expression.indexOf(PLACEHOLDER);
+        if (index < 0) {
+            return expression;
+        }
+
+        StringBuilder sb = new StringBuilder(expression.length() + 32);
+        int start = 0;
+        while (index >= 0) {
+            sb.append(expression, start, index).append('\'').append(literals.get(slot++)).append('\'');
+            start = index + 1;
+            index = expression.indexOf(PLACEHOLDER, start);
+        }
+        return sb.append(expression, start, expression.length()).toString();
+    }
+
+    private static int countPlaceholders(String expression) {
+        int count = 0;
+        for (int i = 0; i < expression.length(); i++) {
+            if (expression.charAt(i) == PLACEHOLDER) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 按LogParser中parseInsertStmt、parseUpdateStmt、parseDeleteStmt相同的顺序记录写入操作
+     */
+    private static class Builder {
+
+        private final List<String> columns = new ArrayList<>();
+        private final List<Byte> targets = new ArrayList<>();
+        private final List<String> expressions = new ArrayList<>();
+        private final List<Integer> firstSlots = new ArrayList<>();
+
+        private int nextSlot;
+        private boolean supported = true;
+
+        private void add(String column, byte target, Expression expression) {
+            columns.add(column);
+            targets.add(target);
+            if (expression == null) {
+                expressions.add(null);
+                firstSlots.add(0);
+            } else {
+                String text = expression.toString();
+                expressions.add(text);
+                firstSlots.add(nextSlot);
+                nextSlot += countPlaceholders(text);
+            }
+        }
+
+        private void insert(Insert insert) {
+            if (insert.getColumns() == null || !(insert.getItemsList() instanceof ExpressionList)) {
+                supported = false;
+                return;
+            }
+
+            List<Expression> valueList = ((ExpressionList) insert.getItemsList()).getExpressions();
+            Set<String> keys = new HashSet<>();
+            for (Column column : insert.getColumns()) {
+                keys.add(LogParser.cleanString(column.getColumnName()));
+            }
+            if (keys.size() != insert.getColumns().size() || keys.size() != valueList.size()) {
+                supported = false;
+                return;
+            }
+
+            for (int i = 0; i < valueList.size(); i++) {
+                String col = LogParser.cleanString(insert.getColumns().get(i).getColumnName());
+                add(col, AFTER, valueList.get(i));
+                add(col, BEFORE, null);
+            }
+        }
+
+        private void update(Update update) {
+            if (update.getWhere() == null || update.getColumns().size() != update.getExpressions().size()) {
+                supported = false;
+                return;
+            }
+
+            Set<String> afterKeys = new HashSet<>();
+            Iterator<Expression> iterator = update.getExpressions().iterator();
+            for (Column c : update.getColumns()) {
+                String col = LogParser.cleanString(c.getColumnName());
+                add(col, AFTER, iterator.next());
+                afterKeys.add(col);
+            }
+
+            update.getWhere().accept(new ExpressionVisitorAdapter() {
+                @Override
+                public void visit(final EqualsTo expr) {
+                    String col = LogParser.cleanString(expr.getLeftExpression().toString());
+                    if (afterKeys.add(col)) {
+                        add(col, BOTH, expr.getRightExpression());
+                    } else {
+                        add(col, BEFORE, expr.getRightExpression());
+                    }
+                }
+            });
+        }
+
+        private void delete(Delete delete) {
+            if (delete.getWhere() == null) {
+                supported = false;
+                return;
+            }
+
+            delete.getWhere().accept(new ExpressionVisitorAdapter() {
+                @Override
+                public void visit(final EqualsTo expr) {
+                    String col = LogParser.cleanString(expr.getLeftExpression().toString());
+                    add(col, BEFORE, expr.getRightExpression());
+                    add(col, AFTER, null);
+                }
+            });
+        }
+
+        private RedoTemplate build(int literalCount) {
+            int size = columns.size();
+            byte[] targetArray = new byte[size];
+            int[] slotArray = new int[size];
+            for (int i = 0; i < size; i++) {
+                targetArray[i] = targets.get(i);
+                slotArray[i] = firstSlots.get(i);
+            }
+            return new RedoTemplate(columns.toArray(new String[0]), targetArray, expressions.toArray(new String[0]), slotArray, literalCount);
+        }
+    }
+}
@@ -85,6 +85,12 @@ public class OracleLogMinerInputFormatBuilder extends BaseRichInputFormatBuilder
         if(config.getFetchSize() < 1){
             sb.append("fetchSize must bigger than 0;\n");
         }
+        if(config.getParseParallelism() < 1){
+            sb.append("parseParallelism must bigger than 0;\n");
+        }
+        if(config.getScnWindowSize() < 1){
+            sb.append("scnWindowSize must bigger than 0;\n");
+        }
         List<String> list = Arrays.asList(LogMinerConnection.ReadPosition.ALL.name(),
                 LogMinerConnection.ReadPosition.CURRENT.name(),
                 LogMinerConnection.ReadPosition.TIME.name(),
@@ -271,7 +271,8 @@ public class SqlUtil {
             "FROM\n" +
             "    v$logmnr_contents\n" +
             "WHERE\n" +
-            "    scn > ?";
+            "    scn > ?\n" +
+            "    and scn <= ?";
 
     public final static String SQL_STOP_LOG_MINER = "BEGIN SYS.DBMS_LOGMNR.END_LOGMNR; end;";
 
@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dtstack.flinkx.oraclelogminer.format;
+
+import com.dtstack.flinkx.oraclelogminer.entity.QueueData;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class RedoTemplateTest {
+
+    @Test
+    public void testInsert() throws Exception {
+        assertSameAsLogParser("insert into \"SCOTT\".\"EMP\"(\"ID\",\"NAME\",\"HIRED\") values ('1','tom','2020-03-30 10:00:00')");
+    }
+
+    @Test
+    public void testInsertWithNull() throws Exception {
+        assertSameAsLogParser("insert into \"SCOTT\".\"EMP\"(\"ID\",\"NAME\",\"NOTE\") values ('1',NULL,'')");
+    }
+
+    @Test
+    public void testUpdate() throws Exception {
+        assertSameAsLogParser("update \"SCOTT\".\"EMP\" set \"NAME\" = 'jerry' where \"ID\" = '1' and \"NAME\" = 'tom' and ROWID = 'AAAR3sAAEAAAACXAAA'");
+    }
+
+    @Test
+    public void testUpdateIsNull() throws Exception {
+        assertSameAsLogParser("update \"SCOTT\".\"EMP\" set \"NOTE\" = 'a' where \"ID\" = '1' and \"NOTE\" = NULL");
+    }
+
+    @Test
+    public void testDelete() throws Exception {
+        assertSameAsLogParser("delete from \"SCOTT\".\"EMP\" where \"ID\" = '1' and \"NAME\" = 'tom' and ROWID = 'AAAR3sAAEAAAACXAAA'");
+    }
+
+    @Test
+    public void testEscapedQuote() throws Exception {
+        assertSameAsLogParser("insert into \"SCOTT\".\"EMP\"(\"ID\",\"NAME\") values ('1','it''s ''quoted''')");
+        assertSameAsLogParser("update \"SCOTT\".\"EMP\" set \"NAME\" = 'o''neil' where \"ID\" = '1' and \"NAME\" = ''''");
+        assertSameAsLogParser("delete from \"SCOTT\".\"EMP\" where \"ID\" = '1' and \"NAME\" = 'a''b'");
+    }
+
+    @Test
+    public void testQuotedIdentifier() throws Exception {
+        assertSameAsLogParser("insert into \"SCOTT\".\"EMP\"(\"ID\",\"first name\",\"it's\") values ('1','tom','x')");
+        assertSameAsLogParser("update \"SCOTT\".\"EMP\" set \"first name\" = 'jerry' where \"ID\" = '1' and \"first name\" = 'tom'");
+    }
+
+    @Test
+    public void testRepeatedColumnInWhere() throws Exception {
+        assertSameAsLogParser("update \"SCOTT\".\"EMP\" set \"NAME\" = 'a' where \"ID\" = '1' and \"ID\" = '2' and \"NAME\" = 'b' and \"NAME\" = 'c'");
+        assertSameAsLogParser("delete from \"SCOTT\".\"EMP\" where \"ID\" = '1' and \"ID\" = '2'");
+    }
+
+    @Test
+    public void testRepeatedColumnInInsertIsUnsupported() throws Exception {
+        String sql = "insert into \"SCOTT\".\"EMP\"(\"ID\",\"ID\") values ('1','2')";
+        List<String> literals = new ArrayList<>();
+        String shape = RedoTemplate.extractLiterals(sql, literals);
+        Assert.assertSame(RedoTemplate.UNSUPPORTED, RedoTemplate.compile(shape, literals.size()));
+        assertParsedTwice(sql, sql);
+    }
+
+    @Test
+    public void testLiteralWithPlaceholderChar() throws Exception {
+        String sql = "insert into \"SCOTT\".\"EMP\"(\"ID\",\"NAME\") values ('1','who?')";
+        Assert.assertNull(RedoTemplate.extractLiterals(sql, new ArrayList<>()));
+        assertParsedTwice(sql, "insert into \"SCOTT\".\"EMP\"(\"ID\",\"NAME\") values ('2','why?')");
+    }
+
+    @Test
+    public void testExtractLiterals() {
+        List<String> literals = new ArrayList<>();
+        String shape = RedoTemplate.extractLiterals("update \"T\" set \"A\" = 'x''y' where \"B\" = '' and \"C\" = 'z'", literals);
+        Assert.assertEquals("update \"T\" set \"A\" = ? where \"B\" = ? and \"C\" = ?", shape);
+        Assert.assertEquals(3, literals.size());
+        Assert.assertEquals("x''y", literals.get(0));
+        Assert.assertEquals("", literals.get(1));
+        Assert.assertEquals("z", literals.get(2));
+
+        Assert.assertNull(RedoTemplate.extractLiterals("delete from \"T\" where \"A\" = 'x", new ArrayList<>()));
+        Assert.assertNull(RedoTemplate.extractLiterals("delete from \"T where \"A\" = 'x'", new ArrayList<>()));
+    }
+
+    /**
+     * 模板的结果和完整解析一致，并且同一结构的其它语句通过缓存的模板解析时结果也一致
+     */
+    private void assertSameAsLogParser(String sql) throws Exception {
+        List<String> literals = new ArrayList<>();
+        String shape = RedoTemplate.extractLiterals(sql, literals);
+        Assert.assertNotNull(shape);
+        RedoTemplate template = RedoTemplate.compile(shape, literals.size());
+        Assert.assertNotSame(RedoTemplate.UNSUPPORTED, template);
+
+        LinkedHashMap<String, String> before = new LinkedHashMap<>();
+        LinkedHashMap<String, String> after = new LinkedHashMap<>();
+        Assert.assertTrue(template.apply(literals, before, after));
+
+        LinkedHashMap<String, String> expectedBefore = new LinkedHashMap<>();
+        LinkedHashMap<String, String> expectedAfter = new LinkedHashMap<>();
+        LogParser.parseStatement(sql, expectedBefore, expectedAfter);
+        assertSameEntries(expectedBefore, before);
+        assertSameEntries(expectedAfter, after);
+
+        assertParsedTwice(sql, changeLiterals(sql));
+    }
+
+    /**
+     * 先解析first生成模板，再解析second，两次结果都要和完整解析一致
+     */
+    @SuppressWarnings("unchecked")
+    private void assertParsedTwice(String first, String second) throws Exception {
+        LogParser parser = new LogParser(new LogMinerConfig());
+        for (String sql : new String[]{first, second}) {
+            Map<String, Object> message = (Map<String, Object>) parser.parse(queueData(sql), false, 1L).getData().get("message");
+
+            LinkedHashMap<String, String> expectedBefore = new LinkedHashMap<>();
+            LinkedHashMap<String, String> expectedAfter = new LinkedHashMap<>();
+            LogParser.parseStatement(sql, expectedBefore, expectedAfter);
+            assertSameEntries(expectedBefore, (Map<String, String>) message.get("before"));
+            assertSameEntries(expectedAfter, (Map<String, String>) message.get("after"));
+        }
+    }
+
+    /**
+     * 每个字符串常量前加一个字符，语句结构不变
+     */
+    private String changeLiterals(String sql) {
+        List<String> literals = new ArrayList<>();
+        String shape = RedoTemplate.extractLiterals(sql, literals);
+        StringBuilder sb = new StringBuilder();
+        int slot = 0;
+        for (char c : shape.toCharArray()) {
+            if (c == '?') {
+                sb.append("'n").append(literals.get(slot++)).append('\'');
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private QueueData queueData(String sql) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("schema", "SCOTT");
+        data.put("tableName", "EMP");
+        data.put("operation", sql.substring(0, sql.indexOf(' ')).toUpperCase());
+        data.put("sqlLog", sql);
+        return new QueueData(1L, data);
+    }
+
+    private void assertSameEntries(Map<String, String> expected, Map<String, String> actual) {
+        Assert.assertEquals(new ArrayList<>(expected.entrySet()), new ArrayList<>(actual.entrySet()));
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dtstack.flinkx.pgwal;
+
+import com.dtstack.flinkx.reader.MetaColumn;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 监听线程交给读取线程的变更事件，只保存解码后的数组，
+ * 输出用的Map在读取线程中按需构建
+ *
+ * Table对象会被PgDecoder按relation复用，不能直接跨线程传递
+ */
+public class PgWalEvent {
+
+    private static final int FIXED_FIELD_COUNT = 6;
+
+    private final String type;
+    private final String schema;
+    private final String table;
+    private final long lsn;
+    private final long ts;
+    private final long ingestion;
+    private final ColumnNames columnNames;
+    private final Object[] before;
+    private final Object[] after;
+
+    public PgWalEvent(String type, Table table, ColumnNames columnNames, long ingestion) {
+        this.type = type;
+        this.schema = table.getSchema();
+        this.table = table.getTable();
+        this.lsn = table.getCurrentLsn();
+        this.ts = table.getTs();
+        this.ingestion = ingestion;
+        this.columnNames = columnNames;
+        this.before = table.getOldData();
+        this.after = table.getNewData();
+    }
+
+    public long getLsn() {
+        return lsn;
+    }
+
+    public Map<String, Object> toMap(boolean pavingData) {
+        int columnCount = columnNames.names.length;
+        int fieldCount = pavingData ? FIXED_FIELD_COUNT + 2 * columnCount : FIXED_FIELD_COUNT + 2;
+        Map<String, Object> map = new LinkedHashMap<>(capacity(fieldCount));
+        map.put("type", type);
+        map.put("schema", schema);
+        map.put("table", table);
+        map.put("lsn", lsn);
+        map.put("ts", ts);
+        map.put("ingestion", ingestion);
+        if (pavingData) {
+            for (int i = 0; i < columnCount; i++) {
+                map.put(columnNames.beforeNames[i], before[i]);
+                map.put(columnNames.afterNames[i], after[i]);
+            }
+        } else {
+            Map<String, Object> beforeMap = new LinkedHashMap<>(capacity(columnCount));
+            Map<String, Object> afterMap = new LinkedHashMap<>(capacity(columnCount));
+            for (int i = 0; i < columnCount; i++) {
+                beforeMap.put(columnNames.names[i], before[i]);
+                afterMap.put(columnNames.names[i], after[i]);
+            }
+            map.put("before", beforeMap);
+            map.put("after", afterMap);
+        }
+        return map;
+    }
+
+    private static int capacity(int size) {
+        return (int) (size / 0.75f) + 1;
+    }
+
+    /**
+     * 一张表的字段名，包括平铺时使用的before_/after_前缀字段名，按表结构缓存，不在每条数据中拼接
+     */
+    public static class ColumnNames {
+
+        private final String[] names;
+        private final String[] beforeNames;
+        private final String[] afterNames;
+
+        public ColumnNames(List<MetaColumn> columnList) {
+            int size = columnList.size();
+            names = new String[size];
+            beforeNames = new String[size];
+            afterNames = new String[size];
+            for (int i = 0; i < size; i++) {
+                names[i] = columnList.get(i).getName();
+                beforeNames[i] = "before_" + names[i];
+                afterNames[i] = "after_" + names[i];
+            }
+        }
+    }
+}
@@ -20,6 +20,7 @@ package com.dtstack.flinkx.pgwal.format;
 
 import com.dtstack.flinkx.inputformat.BaseRichInputFormat;
 import com.dtstack.flinkx.pgwal.PgRelicationSlot;
+import com.dtstack.flinkx.pgwal.PgWalEvent;
 import com.dtstack.flinkx.pgwal.PgWalUtil;
 import com.dtstack.flinkx.pgwal.listener.PgWalListener;
 import com.dtstack.flinkx.restore.FormatState;
@@ -31,12 +32,15 @@ import org.apache.flink.types.Row;
 import org.postgresql.jdbc.PgConnection;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.SynchronousQueue;
 
 /**
  * Date: 2019/12/13
@@ -45,6 +49,9 @@ import java.util.concurrent.SynchronousQueue;
  * @author tudou
  */
 public class PgWalInputFormat extends BaseRichInputFormat {
+    /** 监听线程和读取线程之间缓存的批次数 */
+    private static final int QUEUE_CAPACITY = 16;
+
     protected String username;
     protected String password;
     protected String url;
@@ -59,17 +66,28 @@ public class PgWalInputFormat extends BaseRichInputFormat {
     protected boolean temporary;
 
     private PgConnection conn;
+    /** 最后一条已经发送到下游的数据的lsn，只在checkpoint锁内更新 */
     private volatile long startLsn;
+    /** 最后一条读出但还没有发送到下游的数据的lsn */
+    private transient long readLsn;
 
-    private transient BlockingQueue<Map<String, Object>> queue;
+    private transient BlockingQueue<List<PgWalEvent>> queue;
+    private transient Iterator<PgWalEvent> currentBatch;
     private transient ExecutorService executor;
     private volatile boolean running = false;
+    private volatile String errorMessage;
+
+    /** checkpointId -> 快照时的lsn，checkpoint完成后确认给服务端 */
+    private transient NavigableMap<Long, Long> pendingLsn;
+    private volatile long confirmedLsn;
 
     @Override
     public void openInputFormat() throws IOException{
         super.openInputFormat();
         executor = Executors.newFixedThreadPool(1);
-        queue = new SynchronousQueue<>(true);
+        queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        currentBatch = Collections.emptyIterator();
+        pendingLsn = new TreeMap<>();
     }
 
     @Override
@@ -107,13 +125,16 @@ public class PgWalInputFormat extends BaseRichInputFormat {
     @Override
     protected Row nextRecordInternal(Row row) throws IOException {
         try {
-            Map<String, Object> map = queue.take();
-            if(map.size() == 1){
-                throw new IOException((String) map.get("e"));
-            }else{
-                startLsn = (long) map.get("lsn");
-                row = Row.of(map);
+            if (!currentBatch.hasNext()) {
+                List<PgWalEvent> events = queue.take();
+                if (events.isEmpty()) {
+                    throw new IOException(errorMessage);
+                }
+                currentBatch = events.iterator();
             }
+            PgWalEvent event = currentBatch.next();
+            readLsn = event.getLsn();
+            row = Row.of(event.toMap(pavingData));
         } catch (InterruptedException e) {
             LOG.error("takeEvent interrupted error:{}", ExceptionUtil.getErrorMessage(e));
         }
@@ -121,6 +142,13 @@ public class PgWalInputFormat extends BaseRichInputFormat {
 
     }
 
+    @Override
+    public void afterCollect() {
+        if (readLsn != 0) {
+            startLsn = readLsn;
+        }
+    }
+
     @Override
     public FormatState getFormatState() {
         if (!restoreConfig.isRestore()) {
@@ -135,6 +163,26 @@ public class PgWalInputFormat extends BaseRichInputFormat {
         return formatState;
     }
 
+    @Override
+    public void snapshotState(long checkpointId) {
+        if (startLsn != 0) {
+            pendingLsn.put(checkpointId, startLsn);
+        }
+    }
+
+    /**
+     * 确认这次及之前的checkpoint保存的lsn，服务端之后可以回收这些WAL
+     */
+    @Override
+    public void notifyCheckpointComplete(long checkpointId) {
+        NavigableMap<Long, Long> completed = pendingLsn.headMap(checkpointId, true);
+        if (completed.isEmpty()) {
+            return;
+        }
+        confirmedLsn = Math.max(confirmedLsn, completed.lastEntry().getValue());
+        completed.clear();
+    }
+
     @Override
     protected void closeInternal() throws IOException {
         if (running) {
@@ -159,11 +207,19 @@ public class PgWalInputFormat extends BaseRichInputFormat {
         return false;
     }
 
-    public void processEvent(Map<String, Object> event) {
+    public void processEvents(List<PgWalEvent> events) throws InterruptedException {
+        queue.put(events);
+    }
+
+    /**
+     * 监听线程异常退出，空批次通知读取线程抛出异常
+     */
+    public void processError(String errorMessage) {
+        this.errorMessage = errorMessage;
         try {
-            queue.put(event);
+            queue.put(Collections.emptyList());
         } catch (InterruptedException e) {
-            LOG.error("takeEvent interrupted event:{} error:{}", event, ExceptionUtil.getErrorMessage(e));
+            LOG.error("takeEvent interrupted error:{}", ExceptionUtil.getErrorMessage(e));
         }
     }
 
@@ -199,4 +255,8 @@ public class PgWalInputFormat extends BaseRichInputFormat {
     public boolean isRunning() {
         return running;
     }
+
+    public long getConfirmedLsn() {
+        return confirmedLsn;
+    }
 }
@@ -19,6 +19,7 @@
 package com.dtstack.flinkx.pgwal.listener;
 
 import com.dtstack.flinkx.pgwal.PgDecoder;
+import com.dtstack.flinkx.pgwal.PgWalEvent;
 import com.dtstack.flinkx.pgwal.PgWalUtil;
 import com.dtstack.flinkx.pgwal.Table;
 import com.dtstack.flinkx.pgwal.format.PgWalInputFormat;
@@ -34,28 +35,47 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.nio.ByteBuffer;
-import java.util.*;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Date: 2019/12/14
  * Company: www.dtstack.com
  *
+ * 没有新数据时逐步拉长等待时间，不再空转；
+ * 变更事件攒批后交给读取线程，checkpoint完成后把已保存的lsn确认给服务端，释放复制槽保留的WAL
+ *
  * @author tudou
  */
 public class PgWalListener implements Runnable {
     private static final Logger LOG = LoggerFactory.getLogger(PgWalListener.class);
     private static Gson gson = new Gson();
 
+    /** 每批交给读取线程的最大事件数 */
+    private static final int BATCH_SIZE = 256;
+
+    /** 空闲时的最长等待时间，单位毫秒 */
+    private static final long MAX_IDLE_WAIT = 200L;
+
     private PgWalInputFormat format;
     private PgConnection conn;
     private Set<String> tableSet;
     private Set<String> cat;
-    private boolean pavingData;
 
     private PGReplicationStream stream;
     private PgDecoder decoder;
 
+    /** relation消息会替换表的字段列表，按列表实例缓存字段名 */
+    private Map<List<MetaColumn>, PgWalEvent.ColumnNames> columnNamesCache = new IdentityHashMap<>();
+    private List<PgWalEvent> batch = new ArrayList<>(BATCH_SIZE);
+    private long maxIdleWait;
+    private long confirmedLsn;
+
     public PgWalListener(PgWalInputFormat format) {
         this.format = format;
         this.conn = format.getConn();
@@ -64,7 +84,8 @@ public class PgWalListener implements Runnable {
         for (String type : format.getCat().split(",")) {
             cat.add(type.toLowerCase());
         }
-        this.pavingData = format.isPavingData();
+        // 等待时间不超过状态上报间隔的一半，保证readPending能按时向服务端发送心跳
+        this.maxIdleWait = Math.max(1L, Math.min(MAX_IDLE_WAIT, format.getStatusInterval() / 2));
     }
 
     public void init() throws Exception{
@@ -93,11 +114,17 @@ public class PgWalListener implements Runnable {
         LOG.info("PgWalListener start running.....");
         try {
             init();
+            int idleCount = 0;
             while (format.isRunning()) {
+                confirmLsn();
                 ByteBuffer buffer = stream.readPending();
                 if (buffer == null) {
+                    flush();
+                    waitForData(++idleCount);
                     continue;
                 }
+                idleCount = 0;
+
                 Table table = decoder.decode(buffer);
                 if(StringUtils.isBlank(table.getId())){
                     continue;
@@ -109,40 +136,57 @@ public class PgWalListener implements Runnable {
                 if(!tableSet.contains(table.getId())){
                     continue;
                 }
-                LOG.trace("table = {}",gson.toJson(table));
-                Map<String, Object> map = new LinkedHashMap<>();
-                map.put("type", type);
-                map.put("schema", table.getSchema());
-                map.put("table", table.getTable());
-                map.put("lsn", table.getCurrentLsn());
-                map.put("ts", table.getTs());
-                map.put("ingestion", System.nanoTime());
-                if(pavingData){
-                    int i = 0;
-                    for (MetaColumn column : table.getColumnList()) {
-                        map.put("before_" + column.getName(), table.getOldData()[i]);
-                        map.put("after_" + column.getName(), table.getNewData()[i]);
-                        i++;
-                    }
-                }else {
-                    Map<String, Object> before = new LinkedHashMap<>();
-                    Map<String, Object> after = new LinkedHashMap<>();
-                    int i = 0;
-                    for (MetaColumn column : table.getColumnList()) {
-                        before.put(column.getName(), table.getOldData()[i]);
-                        after.put(column.getName(), table.getNewData()[i]);
-                        i++;
-                    }
-                    map.put("before", before);
-                    map.put("after", after);
+                if (LOG.isTraceEnabled()) {
+                    LOG.trace("table = {}",gson.toJson(table));
+                }
+                PgWalEvent.ColumnNames columnNames = columnNamesCache.computeIfAbsent(table.getColumnList(), PgWalEvent.ColumnNames::new);
+                batch.add(new PgWalEvent(type, table, columnNames, System.nanoTime()));
+                if (batch.size() >= BATCH_SIZE) {
+                    flush();
                 }
-                format.processEvent(map);
             }
+        }catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            LOG.info("PgWalListener interrupted");
         }catch (Exception e){
             String errorMessage = ExceptionUtil.getErrorMessage(e);
             LOG.error(errorMessage);
-            format.processEvent(Collections.singletonMap("e", errorMessage));
+            format.processError(errorMessage);
+        }
+    }
 
+    private void flush() throws InterruptedException {
+        if (batch.isEmpty()) {
+            return;
         }
+        format.processEvents(batch);
+        batch = new ArrayList<>(BATCH_SIZE);
+    }
+
+    /**
+     * 前几次空闲只让出cpu，之后等待时间指数增长到maxIdleWait
+     */
+    private void waitForData(int idleCount) throws InterruptedException {
+        if (idleCount <= 3) {
+            Thread.yield();
+            return;
+        }
+        TimeUnit.MILLISECONDS.sleep(Math.min(1L << Math.min(idleCount - 3, 16), maxIdleWait));
+    }
+
+    /**
+     * PGReplicationStream不是线程安全的，checkpoint线程只记录lsn，由监听线程发送给服务端
+     */
+    private void confirmLsn() throws Exception {
+        long lsn = format.getConfirmedLsn();
+        if (lsn <= confirmedLsn) {
+            return;
+        }
+        LogSequenceNumber sequenceNumber = LogSequenceNumber.valueOf(lsn);
+        stream.setAppliedLSN(sequenceNumber);
+        stream.setFlushedLSN(sequenceNumber);
+        stream.forceUpdateStatus();
+        confirmedLsn = lsn;
+        LOG.info("confirm flushed lsn {} to server", sequenceNumber.asString());
     }
 }
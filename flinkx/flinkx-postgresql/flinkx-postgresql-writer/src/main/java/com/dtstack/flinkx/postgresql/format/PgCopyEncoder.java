@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dtstack.flinkx.postgresql.format;
+
+/**
+ * Encodes rows in postgresql COPY text format directly into a reusable UTF-8 byte buffer.
+ * Backslash, CR and LF inside values are escaped while encoding, so no intermediate strings are built.
+ */
+public class PgCopyEncoder {
+
+    private static final int INITIAL_CAPACITY = 64 * 1024;
+
+    private final byte fieldDelimiter;
+
+    private final byte nullMarker;
+
+    private byte[] buffer = new byte[INITIAL_CAPACITY];
+
+    private int position;
+
+    public PgCopyEncoder(char fieldDelimiter, char nullMarker) {
+        this.fieldDelimiter = (byte) fieldDelimiter;
+        this.nullMarker = (byte) nullMarker;
+    }
+
+    public void writeField(Object value) {
+        if (value == null) {
+            ensureCapacity(1);
+            buffer[position++] = nullMarker;
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            writeLong(((Number) value).longValue());
+        } else if (value instanceof CharSequence) {
+            writeEscaped((CharSequence) value);
+        } else {
+            writeEscaped(value.toString());
+        }
+    }
+
+    public void writeFieldDelimiter() {
+        ensureCapacity(1);
+        buffer[position++] = fieldDelimiter;
+    }
+
+    public void writeLineEnd() {
+        ensureCapacity(1);
+        buffer[position++] = '\n';
+    }
+
+    public byte[] buffer() {
+        return buffer;
+    }
+
+    public int size() {
+        return position;
+    }
+
+    public void reset() {
+        position = 0;
+    }
+
+    private void writeLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            writeEscaped(Long.toString(value));
+            return;
+        }
+
+        ensureCapacity(20);
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+
+        int start = position;
+        do {
+            buffer[position++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+
+        for (int i = start, j = position - 1; i < j; i++, j--) {
+            byte tmp = buffer[i];
+            buffer[i] = buffer[j];
+            buffer[j] = tmp;
+        }
+    }
+
+    private void writeEscaped(CharSequence value) {
+        int length = value.length();
+        // worst case: every char takes 3 bytes in UTF-8, escapes take 2
+        ensureCapacity(length * 3);
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                switch (c) {
+                    case '\\':
+                        buffer[position++] = '\\';
+                        buffer[position++] = '\\';
+                        break;
+                    case '\r':
+                        buffer[position++] = '\\';
+                        buffer[position++] = 'r';
+                        break;
+                    case '\n':
+                        buffer[position++] = '\\';
+                        buffer[position++] = 'n';
+                        break;
+                    default:
+                        buffer[position++] = (byte) c;
+                }
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | (c >> 6));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // unpaired surrogate, same replacement as String.getBytes(UTF_8)
+                buffer[position++] = '?';
+            } else {
+                buffer[position++] = (byte) (0xE0 | (c >> 12));
+                buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private void ensureCapacity(int extra) {
+        if (position + extra > buffer.length) {
+            byte[] grown = new byte[Math.max(buffer.length * 2, position + extra)];
+            System.arraycopy(buffer, 0, grown, 0, position);
+            buffer = grown;
+        }
+    }
+}
@@ -18,20 +18,24 @@
 package com.dtstack.flinkx.postgresql.format;
 
 import com.dtstack.flinkx.enums.EWriteMode;
-import com.dtstack.flinkx.exception.WriteRecordException;
 import com.dtstack.flinkx.rdb.outputformat.JdbcOutputFormat;
+import com.dtstack.flinkx.rdb.util.DbUtil;
+import com.dtstack.flinkx.restore.FormatState;
+import com.dtstack.flinkx.util.ExceptionUtil;
+import org.apache.commons.lang.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.flink.types.Row;
+import org.postgresql.copy.CopyIn;
 import org.postgresql.copy.CopyManager;
 import org.postgresql.core.BaseConnection;
 
-import java.io.ByteArrayInputStream;
-import java.nio.charset.StandardCharsets;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
 /**
  * when  postgresql with mode insert, it use 'copy tableName(columnName) from stdin' syntax
+ * rows are encoded by {@link PgCopyEncoder} and streamed into one COPY per batch,
+ * or one COPY per checkpoint when restore is enabled
  * Date: 2019/8/5
  * Company: www.dtstack.com
  * @author xuchao
@@ -45,8 +49,6 @@ public class PostgresqlOutputFormat extends JdbcOutputFormat {
 
     private static final String DEFAULT_NULL_DELIM = "\002";
 
-    private static final String LINE_DELIMITER = "\n";
-
     private boolean isCopyMode = false;
 
     /**
@@ -60,6 +62,15 @@ public class PostgresqlOutputFormat extends JdbcOutputFormat {
 
     private CopyManager copyManager;
 
+    /**
+     * encoded bytes are handed to the server once the buffer reaches this size
+     */
+    private static final int COPY_FLUSH_BYTES = 1024 * 1024;
+
+    private transient PgCopyEncoder copyEncoder;
+
+    private transient CopyIn copyIn;
+
 
     @Override
     protected PreparedStatement prepareTemplates() throws SQLException {
@@ -71,100 +82,155 @@ public class PostgresqlOutputFormat extends JdbcOutputFormat {
         isCopyMode = checkIsCopyMode(insertSqlMode);
         if (EWriteMode.INSERT.name().equalsIgnoreCase(mode) && isCopyMode) {
             copyManager = new CopyManager((BaseConnection) dbConn);
+            copyEncoder = new PgCopyEncoder(DEFAULT_FIELD_DELIM.charAt(0), DEFAULT_NULL_DELIM.charAt(0));
             for(String x : column) columnStr += quoteIdentifier(x) + ",";
             columnStr = columnStr.substring(0, columnStr.length() -1);
             copySql = String.format(COPY_SQL_TEMPL, table, columnStr, DEFAULT_FIELD_DELIM, DEFAULT_NULL_DELIM);
-            return null;
+            // single records (batchInterval <= 1 and dirty data retries) use a plain insert instead of one COPY per row
         }
 
         return super.prepareTemplates();
     }
 
     @Override
-    protected void writeSingleRecordInternal(Row row) throws WriteRecordException {
+    protected void writeMultipleRecordsInternal() throws Exception {
         if(!isCopyMode){
-            super.writeSingleRecordInternal(row);
+            super.writeMultipleRecordsInternal();
             return;
         }
 
-        //write with copy
-        int index = 0;
         try {
-            StringBuilder sb = new StringBuilder();
-            int lastIndex = row.getArity() - 1;
-            for (; index < row.getArity(); index++) {
-                Object rowData = getField(row, index);
-                if(rowData==null){
-                    sb.append(DEFAULT_NULL_DELIM);
-                }else{
-                    sb.append(rowData);
+            if (copyIn == null || !copyIn.isActive()) {
+                copyIn = copyManager.copyIn(copySql);
+            }
+
+            for (Row row : rows) {
+                int lastIndex = row.getArity() - 1;
+                for (int index = 0; index < row.getArity(); index++) {
+                    copyEncoder.writeField(getField(row, index));
+                    if(index != lastIndex){
+                        copyEncoder.writeFieldDelimiter();
+                    }
+                }
+                copyEncoder.writeLineEnd();
+
+                if (copyEncoder.size() >= COPY_FLUSH_BYTES) {
+                    flushCopyBuffer();
                 }
-                if(index != lastIndex){
-                    sb.append(DEFAULT_FIELD_DELIM);
+
+                if (restoreConfig.isRestore()) {
+                    if (lastRow != null){
+                        readyCheckpoint = !ObjectUtils.equals(lastRow.getField(restoreConfig.getRestoreColumnIndex()),
+                                row.getField(restoreConfig.getRestoreColumnIndex()));
+                    }
+                    lastRow = row;
                 }
             }
-            String rowVal = sb.toString();
-            if(rowVal.contains("\\")){
-                rowVal=  rowVal.replaceAll("\\\\","\\\\\\\\");
-            }
-            if(rowVal.contains("\r")){
-                rowVal=  rowVal.replaceAll("\r","\\\\r");
-            }
+            flushCopyBuffer();
 
-            if(rowVal.contains("\n")){
-                rowVal=  rowVal.replaceAll("\n","\\\\n");
+            if(restoreConfig.isRestore()){
+                // keep the COPY open across batches, it is ended and committed on checkpoint
+                rowsOfCurrentTransaction += rows.size();
+            } else {
+                // end the COPY per batch so a failed batch can still be retried row by row
+                endCopy();
+                DbUtil.commit(dbConn);
             }
-            ByteArrayInputStream bi = new ByteArrayInputStream(rowVal.getBytes(StandardCharsets.UTF_8));
-            copyManager.copyIn(copySql, bi);
         } catch (Exception e) {
-            processWriteException(e, index, row);
+            LOG.warn("error to write records with copy, row size = {}, e = {}", rows.size(), ExceptionUtil.getErrorMessage(e));
+            cancelCopy();
+            DbUtil.rollBack(dbConn);
+            throw e;
         }
     }
 
     @Override
-    protected void writeMultipleRecordsInternal() throws Exception {
-        if(!isCopyMode){
-            super.writeMultipleRecordsInternal();
-            return;
+    public FormatState getFormatState() {
+        if (isCopyMode && restoreConfig.isRestore()) {
+            try {
+                if(rows != null && rows.size() > 0){
+                    writeRecordInternal();
+                }
+                endCopy();
+            } catch (Exception e) {
+                cancelCopy();
+                DbUtil.rollBack(dbConn);
+                throw new RuntimeException("Return format state error:", e);
+            }
         }
 
-        StringBuilder sb = new StringBuilder(128);
-        for (Row row : rows) {
-            int lastIndex = row.getArity() - 1;
-            StringBuilder tempBuilder = new StringBuilder(128);
-            for (int index =0; index < row.getArity(); index++) {
-                Object rowData = getField(row, index);
-                if(rowData==null){
-                    tempBuilder.append(DEFAULT_NULL_DELIM);
-                }else{
-                    tempBuilder.append(rowData);
-                }
-                if(index != lastIndex){
-                    tempBuilder.append(DEFAULT_FIELD_DELIM);
+        return super.getFormatState();
+    }
+
+    /**
+     * postSql runs on the same connection, which the server rejects while a COPY is in progress,
+     * so the COPY kept open in restore mode is ended and committed first
+     */
+    @Override
+    protected void beforeCloseInternal() {
+        if (copyIn != null && copyIn.isActive()) {
+            try {
+                endCopy();
+                if (restoreConfig.isRestore() && !RUNNING_STATE.equals(getTaskState())) {
+                    // same as closeInternal, rows after the last checkpoint are not committed when the task failed
+                    DbUtil.rollBack(dbConn);
+                } else {
+                    DbUtil.commit(dbConn);
                 }
+            } catch (Exception e) {
+                cancelCopy();
+                DbUtil.rollBack(dbConn);
+                throw new RuntimeException("end copy before postSql error:", e);
             }
-            // \r \n \ 等特殊字符串需要转义
-            String tempData = tempBuilder.toString();
-            if(tempData.contains("\\")){
-                tempData=  tempData.replaceAll("\\\\","\\\\\\\\");
-            }
-            if(tempData.contains("\r")){
-                tempData=  tempData.replaceAll("\r","\\\\r");
-            }
+        }
 
-            if(tempData.contains("\n")){
-                tempData=  tempData.replaceAll("\n","\\\\n");
+        super.beforeCloseInternal();
+    }
+
+    @Override
+    public void closeInternal() {
+        Exception endCopyException = null;
+        if (copyIn != null && copyIn.isActive()) {
+            try {
+                endCopy();
+            } catch (Exception e) {
+                endCopyException = e;
+                cancelCopy();
             }
-            sb.append(tempData).append(LINE_DELIMITER);
         }
 
-        String rowVal = sb.toString();
-        ByteArrayInputStream bi = new ByteArrayInputStream(rowVal.getBytes(StandardCharsets.UTF_8));
-        copyManager.copyIn(copySql, bi);
+        super.closeInternal();
 
-        if(restoreConfig.isRestore()){
-            rowsOfCurrentTransaction += rows.size();
+        if (endCopyException != null) {
+            throw new RuntimeException("end copy error:", endCopyException);
+        }
+    }
+
+    private void flushCopyBuffer() throws SQLException {
+        if (copyEncoder.size() > 0) {
+            copyIn.writeToCopy(copyEncoder.buffer(), 0, copyEncoder.size());
+            copyEncoder.reset();
+        }
+    }
+
+    private void endCopy() throws SQLException {
+        if (copyIn != null && copyIn.isActive()) {
+            flushCopyBuffer();
+            copyIn.endCopy();
+        }
+        copyIn = null;
+    }
+
+    private void cancelCopy() {
+        copyEncoder.reset();
+        if (copyIn != null && copyIn.isActive()) {
+            try {
+                copyIn.cancelCopy();
+            } catch (SQLException e) {
+                LOG.warn("cancel copy error, e = {}", ExceptionUtil.getErrorMessage(e));
+            }
         }
+        copyIn = null;
     }
 
     @Override
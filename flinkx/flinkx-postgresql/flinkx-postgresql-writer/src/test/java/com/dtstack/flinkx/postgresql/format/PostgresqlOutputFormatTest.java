@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dtstack.flinkx.postgresql.format;
+
+import com.dtstack.flinkx.config.RestoreConfig;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.postgresql.copy.CopyIn;
+
+import java.lang.reflect.Field;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PostgresqlOutputFormatTest {
+
+    private static final String POST_SQL = "update t set done = 1";
+
+    private Connection conn;
+
+    private Statement statement;
+
+    private CopyIn copyIn;
+
+    private AtomicBoolean copyActive;
+
+    @Before
+    public void setUp() throws Exception {
+        conn = mock(Connection.class);
+        statement = mock(Statement.class);
+        copyIn = mock(CopyIn.class);
+        copyActive = new AtomicBoolean(true);
+
+        when(conn.createStatement()).thenReturn(statement);
+        when(conn.getAutoCommit()).thenReturn(false);
+        when(copyIn.isActive()).thenAnswer(invocation -> copyActive.get());
+        doAnswer(invocation -> {
+            copyActive.set(false);
+            return 0L;
+        }).when(copyIn).endCopy();
+        // the server rejects any other statement while the COPY is in progress
+        doAnswer(invocation -> {
+            if (copyActive.get()) {
+                throw new SQLException("COPY in progress");
+            }
+            return null;
+        }).when(statement).addBatch(anyString());
+    }
+
+    @Test
+    public void testEndCopyBeforePostSqlInRestoreMode() throws Exception {
+        TestFormat format = new TestFormat(true);
+
+        format.beforeCloseInternal();
+
+        InOrder order = inOrder(copyIn, conn, statement);
+        order.verify(copyIn).endCopy();
+        order.verify(conn).commit();
+        order.verify(statement).addBatch(POST_SQL);
+        order.verify(statement).executeBatch();
+        Assert.assertFalse(copyActive.get());
+    }
+
+    @Test
+    public void testPostSqlWithoutActiveCopy() throws Exception {
+        copyActive.set(false);
+        TestFormat format = new TestFormat(false);
+
+        format.beforeCloseInternal();
+
+        verify(copyIn, never()).endCopy();
+        verify(statement).addBatch(POST_SQL);
+        verify(statement).executeBatch();
+    }
+
+    private class TestFormat extends PostgresqlOutputFormat {
+
+        TestFormat(boolean restore) throws Exception {
+            Map<String, Object> restoreMap = new HashMap<>();
+            restoreMap.put("isRestore", restore);
+            restoreConfig = new RestoreConfig(restoreMap);
+            dbConn = conn;
+            postSql = Collections.singletonList(POST_SQL);
+            taskNumber = 0;
+
+            setPrivateField("copyIn", copyIn);
+            setPrivateField("copyEncoder", new PgCopyEncoder('\001', '\002'));
+        }
+
+        private void setPrivateField(String name, Object value) throws Exception {
+            Field field = PostgresqlOutputFormat.class.getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(this, value);
+        }
+    }
+}
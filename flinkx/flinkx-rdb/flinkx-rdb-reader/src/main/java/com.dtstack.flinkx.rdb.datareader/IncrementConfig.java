@@ -58,6 +58,16 @@ public class IncrementConfig implements Serializable {
      */
     private long pollingInterval;
 
+    /**
+     * 轮询没有查询到数据时，轮询间隔从pollingInterval开始翻倍，最大为该值
+     */
+    private long maxPollingInterval;
+
+    /**
+     * 轮询前先查询增量字段的最大值，没有新数据时不执行轮询查询
+     */
+    private boolean pollingProbe;
+
     /**
      * 发送查询累加器请求的间隔时间
      */
@@ -134,4 +144,20 @@ public class IncrementConfig implements Serializable {
     public void setPollingInterval(long pollingInterval) {
         this.pollingInterval = pollingInterval;
     }
+
+    public long getMaxPollingInterval() {
+        return maxPollingInterval;
+    }
+
+    public void setMaxPollingInterval(long maxPollingInterval) {
+        this.maxPollingInterval = maxPollingInterval;
+    }
+
+    public boolean isPollingProbe() {
+        return pollingProbe;
+    }
+
+    public void setPollingProbe(boolean pollingProbe) {
+        this.pollingProbe = pollingProbe;
+    }
 }
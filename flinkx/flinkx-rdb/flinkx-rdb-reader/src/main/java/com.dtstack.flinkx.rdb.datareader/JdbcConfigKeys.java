@@ -54,5 +54,9 @@ public class JdbcConfigKeys {
 
     public static final String KEY_POLLING_INTERVAL = "pollingInterval";
 
+    public static final String KEY_MAX_POLLING_INTERVAL = "maxPollingInterval";
+
+    public static final String KEY_POLLING_PROBE = "pollingProbe";
+
     public static final String KEY_PROPERTIES = "properties";
 }
@@ -130,6 +130,8 @@ public class JdbcDataReader extends BaseDataReader {
         boolean useMaxFunc = readerConfig.getParameter().getBooleanVal(JdbcConfigKeys.KEY_USE_MAX_FUNC, false);
         int requestAccumulatorInterval = readerConfig.getParameter().getIntVal(JdbcConfigKeys.KEY_REQUEST_ACCUMULATOR_INTERVAL, 2);
         long pollingInterval = readerConfig.getParameter().getLongVal(JdbcConfigKeys.KEY_POLLING_INTERVAL, 5000);
+        long maxPollingInterval = readerConfig.getParameter().getLongVal(JdbcConfigKeys.KEY_MAX_POLLING_INTERVAL, pollingInterval * 4);
+        boolean pollingProbe = readerConfig.getParameter().getBooleanVal(JdbcConfigKeys.KEY_POLLING_PROBE, false);
 
         incrementConfig = new IncrementConfig();
         //增量字段不为空，表示任务为增量或间隔轮询任务
@@ -178,6 +180,8 @@ public class JdbcDataReader extends BaseDataReader {
             incrementConfig.setColumnIndex(index);
             incrementConfig.setRequestAccumulatorInterval(requestAccumulatorInterval);
             incrementConfig.setPollingInterval(pollingInterval);
+            incrementConfig.setMaxPollingInterval(Math.max(maxPollingInterval, pollingInterval));
+            incrementConfig.setPollingProbe(pollingProbe);
         }
     }
 
@@ -26,7 +26,7 @@ import com.dtstack.flinkx.rdb.datareader.QuerySqlBuilder;
 import com.dtstack.flinkx.rdb.util.DbUtil;
 import com.dtstack.flinkx.reader.MetaColumn;
 import com.dtstack.flinkx.util.ClassUtil;
-import com.dtstack.flinkx.util.StringUtil;
+import com.dtstack.flinkx.util.ColumnConverter;
 import org.apache.flink.core.io.InputSplit;
 import org.apache.flink.types.Row;
 
@@ -81,6 +81,8 @@ public class DistributedJdbcInputFormat extends BaseRichInputFormat {
 
     protected transient Row currentRecord;
 
+    protected transient ColumnConverter[] columnConverters;
+
     protected String username;
 
     protected String password;
@@ -105,6 +107,7 @@ public class DistributedJdbcInputFormat extends BaseRichInputFormat {
         try{
             ClassUtil.forName(driverName, getClass().getClassLoader());
             sourceList = ((DistributedJdbcInputSplit) inputSplit).getSourceList();
+            columnConverters = ColumnConverter.of(metaColumns);
         }catch (Exception e){
             throw new IllegalArgumentException("open() failed." + e.getMessage(), e);
         }
@@ -161,7 +164,7 @@ public class DistributedJdbcInputFormat extends BaseRichInputFormat {
                         }
 
                         if (val instanceof String){
-                            val = StringUtil.string2col(String.valueOf(val),metaColumn.getType(),metaColumn.getTimeFormat());
+                            val = columnConverters[i].convert(String.valueOf(val));
                         }
 
                         currentRecord.setField(i,val);
@@ -29,6 +29,7 @@ import com.dtstack.flinkx.rdb.util.DbUtil;
 import com.dtstack.flinkx.reader.MetaColumn;
 import com.dtstack.flinkx.restore.FormatState;
 import com.dtstack.flinkx.util.ClassUtil;
+import com.dtstack.flinkx.util.ColumnConverter;
 import com.dtstack.flinkx.util.ExceptionUtil;
 import com.dtstack.flinkx.util.FileSystemUtil;
 import com.dtstack.flinkx.util.GsonUtil;
@@ -38,6 +39,7 @@ import com.dtstack.flinkx.util.UrlUtil;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.gson.Gson;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.flink.api.common.accumulators.LongCounter;
 import org.apache.flink.core.io.InputSplit;
 import org.apache.flink.types.Row;
 import org.apache.hadoop.fs.FSDataOutputStream;
@@ -47,6 +49,7 @@ import org.apache.hadoop.fs.permission.FsPermission;
 import org.apache.hadoop.io.IOUtils;
 
 import java.io.IOException;
+import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.sql.Connection;
 import java.sql.Date;
@@ -117,6 +120,43 @@ public class JdbcInputFormat extends BaseRichInputFormat {
     //轮询增量标识字段类型
     public ColumnType type;
 
+    /**
+     * 增量字段在结果集中的位置，从1开始，读取第一条数据时解析
+     */
+    protected transient int incrementColumnIndex;
+
+    /**
+     * 当前读到的增量字段最大值，在checkpoint、轮询查询和关闭时才更新到endLocationAccumulator
+     */
+    private transient long maxLocation;
+
+    private transient boolean hasMaxLocation;
+
+    /**
+     * 上一次判断过的增量字段值的类型，以及是否为时间类型
+     */
+    private transient Class<?> lastLocationClass;
+
+    private transient boolean lastLocationClassIsTimestamp;
+
+    /**
+     * 每个字段解析后的类型，读取第一条数据时初始化
+     */
+    private transient ColumnConverter[] columnConverters;
+
+    /**
+     * 当前的轮询间隔，轮询没有数据时翻倍，查询到数据后恢复为pollingInterval
+     */
+    private transient long currentPollingInterval;
+
+    private transient PreparedStatement probeStatement;
+
+    private transient LongCounter pollingQueryCounter;
+
+    private transient LongCounter pollingEmptyQueryCounter;
+
+    private transient LongCounter pollingProbeCounter;
+
     //The hadoop config for metric
     public Map<String, Object> hadoopConfig;
 
@@ -166,14 +206,36 @@ public class JdbcInputFormat extends BaseRichInputFormat {
 
     @Override
     public InputSplit[] createInputSplitsInternal(int minNumSplits) {
+        String endLocation = getMaxValueForSplits();
         JdbcInputSplit[] splits = new JdbcInputSplit[minNumSplits];
         for (int i = 0; i < minNumSplits; i++) {
-            splits[i] = new JdbcInputSplit(i, numPartitions, i, incrementConfig.getStartLocation(), null);
+            splits[i] = new JdbcInputSplit(i, numPartitions, i, incrementConfig.getStartLocation(), endLocation);
         }
 
         return splits;
     }
 
+    /**
+     * useMaxFunc的增量任务在创建分片时查询一次增量字段的最大值，写入每个分片的endLocation，
+     * 通道打开时不需要再通过flink rest api等待0号通道的累加器
+     *
+     * @return 增量字段最大值，不需要或者查询失败时返回null，由通道打开时按原方式获取
+     */
+    private String getMaxValueForSplits() {
+        if (!incrementConfig.isIncrement() || incrementConfig.isPolling() || !incrementConfig.isUseMaxFunc()) {
+            return null;
+        }
+
+        try {
+            ClassUtil.forName(driverName, getClass().getClassLoader());
+            type = ColumnType.fromString(incrementConfig.getColumnType());
+            return getMaxValueFromDb();
+        } catch (Exception e) {
+            LOG.warn("failed to get max value when creating input splits, each channel will get it when opening, e = {}", ExceptionUtil.getErrorMessage(e));
+            return null;
+        }
+    }
+
     @Override
     public boolean reachedEnd() throws IOException{
         if (hasNext) {
@@ -181,7 +243,7 @@ public class JdbcInputFormat extends BaseRichInputFormat {
         } else {
             if (incrementConfig.isPolling()) {
                 try {
-                    TimeUnit.MILLISECONDS.sleep(incrementConfig.getPollingInterval());
+                    TimeUnit.MILLISECONDS.sleep(currentPollingInterval);
                     //sqlserver、DB2驱动包不支持isValid()，这里先注释掉，后续更换驱动包
                     //间隔轮询检测数据库连接是否断开，超时时间三秒，断开后自动重连
 //                    if(!dbConn.isValid(3)){
@@ -197,8 +259,15 @@ public class JdbcInputFormat extends BaseRichInputFormat {
                         dbConn.setAutoCommit(true);
                     }
                     DbUtil.closeDbResources(resultSet, null, null, false);
+                    flushLocation();
                     //此处endLocation理应不会为空
-                    queryForPolling(endLocationAccumulator.getLocalValue().toString());
+                    String startLocation = endLocationAccumulator.getLocalValue().toString();
+                    if (hasNewData(startLocation)) {
+                        queryForPolling(startLocation);
+                    } else {
+                        hasNext = false;
+                    }
+                    updatePollingInterval();
                     return false;
                 } catch (InterruptedException e) {
                     LOG.warn("interrupted while waiting for polling, e = {}", ExceptionUtil.getErrorMessage(e));
@@ -218,6 +287,9 @@ public class JdbcInputFormat extends BaseRichInputFormat {
         try {
             updateColumnCount();
             if (!ConstantValue.STAR_SYMBOL.equals(metaColumns.get(0).getName())) {
+                if (columnConverters == null) {
+                    initColumnConverters();
+                }
                 for (int i = 0; i < columnCount; i++) {
                     Object val = row.getField(i);
                     if (val == null && metaColumns.get(i).getValue() != null) {
@@ -225,7 +297,7 @@ public class JdbcInputFormat extends BaseRichInputFormat {
                     }
 
                     if (val instanceof String) {
-                        val = StringUtil.string2col(String.valueOf(val), metaColumns.get(i).getType(), metaColumns.get(i).getTimeFormat());
+                        val = columnConverters[i].convert((String) val);
                         row.setField(i, val);
                     }
                 }
@@ -233,22 +305,12 @@ public class JdbcInputFormat extends BaseRichInputFormat {
 
             boolean isUpdateLocation = incrementConfig.isPolling() || (incrementConfig.isIncrement() && !incrementConfig.isUseMaxFunc());
             if (isUpdateLocation) {
-                String location = null;
-                Object obj = resultSet.getObject(incrementConfig.getColumnName());
-                if(obj != null) {
-                    if((obj instanceof java.util.Date
-                            || obj.getClass().getSimpleName().toUpperCase().contains(ColumnType.TIMESTAMP.name())) ) {
-                        obj = resultSet.getTimestamp(incrementConfig.getColumnName()).getTime();
-                    }
-                    location = String.valueOf(obj);
-                    endLocationAccumulator.add(new BigInteger(location));
-                }
-
-                LOG.trace("update endLocationAccumulator, current Location = {}", location);
+                updateLocation();
             }
 
             count++;
             if (count == fetchSize) {
+                flushLocation();
                 long current = System.currentTimeMillis();
                 LOG.error(">>>>>>>> jobId: {} end read use time: {} count: {}", jobName, current - timestamp, count);
                 timestamp = current;
@@ -271,6 +333,7 @@ public class JdbcInputFormat extends BaseRichInputFormat {
 
     @Override
     public FormatState getFormatState() {
+        flushLocation();
         super.getFormatState();
 
         if (formatState != null && lastRow != null) {
@@ -281,6 +344,9 @@ public class JdbcInputFormat extends BaseRichInputFormat {
 
     @Override
     public void closeInternal() throws IOException {
+        flushLocation();
+        DbUtil.closeDbResources(null, probeStatement, null, false);
+        probeStatement = null;
         if (incrementConfig.isIncrement() && hadoopConfig != null) {
             uploadMetricData();
         }
@@ -326,11 +392,21 @@ public class JdbcInputFormat extends BaseRichInputFormat {
             }
         }
 
+        if (incrementConfig.isPolling()) {
+            currentPollingInterval = incrementConfig.getPollingInterval();
+            pollingQueryCounter = getRuntimeContext().getLongCounter(accumulatorName(Metrics.NUM_POLLING_QUERIES));
+            pollingEmptyQueryCounter = getRuntimeContext().getLongCounter(accumulatorName(Metrics.NUM_POLLING_EMPTY_QUERIES));
+            pollingProbeCounter = getRuntimeContext().getLongCounter(accumulatorName(Metrics.NUM_POLLING_PROBES));
+            inputMetric.addMetric(Metrics.NUM_POLLING_QUERIES, pollingQueryCounter, true);
+            inputMetric.addMetric(Metrics.NUM_POLLING_EMPTY_QUERIES, pollingEmptyQueryCounter);
+            inputMetric.addMetric(Metrics.NUM_POLLING_PROBES, pollingProbeCounter, true);
+        }
+
         //将累加器信息添加至prometheus
-        customPrometheusReporter.registerMetric(startLocationAccumulator, Metrics.START_LOCATION);
-        customPrometheusReporter.registerMetric(endLocationAccumulator, Metrics.END_LOCATION);
-        getRuntimeContext().addAccumulator(Metrics.START_LOCATION, startLocationAccumulator);
-        getRuntimeContext().addAccumulator(Metrics.END_LOCATION, endLocationAccumulator);
+        customPrometheusReporter.registerMetric(startLocationAccumulator, accumulatorName(Metrics.START_LOCATION));
+        customPrometheusReporter.registerMetric(endLocationAccumulator, accumulatorName(Metrics.END_LOCATION));
+        getRuntimeContext().addAccumulator(accumulatorName(Metrics.START_LOCATION), startLocationAccumulator);
+        getRuntimeContext().addAccumulator(accumulatorName(Metrics.END_LOCATION), endLocationAccumulator);
     }
 
     /**
@@ -339,21 +415,27 @@ public class JdbcInputFormat extends BaseRichInputFormat {
      * @param inputSplit 数据分片
      */
     protected void getMaxValue(InputSplit inputSplit) {
-        String maxValue;
-        if (inputSplit.getSplitNumber() == 0) {
-            maxValue = getMaxValueFromDb();
-            //将累加器信息上传至flink，供其他通道通过flink rest api获取该最大值
-            maxValueAccumulator = new StringAccumulator();
-            maxValueAccumulator.add(maxValue);
-            getRuntimeContext().addAccumulator(Metrics.MAX_VALUE, maxValueAccumulator);
-        } else {
-            maxValue = getMaxValueFromApi();
+        //创建分片时已经查询到最大值的直接使用
+        String maxValue = ((JdbcInputSplit) inputSplit).getEndLocation();
+        if (StringUtils.isEmpty(maxValue)) {
+            if (inputSplit.getSplitNumber() == 0) {
+                maxValue = getMaxValueFromDb();
+            } else {
+                maxValue = getMaxValueFromApi();
+            }
         }
 
         if (StringUtils.isEmpty(maxValue)) {
             throw new RuntimeException("Can't get the max value from accumulator");
         }
 
+        //将累加器信息上传至flink，供其他通道通过flink rest api获取该最大值
+        if (inputSplit.getSplitNumber() == 0 && maxValueAccumulator == null) {
+            maxValueAccumulator = new StringAccumulator();
+            maxValueAccumulator.add(maxValue);
+            getRuntimeContext().addAccumulator(accumulatorName(Metrics.MAX_VALUE), maxValueAccumulator);
+        }
+
         ((JdbcInputSplit) inputSplit).setEndLocation(maxValue);
     }
 
@@ -370,14 +452,7 @@ public class JdbcInputFormat extends BaseRichInputFormat {
         try {
             long startTime = System.currentTimeMillis();
 
-            String queryMaxValueSql;
-            if (StringUtils.isNotEmpty(customSql)) {
-                queryMaxValueSql = String.format("select max(%s.%s) as max_value from ( %s ) %s", DbUtil.TEMPORARY_TABLE_NAME,
-                        databaseInterface.quoteColumn(incrementConfig.getColumnName()), customSql, DbUtil.TEMPORARY_TABLE_NAME);
-            } else {
-                queryMaxValueSql = String.format("select max(%s) as max_value from %s",
-                        databaseInterface.quoteColumn(incrementConfig.getColumnName()), databaseInterface.quoteTable(table));
-            }
+            String queryMaxValueSql = buildMaxValueSql();
 
             String startSql = buildStartLocationSql(incrementConfig.getColumnType(),
                     databaseInterface.quoteColumn(incrementConfig.getColumnName()),
@@ -415,6 +490,80 @@ public class JdbcInputFormat extends BaseRichInputFormat {
         }
     }
 
+    /**
+     * 查询增量字段最大值的sql，不包含起始位置条件
+     */
+    private String buildMaxValueSql() {
+        if (StringUtils.isNotEmpty(customSql)) {
+            return String.format("select max(%s.%s) as max_value from ( %s ) %s", DbUtil.TEMPORARY_TABLE_NAME,
+                    databaseInterface.quoteColumn(incrementConfig.getColumnName()), customSql, DbUtil.TEMPORARY_TABLE_NAME);
+        } else {
+            return String.format("select max(%s) as max_value from %s",
+                    databaseInterface.quoteColumn(incrementConfig.getColumnName()), databaseInterface.quoteTable(table));
+        }
+    }
+
+    /**
+     * 开启pollingProbe时，先查询增量字段当前的最大值，没有超过startLocation时不执行轮询查询
+     *
+     * @param startLocation 本次轮询的起始位置
+     * @return 是否需要执行轮询查询
+     */
+    private boolean hasNewData(String startLocation) throws SQLException {
+        if (!incrementConfig.isPollingProbe()) {
+            return true;
+        }
+
+        if (probeStatement == null) {
+            String probeSql = buildMaxValueSql();
+            LOG.info("polling probe sql = {}", probeSql);
+            probeStatement = dbConn.prepareStatement(probeSql);
+            probeStatement.setQueryTimeout(queryTimeOut);
+        }
+
+        pollingProbeCounter.add(1);
+        String maxLocation = null;
+        try (ResultSet rs = probeStatement.executeQuery()) {
+            if (rs.next()) {
+                switch (type) {
+                    case TIMESTAMP:
+                        Timestamp maxTimestamp = rs.getTimestamp(1);
+                        maxLocation = maxTimestamp == null ? null : String.valueOf(maxTimestamp.getTime());
+                        break;
+                    case DATE:
+                        Date maxDate = rs.getDate(1);
+                        maxLocation = maxDate == null ? null : String.valueOf(maxDate.getTime());
+                        break;
+                    default:
+                        Object maxValue = rs.getObject(1);
+                        maxLocation = maxValue == null ? null : StringUtil.stringToTimestampStr(String.valueOf(maxValue), type);
+                }
+            }
+        }
+
+        if (maxLocation == null) {
+            return false;
+        }
+        try {
+            return new BigInteger(maxLocation).compareTo(new BigInteger(startLocation)) > 0;
+        } catch (NumberFormatException e) {
+            //无法比较时按有新数据处理
+            return true;
+        }
+    }
+
+    /**
+     * 轮询没有查询到数据时轮询间隔翻倍，最大为maxPollingInterval，查询到数据后恢复为pollingInterval
+     */
+    private void updatePollingInterval() {
+        if (hasNext) {
+            currentPollingInterval = incrementConfig.getPollingInterval();
+        } else {
+            pollingEmptyQueryCounter.add(1);
+            currentPollingInterval = Math.min(currentPollingInterval * 2, incrementConfig.getMaxPollingInterval());
+        }
+    }
+
     /**
      * 从flink rest api中获取累加器最大值
      * @return
@@ -445,7 +594,7 @@ public class JdbcInputFormat extends BaseRichInputFormat {
 
                 List<Map> userTaskAccumulators = (List<Map>) map.get("user-task-accumulators");
                 for (Map accumulator : userTaskAccumulators) {
-                    if (Metrics.MAX_VALUE.equals(accumulator.get("name"))) {
+                    if (accumulatorName(Metrics.MAX_VALUE).equals(accumulator.get("name"))) {
                         maxValue[0] = (String) accumulator.get("value");
                         break;
                     }
@@ -769,6 +918,9 @@ public class JdbcInputFormat extends BaseRichInputFormat {
         }
         resultSet = ps.executeQuery();
         hasNext = resultSet.next();
+        if (pollingQueryCounter != null) {
+            pollingQueryCounter.add(1);
+        }
     }
 
     /**
@@ -897,6 +1049,70 @@ public class JdbcInputFormat extends BaseRichInputFormat {
         }
     }
 
+    /**
+     * 按列配置生成每一列的数据转换器
+     */
+    private void initColumnConverters() {
+        columnConverters = new ColumnConverter[columnCount];
+        for (int i = 0; i < columnCount && i < metaColumns.size(); i++) {
+            columnConverters[i] = ColumnConverter.of(metaColumns.get(i));
+        }
+    }
+
+    /**
+     * 记录当前数据的增量字段值，能用long表示的值只更新maxLocation
+     */
+    private void updateLocation() throws SQLException {
+        if (incrementColumnIndex == 0) {
+            incrementColumnIndex = resultSet.findColumn(incrementConfig.getColumnName());
+        }
+
+        Object obj = resultSet.getObject(incrementColumnIndex);
+        if (obj == null) {
+            return;
+        }
+
+        if (obj instanceof Long || obj instanceof Integer || obj instanceof Short || obj instanceof Byte) {
+            updateMaxLocation(((Number) obj).longValue());
+        } else if (obj instanceof Timestamp) {
+            updateMaxLocation(((Timestamp) obj).getTime());
+        } else if (isTimestampValue(obj)) {
+            updateMaxLocation(resultSet.getTimestamp(incrementColumnIndex).getTime());
+        } else if (obj instanceof BigDecimal && ((BigDecimal) obj).scale() == 0 && ((BigDecimal) obj).precision() < 19) {
+            updateMaxLocation(((BigDecimal) obj).longValue());
+        } else {
+            endLocationAccumulator.add(new BigInteger(String.valueOf(obj)));
+        }
+    }
+
+    private boolean isTimestampValue(Object obj) {
+        Class<?> clazz = obj.getClass();
+        if (clazz != lastLocationClass) {
+            lastLocationClass = clazz;
+            lastLocationClassIsTimestamp = obj instanceof java.util.Date
+                    || clazz.getSimpleName().toUpperCase().contains(ColumnType.TIMESTAMP.name());
+        }
+        return lastLocationClassIsTimestamp;
+    }
+
+    private void updateMaxLocation(long location) {
+        if (!hasMaxLocation || location > maxLocation) {
+            maxLocation = location;
+            hasMaxLocation = true;
+        }
+    }
+
+    /**
+     * 把maxLocation更新到endLocationAccumulator
+     */
+    protected void flushLocation() {
+        if (hasMaxLocation && endLocationAccumulator != null) {
+            endLocationAccumulator.add(BigInteger.valueOf(maxLocation));
+            LOG.trace("update endLocationAccumulator, current Location = {}", maxLocation);
+            hasMaxLocation = false;
+        }
+    }
+
     /**
      * 兼容db2 在间隔轮训场景 且第一次读取时没有任何数据
      * 在openInternal方法调用时 由于数据库没有数据，db2会自动关闭resultSet，因此只有在间隔轮训中某次读取到数据之后，进行更新columnCount
@@ -25,6 +25,7 @@ import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.slf4j.Logger;
@@ -79,6 +80,35 @@ public class HttpUtil {
 //        return HttpClientBuilder.create().build();
     }
 
+    /**
+     * 写插件使用的长连接client，每个通道只创建一次
+     * 只对IO异常重试，响应码的重试和退避由调用方按批次处理
+     *
+     * @param maxConnections 同时在途的请求数
+     */
+    public static CloseableHttpClient getPooledHttpClient(int maxConnections, int timeout) {
+        MyHttpRequestRetryHandler retryHandler = new MyHttpRequestRetryHandler
+                .Builder()
+                .executionCount(EXECUTION_COUNT)
+                .build();
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(timeout)
+                .setConnectionRequestTimeout(timeout)
+                .setSocketTimeout(timeout)
+                .build();
+        PoolingHttpClientConnectionManager pcm = new PoolingHttpClientConnectionManager();
+        pcm.setDefaultMaxPerRoute(maxConnections);
+        pcm.setMaxTotal(maxConnections);
+        pcm.setValidateAfterInactivity(TIME_OUT);
+
+        return HttpClientBuilder.create()
+                .setRetryHandler(retryHandler)
+                .setDefaultRequestConfig(requestConfig)
+                .setConnectionManager(pcm)
+                .setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE)
+                .build();
+    }
+
     public static HttpRequestBase getRequest(String method,
                                              String data,
                                              Map<String, String> header,
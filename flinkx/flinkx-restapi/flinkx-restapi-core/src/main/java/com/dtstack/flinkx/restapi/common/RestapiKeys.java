@@ -30,4 +30,7 @@ public class RestapiKeys {
     public static final String KEY_URL = "url";
     public static final String KEY_BATCH_INTERVAL = "batchInterval";
     public static final String KEY_BATCH = "batchId";
+    public static final String KEY_CONCURRENT_REQUESTS = "concurrentRequests";
+    public static final String KEY_RETRY_TIMES = "retryTimes";
+    public static final String KEY_RETRY_INTERVAL = "retryInterval";
 }
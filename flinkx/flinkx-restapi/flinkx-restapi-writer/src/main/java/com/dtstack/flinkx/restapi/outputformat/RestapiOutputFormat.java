@@ -17,39 +17,54 @@
  */
 package com.dtstack.flinkx.restapi.outputformat;
 
+import com.dtstack.flinkx.config.ErrorLimitConfig;
 import com.dtstack.flinkx.exception.WriteRecordException;
 import com.dtstack.flinkx.outputformat.BaseRichOutputFormat;
+import com.dtstack.flinkx.restapi.common.HttpMethod;
 import com.dtstack.flinkx.restapi.common.HttpUtil;
+import com.dtstack.flinkx.restore.FormatState;
 import com.dtstack.flinkx.util.ExceptionUtil;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import org.apache.flink.types.Row;
 import org.apache.flink.util.CollectionUtil;
+import org.apache.http.Header;
 import org.apache.http.HttpStatus;
-import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.message.BasicHeader;
 import org.apache.http.util.EntityUtils;
 
 import java.io.IOException;
-import java.net.URLEncoder;
+import java.net.URI;
+import java.net.URISyntaxException;
 import java.sql.Timestamp;
 import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
-
-import static com.dtstack.flinkx.restapi.common.RestapiKeys.KEY_BATCH;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author : tiezhu
  * @date : 2020/3/12
  * 当前只考虑了元数据读取，和带有字段名column读取的情况，其他情况暂未考虑
+ *
+ * 每个通道只创建一个长连接client，url和请求头在open时构建好；
+ * concurrentRequests大于1时批量请求异步发送，请求失败的批次在之后的写入、checkpoint或close时按批次处理
  */
 public class RestapiOutputFormat extends BaseRichOutputFormat {
 
@@ -67,59 +82,189 @@ public class RestapiOutputFormat extends BaseRichOutputFormat {
 
     protected static final int DEFAULT_TIME_OUT = 300000;
 
+    protected static final long MAX_RETRY_INTERVAL = 60000L;
+
+    /** 同时在途的批量请求数，为1时同步发送 */
+    protected int concurrentRequests = 1;
+
+    /** 响应码不为200或请求异常时的重试次数，批量失败后逐条补写时不重试 */
+    protected int retryTimes = 5;
+
+    /** 首次重试的间隔，之后每次翻倍 */
+    protected long retryInterval = 1000L;
+
     protected Gson gson;
 
+    private transient CloseableHttpClient httpClient;
+
+    private transient URI requestUri;
+
+    private transient Header[] requestHeaders;
+
+    private transient boolean postRequest;
+
+    private transient SimpleDateFormat timestampFormat;
+
+    private transient ExecutorService executor;
+
+    private transient Deque<PendingBatch> pendingBatches;
+
     @Override
     protected void openInternal(int taskNumber, int numTasks) throws IOException {
 //        params.put("threadId", UUID.randomUUID().toString().substring(0, 8));
         gson = new GsonBuilder().serializeNulls().create();
-    }
+        timestampFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+
+        if (HttpMethod.POST.name().equalsIgnoreCase(method)) {
+            postRequest = true;
+        } else if (!HttpMethod.GET.name().equalsIgnoreCase(method)) {
+            throw new UnsupportedOperationException("Unsupported method:" + method);
+        }
 
-    @Override
-    protected void writeSingleRecordInternal(Row row) throws WriteRecordException {
-        LOG.info("start write single record");
-        CloseableHttpClient httpClient = HttpUtil.getHttpClient();
-        int index = 0;
-        List<Object> dataRow = new ArrayList<>();
         try {
-            dataRow.add(getDataForMobius(row, column));
             URIBuilder uriBuilder = new URIBuilder(this.url);
             if (!CollectionUtil.isNullOrEmpty(params)) {
                 for (Map.Entry<String, Object> entry : params.entrySet()) {
                     uriBuilder.addParameter(entry.getKey(), entry.getValue().toString());
                 }
             }
-            sendRequest(httpClient, gson.toJson(row), method, header, uriBuilder.build().toString());
+            requestUri = uriBuilder.build();
+        } catch (URISyntaxException e) {
+            throw new IOException("illegal url:" + url, e);
+        }
+
+        List<Header> headers = new ArrayList<>();
+        if (header != null) {
+            for (Map.Entry<String, String> entry : header.entrySet()) {
+                headers.add(new BasicHeader(entry.getKey(), entry.getValue()));
+            }
+        }
+        requestHeaders = headers.toArray(new Header[0]);
+
+        httpClient = HttpUtil.getPooledHttpClient(concurrentRequests, DEFAULT_TIME_OUT);
+        if (concurrentRequests > 1) {
+            executor = new ThreadPoolExecutor(concurrentRequests,
+                    concurrentRequests,
+                    0L,
+                    TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(),
+                    new ThreadFactoryBuilder().setNameFormat("restapi-writer-" + taskNumber + "-%d").build());
+            pendingBatches = new ArrayDeque<>(concurrentRequests);
+        }
+        LOG.info("request url:{}, method:{}, concurrentRequests:{}", requestUri, method, concurrentRequests);
+    }
+
+    @Override
+    protected void writeSingleRecordInternal(Row row) throws WriteRecordException {
+        // batchInterval大于1时只有批量失败后的逐条补写会走到这里
+        sendSingleRecord(row, batchInterval > 1 ? 0 : retryTimes);
+    }
+
+    /**
+     * 逐条写入，批量失败后的补写每行只请求一次，失败直接记为脏数据
+     *
+     * @param retries 重试次数
+     */
+    private void sendSingleRecord(Row row, int retries) throws WriteRecordException {
+        try {
+            sendRequest(gson.toJson(row), retries);
         } catch (Exception e) {
-            requestErrorMessage(e, index, row);
-            LOG.error(ExceptionUtil.getErrorMessage(e));
-            throw new RuntimeException(e);
-        } finally {
-            // 最后不管发送是否成功，都要关闭client
-            HttpUtil.closeClient(httpClient);
+            requestErrorMessage(e, 0, row);
+            throw new WriteRecordException(ExceptionUtil.getErrorMessage(e), e, -1, row);
         }
     }
 
     @Override
     protected void writeMultipleRecordsInternal() throws Exception {
-        LOG.info("start write multiple records");
+        List<Object> dataRow = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            dataRow.add(getDataForMobius(row, column));
+        }
+        String data = gson.toJson(dataRow);
+        LOG.debug("this batch size = {}", rows.size());
+
+        if (executor == null) {
+            sendRequest(data, retryTimes);
+            return;
+        }
+
+        // rows在提交后会被清空，异步请求失败时需要用这一批的数据记录脏数据
+        List<Row> batch = new ArrayList<>(rows);
+        while (!pendingBatches.isEmpty() && pendingBatches.peekFirst().future.isDone()) {
+            awaitBatch(pendingBatches.pollFirst());
+        }
+        while (pendingBatches.size() >= concurrentRequests) {
+            awaitBatch(pendingBatches.pollFirst());
+        }
+        pendingBatches.addLast(new PendingBatch(batch, executor.submit(() -> {
+            sendRequest(data, retryTimes);
+            return null;
+        })));
+    }
+
+    private void awaitBatch(PendingBatch pendingBatch) {
         try {
-            CloseableHttpClient httpClient = HttpUtil.getHttpClient();
-            List<Object> dataRow = new ArrayList<>();
-            for (Row row : rows) {
-                dataRow.add(getDataForMobius(row, column));
+            pendingBatch.future.get();
+        } catch (ExecutionException e) {
+            handleFailedBatch(pendingBatch.rows, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 异步批次提交时已经计入写入条数，这里只逐条发送一次并把失败的行记为脏数据，
+     * 与同步写入时 {@link BaseRichOutputFormat#writeRecordInternal()} 的处理方式保持一致
+     */
+    private void handleFailedBatch(List<Row> batch, Throwable cause) {
+        LOG.warn("write Multiple Records error, row size = {}, e = {}", batch.size(), ExceptionUtil.getErrorMessage(cause));
+        if (restoreConfig.isRestore()
+                || !(ErrorLimitConfig.ERROR_TRY_PLAN_BINARY.equals(errorTryPlan) || ErrorLimitConfig.ERROR_TRY_PLAN_ONE_BY_ONE.equals(errorTryPlan))) {
+            throw new RuntimeException(cause);
+        }
+
+        for (Row row : batch) {
+            try {
+                sendSingleRecord(row, 0);
+            } catch (WriteRecordException e) {
+                writeDirtyRecord(row, e);
             }
-            URIBuilder uriBuilder = new URIBuilder(this.url);
-            if (!CollectionUtil.isNullOrEmpty(params)) {
-                for (Map.Entry<String, Object> entry : params.entrySet()) {
-                    uriBuilder.addParameter(entry.getKey(), entry.getValue().toString());
-                }
+
+            if (errorLimiter != null) {
+                errorLimiter.acquire();
+            }
+        }
+    }
+
+    private void awaitPendingBatches() {
+        if (pendingBatches == null) {
+            return;
+        }
+        while (!pendingBatches.isEmpty()) {
+            awaitBatch(pendingBatches.pollFirst());
+        }
+    }
+
+    @Override
+    public FormatState getFormatState() {
+        awaitPendingBatches();
+        return super.getFormatState();
+    }
+
+    @Override
+    public void closeInternal() throws IOException {
+        try {
+            awaitPendingBatches();
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+                executor = null;
+            }
+            if (httpClient != null) {
+                HttpUtil.closeClient(httpClient);
+                httpClient = null;
             }
-            LOG.info("this batch size = {}", rows.size());
-            sendRequest(httpClient, gson.toJson(dataRow), method, header, uriBuilder.build().toString());
-        } catch (Exception e) {
-            LOG.error(ExceptionUtil.getErrorMessage(e));
-            throw new RuntimeException(e);
         }
     }
 
@@ -153,7 +298,7 @@ public class RestapiOutputFormat extends BaseRichOutputFormat {
     }
 
     private Object getDataForMobius(Row row, List<String> column) throws IOException {
-        List<Object> datas = new ArrayList<>();
+        List<Object> datas = new ArrayList<>(row.getArity());
         int index = 0;
         if (!column.isEmpty()) {
             // 如果column不为空，那么将数据和字段名一一对应
@@ -161,8 +306,7 @@ public class RestapiOutputFormat extends BaseRichOutputFormat {
                 Object value = null;
                 if (row.getField(index) instanceof Timestamp) {
                     // 不加不行啊，不加多个毫秒
-                    SimpleDateFormat simpleDateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-                    value = simpleDateFormat.format(row.getField(index));
+                    value = timestampFormat.format(row.getField(index));
                 } else {
                     value = row.getField(index);
                 }
@@ -175,27 +319,59 @@ public class RestapiOutputFormat extends BaseRichOutputFormat {
     }
 
 
-    private void sendRequest(CloseableHttpClient httpClient,
-                             String data,
-                             String method,
-                             Map<String, String> header,
-                             String url) throws IOException {
+    /**
+     * 响应码不为200或请求异常时按指数退避重试，重试次数用完后抛出异常，由调用方把这一批记为失败
+     *
+     * @param data 请求数据
+     * @param retries 重试次数，为0时只请求一次
+     */
+    private void sendRequest(String data, int retries) throws IOException, InterruptedException {
         LOG.debug("send data:{}", data);
-        LOG.info("请求的url：" + url);
-        HttpRequestBase request = HttpUtil.getRequest(method, data, header, url);
-        //设置请求和传输超时时间
-        RequestConfig requestConfig = RequestConfig.custom()
-                .setConnectTimeout(DEFAULT_TIME_OUT).setConnectionRequestTimeout(DEFAULT_TIME_OUT)
-                .setSocketTimeout(DEFAULT_TIME_OUT).build();
-        request.setConfig(requestConfig);
-        CloseableHttpResponse httpResponse = httpClient.execute(request);
-        LOG.info("响应码：" + httpResponse.getStatusLine().getStatusCode());
-        // 重试之后返回状态码不为200
-        if (httpResponse.getStatusLine().getStatusCode() != HttpStatus.SC_OK) {
-            LOG.warn("重试之后当前请求状态码为" + httpResponse.getStatusLine().getStatusCode());
+        for (int attempt = 0; ; attempt++) {
+            HttpRequestBase request = newRequest(data);
+            try (CloseableHttpResponse httpResponse = httpClient.execute(request)) {
+                int statusCode = httpResponse.getStatusLine().getStatusCode();
+                String responseString = httpResponse.getEntity() == null ? null : EntityUtils.toString(httpResponse.getEntity());
+                if (statusCode == HttpStatus.SC_OK) {
+                    LOG.debug("响应结果：{}", responseString);
+                    return;
+                }
+                if (attempt >= retries) {
+                    throw new IOException("重试之后当前请求状态码为" + statusCode + "，响应结果：" + responseString);
+                }
+                LOG.warn("当前请求状态码为{}，第{}次重试", statusCode, attempt + 1);
+            } catch (IOException e) {
+                if (attempt >= retries) {
+                    throw e;
+                }
+                LOG.warn("请求异常，第{}次重试，e = {}", attempt + 1, e.getMessage());
+            }
+            Thread.sleep(Math.min(retryInterval << Math.min(attempt, 16), MAX_RETRY_INTERVAL));
+        }
+    }
+
+    private HttpRequestBase newRequest(String data) {
+        HttpRequestBase request;
+        if (postRequest) {
+            HttpPost post = new HttpPost(requestUri);
+            post.setEntity(HttpUtil.getEntityData(data));
+            request = post;
         } else {
-            String responseString = EntityUtils.toString(httpResponse.getEntity());
-            LOG.info("响应结果：" + responseString);
+            request = new HttpGet(requestUri);
+        }
+        request.setHeaders(requestHeaders);
+        return request;
+    }
+
+    private static class PendingBatch {
+
+        private final List<Row> rows;
+
+        private final Future<?> future;
+
+        PendingBatch(List<Row> rows, Future<?> future) {
+            this.rows = rows;
+            this.future = future;
         }
     }
 }
@@ -58,6 +58,18 @@ public class RestapiOutputFormatBuilder extends BaseRichOutputFormatBuilder {
         format.params = params;
     }
 
+    public void setConcurrentRequests(int concurrentRequests) {
+        format.concurrentRequests = concurrentRequests;
+    }
+
+    public void setRetryTimes(int retryTimes) {
+        format.retryTimes = retryTimes;
+    }
+
+    public void setRetryInterval(long retryInterval) {
+        format.retryInterval = retryInterval;
+    }
+
 
     @Override
     protected void checkFormat() {
@@ -67,5 +79,11 @@ public class RestapiOutputFormatBuilder extends BaseRichOutputFormatBuilder {
         if (format.method.isEmpty()) {
             throw new IllegalArgumentException("缺少method");
         }
+        if (format.concurrentRequests < 1) {
+            throw new IllegalArgumentException("concurrentRequests必须大于0");
+        }
+        if (format.retryTimes < 0 || format.retryInterval < 0) {
+            throw new IllegalArgumentException("retryTimes和retryInterval不能小于0");
+        }
     }
 }
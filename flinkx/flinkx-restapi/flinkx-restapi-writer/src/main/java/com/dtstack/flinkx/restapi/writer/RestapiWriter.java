@@ -52,6 +52,12 @@ public class RestapiWriter extends BaseDataWriter {
 
     protected int batchInterval;
 
+    protected int concurrentRequests;
+
+    protected int retryTimes;
+
+    protected long retryInterval;
+
     @SuppressWarnings("unchecked")
     public RestapiWriter(DataTransferConfig config) {
         super(config);
@@ -62,6 +68,9 @@ public class RestapiWriter extends BaseDataWriter {
         url = writerConfig.getParameter().getStringVal(RestapiKeys.KEY_URL);
         method = writerConfig.getParameter().getStringVal(RestapiKeys.KEY_METHOD);
         batchInterval = writerConfig.getParameter().getIntVal(RestapiKeys.KEY_BATCH_INTERVAL, 1);
+        concurrentRequests = writerConfig.getParameter().getIntVal(RestapiKeys.KEY_CONCURRENT_REQUESTS, 1);
+        retryTimes = writerConfig.getParameter().getIntVal(RestapiKeys.KEY_RETRY_TIMES, 5);
+        retryInterval = writerConfig.getParameter().getLongVal(RestapiKeys.KEY_RETRY_INTERVAL, 1000L);
         tempObj = writerConfig.getParameter().getVal(RestapiKeys.KEY_COLUMN);
         if (tempObj != null) {
             column.addAll((ArrayList<String>) tempObj);
@@ -97,6 +106,9 @@ public class RestapiWriter extends BaseDataWriter {
         builder.setColumn(column);
         builder.setParams(params);
         builder.setBatchInterval(batchInterval);
+        builder.setConcurrentRequests(concurrentRequests);
+        builder.setRetryTimes(retryTimes);
+        builder.setRetryInterval(retryInterval);
         builder.setDirtyPath(dirtyPath);
         builder.setDirtyHadoopConfig(dirtyHadoopConfig);
         builder.setSrcCols(srcCols);